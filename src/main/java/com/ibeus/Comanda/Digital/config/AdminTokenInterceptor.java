@@ -0,0 +1,46 @@
+package com.ibeus.Comanda.Digital.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Protege /admin/**: só passa quem envia o header X-Admin-Token igual a comanda.admin.token.
+ * Sem token configurado as rotas de administração ficam desligadas (404), então um deploy
+ * esquecido não expõe a gravação do JFR (que traz propriedades, argumentos e variáveis do processo).
+ */
+@Component
+public class AdminTokenInterceptor implements HandlerInterceptor {
+
+    public static final String HEADER = "X-Admin-Token";
+
+    private final byte[] token;
+
+    public AdminTokenInterceptor(@Value("${comanda.admin.token:}") String token) {
+        this.token = token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Redespacho assíncrono do download: já autorizado no primeiro despacho
+        if (request.getDispatcherType() == DispatcherType.ASYNC) return true;
+
+        if (token == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        String sent = request.getHeader(HEADER);
+        // Comparação em tempo constante: o tempo de resposta não revela quantos bytes acertaram
+        if (sent == null || !MessageDigest.isEqual(token, sent.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Header " + HEADER + " ausente ou inválido");
+        }
+        return true;
+    }
+}
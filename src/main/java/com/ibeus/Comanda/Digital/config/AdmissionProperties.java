@@ -0,0 +1,38 @@
+package com.ibeus.Comanda.Digital.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Limites do controle de admissão de /orders (prefixo comanda.admission)
+@Data
+@ConfigurationProperties(prefix = "comanda.admission")
+public class AdmissionProperties {
+
+    // --- Escritas (POST/PATCH) ---
+    // Token bucket por dispositivo: taxa sustentada e rajada máxima
+    private double writeRatePerSecond = 5.0;
+    private int writeBurst = 10;
+
+    // Escritas simultâneas e fila de espera limitada. Cada escrita pode segurar 2 conexões (ouvintes
+    // REQUIRES_NEW após o commit): 2 x escritas + leituras + exportações + tarefas de fundo <= pool JDBC
+    private int writeConcurrency = 6;
+    private int writeQueueSize = 50;
+    private Duration writeQueueTimeout = Duration.ofMillis(500);
+
+    // --- Leituras (GET) ---
+    // Compartimento separado: leituras do quadro da cozinha nunca disputam vaga com as escritas
+    private int readConcurrency = 4;
+    private int readQueueSize = 100;
+    private Duration readQueueTimeout = Duration.ofSeconds(1);
+
+    // --- Exportações (GET .../export, em streaming) ---
+    // Poucas por vez e sem fila: cada uma segura a vaga (e uma conexão) durante toda a transferência
+    private int exportConcurrency = 2;
+    private int exportQueueSize = 0;
+    private Duration exportQueueTimeout = Duration.ZERO;
+
+    // Valor do header Retry-After enviado com o 429
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -0,0 +1,55 @@
+package com.ibeus.Comanda.Digital.config;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limita a concorrência de um grupo de endpoints: até N requisições em execução e uma fila
+ * de espera limitada. Quem não cabe na fila (ou espera além do timeout) é recusado na hora.
+ */
+class Bulkhead {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final int queueSize;
+    private final long timeoutNanos;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    Bulkhead(int maxConcurrent, int queueSize, Duration timeout) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.queueSize = queueSize;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    boolean tryEnter() {
+        if (permits.tryAcquire()) return true;
+
+        if (waiting.incrementAndGet() > queueSize) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    void exit() {
+        permits.release();
+    }
+
+    int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    int waiting() {
+        return waiting.get();
+    }
+}
@@ -0,0 +1,84 @@
+package com.ibeus.Comanda.Digital.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dois pools Hikari: "primary" (spring.datasource.*) para escritas e "replica"
+ * (comanda.datasource.replica.*, opcional) para as transações somente-leitura.
+ * Sem réplica configurada, tudo continua indo para o primário.
+ * As métricas de cada pool (hikaricp.connections.*, tag pool) são publicadas pelo Actuator.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    // No perfil prod (lazy-initialization) as migrações do Flyway continuam rodando na subida, antes do primeiro request
+    @Bean
+    public static LazyInitializationExcludeFilter flywayMigrationEagerInit() {
+        return LazyInitializationExcludeFilter.forBeanTypes(FlywayMigrationInitializer.class);
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty("comanda.datasource.replica.url")
+    @ConfigurationProperties("comanda.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, Environment env) {
+        // Usuário e senha da réplica são opcionais: se ausentes, reaproveita os do primário
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(env.getProperty("comanda.datasource.replica.url"))
+                .username(env.getProperty("comanda.datasource.replica.username", properties.getUsername()))
+                .password(env.getProperty("comanda.datasource.replica.password", properties.getPassword()))
+                .build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.REPLICA);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // DataSource usado pelo JPA/JdbcTemplate: roteia por transação
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                 ReadYourWritesGuard readYourWritesGuard,
+                                 MeterRegistry meterRegistry) {
+        DataSource replica = replicaDataSource.getIfAvailable();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadWriteRoutingDataSource.PRIMARY, primaryDataSource);
+        if (replica != null) {
+            targets.put(ReadWriteRoutingDataSource.REPLICA, replica);
+        }
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replica != null, readYourWritesGuard, meterRegistry);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,140 @@
+package com.ibeus.Comanda.Digital.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Controle de admissão de /orders no horário de pico.
+ *
+ * - Escritas: token bucket por dispositivo + compartimento (bulkhead) com fila limitada.
+ * - Leituras: compartimento próprio, então uma rajada de escritas não derruba o quadro da cozinha.
+ * - Exportações (.../export e o download do JFR): compartimento só delas; a transferência inteira
+ *   segura a vaga, então não podem ocupar as vagas das leituras rápidas.
+ * - Preflight de CORS (OPTIONS) passa direto: não consome ficha nem vaga.
+ * - Saturado: responde 429 imediatamente com Retry-After, em vez de segurar uma conexão do pool.
+ */
+@Component
+public class OrderAdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = OrderAdmissionInterceptor.class.getName() + ".permit";
+    private static final String FLIGHT_RECORDING_PATH = "/admin/flight-recording";
+
+    private final AdmissionProperties properties;
+    private final Bulkhead writeBulkhead;
+    private final Bulkhead readBulkhead;
+    private final Bulkhead exportBulkhead;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final Counter rateLimited;
+    private final Counter writeRejected;
+    private final Counter readRejected;
+    private final Counter exportRejected;
+
+    public OrderAdmissionInterceptor(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.writeBulkhead = new Bulkhead(properties.getWriteConcurrency(), properties.getWriteQueueSize(), properties.getWriteQueueTimeout());
+        this.readBulkhead = new Bulkhead(properties.getReadConcurrency(), properties.getReadQueueSize(), properties.getReadQueueTimeout());
+        this.exportBulkhead = new Bulkhead(properties.getExportConcurrency(), properties.getExportQueueSize(), properties.getExportQueueTimeout());
+
+        this.rateLimited = rejectionCounter(meterRegistry, "rate_limit");
+        this.writeRejected = rejectionCounter(meterRegistry, "write_saturated");
+        this.readRejected = rejectionCounter(meterRegistry, "read_saturated");
+        this.exportRejected = rejectionCounter(meterRegistry, "export_saturated");
+
+        Gauge.builder("comanda.admission.in_flight", writeBulkhead, Bulkhead::inFlight).tag("kind", "write").register(meterRegistry);
+        Gauge.builder("comanda.admission.waiting", writeBulkhead, Bulkhead::waiting).tag("kind", "write").register(meterRegistry);
+        Gauge.builder("comanda.admission.in_flight", readBulkhead, Bulkhead::inFlight).tag("kind", "read").register(meterRegistry);
+        Gauge.builder("comanda.admission.waiting", readBulkhead, Bulkhead::waiting).tag("kind", "read").register(meterRegistry);
+        Gauge.builder("comanda.admission.in_flight", exportBulkhead, Bulkhead::inFlight).tag("kind", "export").register(meterRegistry);
+        Gauge.builder("comanda.admission.waiting", exportBulkhead, Bulkhead::waiting).tag("kind", "export").register(meterRegistry);
+        Gauge.builder("comanda.admission.clients", buckets, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Redespacho assíncrono (ex: exportação em streaming): a vaga já foi obtida no primeiro despacho
+        if (request.getDispatcherType() == DispatcherType.ASYNC) return true;
+        if (CorsUtils.isPreFlightRequest(request)) return true;
+
+        boolean isRead = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+
+        if (isRead && isExport(request.getRequestURI())) {
+            if (!exportBulkhead.tryEnter()) {
+                exportRejected.increment();
+                return reject(response);
+            }
+            request.setAttribute(PERMIT_ATTRIBUTE, exportBulkhead);
+            return true;
+        }
+
+        if (isRead) {
+            if (!readBulkhead.tryEnter()) {
+                readRejected.increment();
+                return reject(response);
+            }
+            request.setAttribute(PERMIT_ATTRIBUTE, readBulkhead);
+            return true;
+        }
+
+        TokenBucket bucket = buckets.computeIfAbsent(RequestClient.resolve(request),
+                client -> new TokenBucket(properties.getWriteRatePerSecond(), properties.getWriteBurst()));
+        if (!bucket.tryConsume()) {
+            rateLimited.increment();
+            return reject(response);
+        }
+
+        if (!writeBulkhead.tryEnter()) {
+            bucket.refund(); // a escrita não foi executada: não conta para o limite do dispositivo
+            writeRejected.increment();
+            return reject(response);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, writeBulkhead);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object permit = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit instanceof Bulkhead bulkhead) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            bulkhead.exit();
+        }
+    }
+
+    // Descarta os buckets de dispositivos ociosos (cheios) para o mapa não crescer sem limite
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleBuckets() {
+        buckets.values().removeIf(TokenBucket::isIdle);
+    }
+
+    // Downloads longos (até centenas de MB no caso do JFR)
+    private static boolean isExport(String uri) {
+        return uri.endsWith("/export") || uri.endsWith(FLIGHT_RECORDING_PATH);
+    }
+
+    private boolean reject(HttpServletResponse response) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds())));
+        return false;
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("comanda.admission.rejected")
+                .description("Requisições de /orders recusadas com 429")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,24 @@
+package com.ibeus.Comanda.Digital.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta os SQLs preparados pelo Hibernate na thread corrente (não altera o SQL).
+ * Registrado em hibernate.session_factory.statement_inspector; o ServiceCallRecorder
+ * lê o contador antes e depois de cada chamada de serviço.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    // Contador acumulado da thread: interessa só a diferença entre duas leituras
+    public static int current() {
+        return COUNT.get()[0];
+    }
+}
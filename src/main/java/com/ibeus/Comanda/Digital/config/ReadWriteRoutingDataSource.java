@@ -0,0 +1,47 @@
+package com.ibeus.Comanda.Digital.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Envia transações @Transactional(readOnly = true) para a réplica e todo o resto para o primário.
+ * Deve ficar atrás de um LazyConnectionDataSourceProxy: assim a conexão só é obtida no primeiro
+ * comando SQL, quando a flag readOnly da transação já está definida.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final boolean hasReplica;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final Counter primaryCounter;
+    private final Counter replicaCounter;
+
+    public ReadWriteRoutingDataSource(boolean hasReplica, ReadYourWritesGuard readYourWritesGuard, MeterRegistry meterRegistry) {
+        this.hasReplica = hasReplica;
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.primaryCounter = Counter.builder("comanda.datasource.routed")
+                .description("Conexões roteadas por pool")
+                .tag("pool", PRIMARY)
+                .register(meterRegistry);
+        this.replicaCounter = Counter.builder("comanda.datasource.routed")
+                .description("Conexões roteadas por pool")
+                .tag("pool", REPLICA)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+
+        if (hasReplica && readOnly && !readYourWritesGuard.mustReadFromPrimary()) {
+            replicaCounter.increment();
+            return REPLICA;
+        }
+        primaryCounter.increment();
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,65 @@
+package com.ibeus.Comanda.Digital.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Garantia "leia o que você escreveu": depois que um dispositivo faz uma escrita, as leituras
+ * desse mesmo dispositivo vão para o primário durante uma janela (atraso esperado da réplica).
+ * Os demais dispositivos continuam lendo da réplica normalmente.
+ */
+@Component
+public class ReadYourWritesGuard implements HandlerInterceptor {
+
+    private static final ThreadLocal<String> CURRENT_CLIENT = new ThreadLocal<>();
+
+    private final long windowMillis;
+
+    // dispositivo -> horário (ms) da última escrita bem-sucedida
+    private final Map<String, Long> lastWriteAt = new ConcurrentHashMap<>();
+
+    public ReadYourWritesGuard(@Value("${comanda.datasource.read-your-writes-window:2s}") Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        CURRENT_CLIENT.set(RequestClient.resolve(request));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        String client = CURRENT_CLIENT.get();
+        CURRENT_CLIENT.remove();
+
+        boolean isWrite = !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+        if (client != null && isWrite && ex == null && response.getStatus() < 400) {
+            lastWriteAt.put(client, System.currentTimeMillis());
+        }
+    }
+
+    // Consultado pelo roteador de DataSource a cada transação somente-leitura
+    public boolean mustReadFromPrimary() {
+        String client = CURRENT_CLIENT.get();
+        if (client == null) return false;
+
+        Long writtenAt = lastWriteAt.get(client);
+        return writtenAt != null && System.currentTimeMillis() - writtenAt < windowMillis;
+    }
+
+    // Remove dispositivos cuja janela já expirou (mantém o mapa pequeno)
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long limit = System.currentTimeMillis() - windowMillis;
+        lastWriteAt.values().removeIf(writtenAt -> writtenAt < limit);
+    }
+}
@@ -0,0 +1,17 @@
+package com.ibeus.Comanda.Digital.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Identifica o dispositivo (tablet/tela) que fez a requisição: header X-Device-Id ou, na falta dele, o IP
+public final class RequestClient {
+
+    public static final String DEVICE_HEADER = "X-Device-Id";
+
+    private RequestClient() {
+    }
+
+    public static String resolve(HttpServletRequest request) {
+        String deviceId = request.getHeader(DEVICE_HEADER);
+        return deviceId != null && !deviceId.isBlank() ? deviceId : request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,75 @@
+package com.ibeus.Comanda.Digital.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.retry.interceptor.RetryInterceptorBuilder;
+import org.springframework.retry.interceptor.RetryOperationsInterceptor;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Política de nova tentativa para conflitos de versão (@Version) nas escritas de pedidos.
+ * O interceptor do @Retryable roda por fora do @Transactional: cada tentativa é uma transação nova,
+ * que relê o pedido já com a alteração concorrente.
+ */
+@Configuration
+@EnableRetry
+public class RetryConfig {
+
+    public static final String ORDER_CONFLICT_RETRY = "orderConflictRetryInterceptor";
+
+    @Bean(ORDER_CONFLICT_RETRY)
+    public RetryOperationsInterceptor orderConflictRetryInterceptor(
+            @Value("${comanda.retry.max-attempts:5}") int maxAttempts,
+            @Value("${comanda.retry.initial-delay-ms:10}") long initialDelayMs,
+            @Value("${comanda.retry.max-delay-ms:200}") long maxDelayMs,
+            MeterRegistry meterRegistry) {
+
+        Counter conflicts = Counter.builder("comanda.orders.conflicts")
+                .description("Conflitos de versão em escritas de pedidos")
+                .register(meterRegistry);
+        Counter exhausted = Counter.builder("comanda.orders.conflicts.exhausted")
+                .description("Escritas de pedidos que esgotaram as tentativas")
+                .register(meterRegistry);
+
+        RetryTemplate template = RetryTemplate.builder()
+                .maxAttempts(maxAttempts)
+                .retryOn(OptimisticLockingFailureException.class)
+                .traversingCauses()
+                // Backoff exponencial com jitter e teto: evita que os escritores colidam de novo em sincronia
+                .exponentialBackoff(initialDelayMs, 2.0, maxDelayMs, true)
+                .withListener(new RetryListener() {
+                    @Override
+                    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                        if (throwable instanceof OptimisticLockingFailureException) {
+                            conflicts.increment();
+                        }
+                    }
+                })
+                .build();
+
+        return RetryInterceptorBuilder.stateless()
+                .retryOperations(template)
+                .recoverer((args, cause) -> {
+                    // Só o conflito que esgotou as tentativas vira 409; os demais erros seguem como estavam
+                    if (cause instanceof OptimisticLockingFailureException) {
+                        exhausted.increment();
+                        throw new ResponseStatusException(HttpStatus.CONFLICT,
+                                "O pedido foi alterado por outra tela ao mesmo tempo. Tente novamente.", cause);
+                    }
+                    if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+                    if (cause instanceof Error error) throw error;
+                    throw new IllegalStateException(cause);
+                })
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.ibeus.Comanda.Digital.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+@Configuration
+public class SerializationConfig {
+
+    // Troca a reflexão do Jackson por acessores gerados em bytecode (LambdaMetafactory).
+    // O Spring Boot registra automaticamente todo bean do tipo Module no ObjectMapper.
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    // --- FORMATOS BINÁRIOS (negociados pelo header Accept) ---
+    // Os tablets que enviarem "Accept: application/cbor" ou "application/x-jackson-smile"
+    // recebem o mesmo DTO em formato binário compacto; os demais continuam recebendo JSON.
+    // O builder do Boot é prototype: cada conversor recebe um ObjectMapper próprio com os mesmos módulos.
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
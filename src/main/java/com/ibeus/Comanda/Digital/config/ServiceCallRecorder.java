@@ -0,0 +1,87 @@
+package com.ibeus.Comanda.Digital.config;
+
+import com.ibeus.Comanda.Digital.dto.OrderDTO;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import com.ibeus.Comanda.Digital.event.ServiceCallJfrEvent;
+import com.ibeus.Comanda.Digital.service.OrderService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emite um ServiceCallJfrEvent para cada chamada pública a OrderService e DishService.
+ *
+ * Fica por fora da transação e das novas tentativas (maior precedência), então a duração inclui
+ * o flush/commit e o mapeamento para DTO. A transição de status vem do OrderStatusChangedEvent,
+ * publicado na mesma thread durante a chamada. Com o evento desabilitado no JFR o custo é só
+ * a checagem isEnabled().
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceCallRecorder {
+
+    // Chamada em andamento na thread (chamadas aninhadas guardam a anterior)
+    private static final ThreadLocal<ServiceCallJfrEvent> CURRENT = new ThreadLocal<>();
+
+    @Around("execution(public * com.ibeus.Comanda.Digital.service.OrderService.*(..)) || " +
+            "execution(public * com.ibeus.Comanda.Digital.service.DishService.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        ServiceCallJfrEvent event = new ServiceCallJfrEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        ServiceCallJfrEvent outer = CURRENT.get();
+        CURRENT.set(event);
+        int queriesBefore = QueryCountInspector.current();
+        event.begin();
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            event.succeeded = true;
+            return result;
+        } finally {
+            event.end();
+            if (outer != null) CURRENT.set(outer);
+            else CURRENT.remove();
+
+            if (event.shouldCommit()) {
+                Class<?> target = joinPoint.getSignature().getDeclaringType();
+                event.service = target.getSimpleName();
+                event.method = joinPoint.getSignature().getName();
+                event.tenant = TenantContext.current();
+                event.queries = QueryCountInspector.current() - queriesBefore;
+                if (event.orderId == 0 && OrderService.class.isAssignableFrom(target)) {
+                    event.orderId = orderId(result, joinPoint.getArgs());
+                }
+                event.commit();
+            }
+        }
+    }
+
+    // Publicado pelo OrderService dentro da chamada (antes do commit): anota a transição no evento corrente
+    @EventListener
+    public void onStatusChanged(OrderStatusChangedEvent statusChanged) {
+        ServiceCallJfrEvent event = CURRENT.get();
+        if (event == null) return;
+        event.orderId = statusChanged.getOrderId() != null ? statusChanged.getOrderId() : 0;
+        event.fromStatus = statusChanged.getFrom() != null ? statusChanged.getFrom().name() : null;
+        event.toStatus = statusChanged.getTo().name();
+    }
+
+    // Pedido retornado ou, na falta dele, o primeiro argumento Long (id do pedido nos métodos do OrderService)
+    private static long orderId(Object result, Object[] args) {
+        if (result instanceof OrderDTO dto && dto.getId() != null) {
+            return dto.getId();
+        }
+        for (Object arg : args) {
+            if (arg instanceof Long id) return id;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ibeus.Comanda.Digital.config;
+
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Limites de tempo (SLA) por status, configurados em application.properties (prefixo comanda.sla)
+@Data
+@ConfigurationProperties(prefix = "comanda.sla")
+public class SlaProperties {
+
+    // Ex: comanda.sla.thresholds.IN_PREPARATION=25m
+    private Map<OrderStatus, Duration> thresholds = new EnumMap<>(OrderStatus.class);
+
+    // Quantas amostras recentes de tempo de preparo são mantidas por categoria de prato
+    private int statsWindowSize = 500;
+}
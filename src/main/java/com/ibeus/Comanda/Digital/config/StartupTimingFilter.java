@@ -0,0 +1,53 @@
+package com.ibeus.Comanda.Digital.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mede o tempo desde o início da JVM até a primeira resposta bem-sucedida de GET /dishes
+ * (o que o quiosque realmente espera depois de reiniciar). O valor vai para o log e para a
+ * métrica comanda.startup.first_dishes_request.ms, para comparar entre versões e perfis.
+ */
+@Component
+public class StartupTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimingFilter.class);
+
+    // -1 enquanto a primeira requisição não foi atendida
+    private final AtomicLong timeToFirstRequestMs = new AtomicLong(-1);
+
+    public StartupTimingFilter(MeterRegistry meterRegistry) {
+        meterRegistry.gauge("comanda.startup.first_dishes_request.ms", timeToFirstRequestMs);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return timeToFirstRequestMs.get() >= 0
+                || !"GET".equals(request.getMethod())
+                || !"/dishes".equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(request, response);
+
+        if (response.getStatus() < 400) {
+            long elapsed = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            if (timeToFirstRequestMs.compareAndSet(-1, elapsed)) {
+                log.info("Tempo até a primeira resposta de GET /dishes: {} ms", elapsed);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ibeus.Comanda.Digital.config;
+
+import java.util.regex.Pattern;
+
+/**
+ * Restaurante (tenant) da requisição corrente, definido pelo TenantInterceptor a partir do header X-Tenant-Id.
+ * Sem o header, vale o tenant "default" (instalações com um único restaurante continuam funcionando).
+ * O valor é por thread: código que roda em outra thread (ex: exportação em streaming) deve capturá-lo antes.
+ */
+public final class TenantContext {
+
+    public static final String HEADER = "X-Tenant-Id";
+    public static final String DEFAULT = "default";
+
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : DEFAULT;
+    }
+
+    public static void set(String tenant) {
+        CURRENT.set(tenant);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static boolean isValid(String tenant) {
+        return tenant != null && VALID.matcher(tenant).matches();
+    }
+}
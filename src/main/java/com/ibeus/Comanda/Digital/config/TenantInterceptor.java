@@ -0,0 +1,45 @@
+package com.ibeus.Comanda.Digital.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+// Resolve o restaurante (tenant) de cada requisição e conta as requisições por tenant
+@Component
+public class TenantInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public TenantInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String tenant = request.getHeader(TenantContext.HEADER);
+        if (tenant == null || tenant.isBlank()) {
+            tenant = TenantContext.DEFAULT;
+        } else if (!TenantContext.isValid(tenant)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Header " + TenantContext.HEADER + " inválido");
+        }
+
+        TenantContext.set(tenant);
+        meterRegistry.counter("comanda.tenant.requests", "tenant", tenant).increment();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        TenantContext.clear();
+    }
+
+    // Downloads em streaming liberam a thread antes do afterCompletion: limpa aqui também
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        TenantContext.clear();
+    }
+}
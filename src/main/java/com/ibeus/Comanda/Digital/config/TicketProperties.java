@@ -0,0 +1,34 @@
+package com.ibeus.Comanda.Digital.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Configuração da impressão de comandas da cozinha (prefixo comanda.tickets)
+@Data
+@ConfigurationProperties(prefix = "comanda.tickets")
+public class TicketProperties {
+
+    // "file" (padrão, grava os bytes em disco) ou "network" (impressora ESC/POS na porta 9100)
+    private String mode = "file";
+
+    // Pasta usada pelo modo "file"
+    private String directory = "comanda-digital-uploads/tickets";
+
+    // Impressora padrão e roteamento por categoria (ex: comanda.tickets.category-printers.Bebidas=bar)
+    private String defaultPrinter = "kitchen";
+    private Map<String, String> categoryPrinters = new HashMap<>();
+
+    // Endereço de cada impressora no modo "network" (ex: comanda.tickets.addresses.kitchen=192.168.0.50:9100)
+    private Map<String, String> addresses = new HashMap<>();
+
+    private int batchSize = 20;
+    private int maxAttempts = 10;
+    private Duration retryDelay = Duration.ofSeconds(5);
+    private Duration pollInterval = Duration.ofSeconds(5);
+    // Tempo que um nó tem para imprimir o lote que reservou; depois disso outro nó pode retomá-lo
+    private Duration claimTimeout = Duration.ofMinutes(1);
+}
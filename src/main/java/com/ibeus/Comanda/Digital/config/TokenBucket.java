@@ -0,0 +1,54 @@
+package com.ibeus.Comanda.Digital.config;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket simples: recarrega "ratePerSecond" fichas por segundo até "capacity".
+ */
+class TokenBucket {
+
+    private final double ratePerNano;
+    private final double capacity;
+    private final LongSupplier nanoTime;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double ratePerSecond, int capacity) {
+        this(ratePerSecond, capacity, System::nanoTime);
+    }
+
+    // Relógio (em nanossegundos) injetável para os testes
+    TokenBucket(double ratePerSecond, int capacity, LongSupplier nanoTime) {
+        this.ratePerNano = ratePerSecond / 1_000_000_000.0;
+        this.capacity = capacity;
+        this.nanoTime = nanoTime;
+        this.tokens = capacity;
+        this.lastRefill = nanoTime.getAsLong();
+    }
+
+    synchronized boolean tryConsume() {
+        refill();
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return true;
+        }
+        return false;
+    }
+
+    // Devolve uma ficha consumida por uma requisição que acabou não sendo executada
+    synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1.0);
+    }
+
+    // Cheio e sem uso recente: pode ser descartado do mapa de clientes
+    synchronized boolean isIdle() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+        lastRefill = now;
+    }
+}
@@ -1,6 +1,7 @@
 package com.ibeus.Comanda.Digital.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -13,6 +14,38 @@ public class WebConfig implements WebMvcConfigurer {
     // Define o nome da subpasta onde os arquivos serão salvos (DEVE ser o mesmo no StorageService)
     private final String SUB_FOLDER = "comanda-digital-uploads/images";
 
+    private final TenantInterceptor tenantInterceptor;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final AdminTokenInterceptor adminTokenInterceptor;
+    private final OrderAdmissionInterceptor orderAdmissionInterceptor;
+
+    public WebConfig(TenantInterceptor tenantInterceptor,
+                     ReadYourWritesGuard readYourWritesGuard,
+                     AdminTokenInterceptor adminTokenInterceptor,
+                     OrderAdmissionInterceptor orderAdmissionInterceptor) {
+        this.tenantInterceptor = tenantInterceptor;
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.adminTokenInterceptor = adminTokenInterceptor;
+        this.orderAdmissionInterceptor = orderAdmissionInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Primeiro: todos os demais (e os services) já encontram o restaurante da requisição resolvido
+        registry.addInterceptor(tenantInterceptor);
+
+        // Marca os dispositivos que acabaram de escrever para que leiam do primário por alguns segundos
+        registry.addInterceptor(readYourWritesGuard);
+
+        // Antes da admissão: chamada sem token não ocupa vaga de exportação
+        registry.addInterceptor(adminTokenInterceptor).addPathPatterns("/admin/**");
+
+        // Controle de admissão (429 + Retry-After) na frente do OrderController, da exportação do cardápio
+        // e do download da gravação do JFR (compartimento das exportações)
+        registry.addInterceptor(orderAdmissionInterceptor)
+                .addPathPatterns("/orders", "/orders/**", "/dishes/export", "/admin/flight-recording");
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Encontra o caminho absoluto do diretório de uploads
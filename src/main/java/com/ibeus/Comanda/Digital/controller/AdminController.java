@@ -0,0 +1,45 @@
+package com.ibeus.Comanda.Digital.controller;
+
+import com.ibeus.Comanda.Digital.service.FlightRecorderService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    private final FlightRecorderService flightRecorderService;
+
+    public AdminController(FlightRecorderService flightRecorderService) {
+        this.flightRecorderService = flightRecorderService;
+    }
+
+    // Últimos N minutos da gravação contínua do JFR (ex: logo depois de o quadro travar no pico)
+    @GetMapping("/flight-recording")
+    public ResponseEntity<StreamingResponseBody> flightRecording(@RequestParam(defaultValue = "5") int minutes) {
+        if (!flightRecorderService.isRecording()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Flight Recorder desativado ou indisponível");
+        }
+        long maxMinutes = Math.max(1, flightRecorderService.getMaxAge().toMinutes());
+        if (minutes < 1 || minutes > maxMinutes) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minutes deve estar entre 1 e " + maxMinutes);
+        }
+
+        String filename = "comanda-" + Instant.now().getEpochSecond() + ".jfr";
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+                .body(out -> flightRecorderService.dump(Duration.ofMinutes(minutes), out));
+    }
+}
@@ -1,14 +1,29 @@
 package com.ibeus.Comanda.Digital.controller;
 
+import com.ibeus.Comanda.Digital.config.TenantContext;
 import com.ibeus.Comanda.Digital.dto.DishDTO;
+import com.ibeus.Comanda.Digital.dto.DishRecommendationDTO;
+import com.ibeus.Comanda.Digital.dto.DishSuggestionDTO;
+import com.ibeus.Comanda.Digital.dto.ImportReportDTO;
 import com.ibeus.Comanda.Digital.model.Dish;
+import com.ibeus.Comanda.Digital.service.DishAutocompleteService;
+import com.ibeus.Comanda.Digital.service.DishImportExportService;
+import com.ibeus.Comanda.Digital.service.DishRecommendationService;
 import com.ibeus.Comanda.Digital.service.DishService;
+import com.ibeus.Comanda.Digital.service.MenuSnapshot;
+import com.ibeus.Comanda.Digital.service.MenuSnapshotService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,15 +35,35 @@ public class DishController {
     @Autowired
     private DishService dishService;
 
+    @Autowired
+    private MenuSnapshotService menuSnapshotService; // Cardápio publicado (bytes já serializados)
+
+    @Autowired
+    private DishImportExportService importExportService;
+
+    @Autowired
+    private DishAutocompleteService autocompleteService;
+
+    @Autowired
+    private DishRecommendationService recommendationService;
+
+    // Formatos binários negociados (ver SerializationConfig): estes clientes recebem os DTOs pelo conversor
+    private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    // Mesma URL, respostas diferentes por formato (Accept), compressão e restaurante: caches intermediários precisam separar
+    private static final String[] VARY = {HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, TenantContext.HEADER};
+
     // --- MÉTODOS DE LEITURA (GET) ---
 
+    // Servido direto do snapshot publicado: sem consulta, sem mapeamento e sem serialização por requisição
     @GetMapping
-    public ResponseEntity<List<DishDTO>> getAllDishes() {
-        // Busca Entities, converte para DTOs e retorna lista
-        List<DishDTO> list = dishService.findAll().stream()
-                .map(DishDTO::fromModel)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(list);
+    public ResponseEntity<?> getAllDishes(@RequestHeader HttpHeaders headers) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        if (prefersBinary(headers)) {
+            return ResponseEntity.ok().varyBy(VARY).body(snapshot.getDishes());
+        }
+        return writeSnapshot(snapshot.getAll(), headers);
     }
 
     @GetMapping("/{id}")
@@ -36,6 +71,14 @@ public class DishController {
         return ResponseEntity.ok(DishDTO.fromModel(dishService.findById(id)));
     }
 
+    // Sugestões para o carrinho: pratos mais pedidos junto com este (servido da matriz em memória)
+    @GetMapping("/{id}/recommendations")
+    public ResponseEntity<List<DishRecommendationDTO>> getRecommendations(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(recommendationService.recommend(id, limit));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<List<DishDTO>> getDishByName(@RequestParam("name") String name) {
         List<DishDTO> list = dishService.findByName(name).stream()
@@ -44,20 +87,35 @@ public class DishController {
         return ResponseEntity.ok(list);
     }
 
+    // Chamado a cada tecla da busca: responde da trie em memória, sem consulta ao banco
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<DishSuggestionDTO>> autocomplete(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(autocompleteService.suggest(query, limit));
+    }
+
+    // Binário ou JSON, sempre do snapshot: os dois trazem o "soldOut" do estoque
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<DishDTO>> getDishByCategory(@PathVariable String category) {
-        List<DishDTO> list = dishService.findByCategory(category).stream()
-                .map(DishDTO::fromModel)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(list);
+    public ResponseEntity<?> getDishByCategory(@PathVariable String category, @RequestHeader HttpHeaders headers) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        MenuSnapshot.EncodedBody body = snapshot.getCategory(category);
+        if (body == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Nenhum prato nesta categoria: " + category);
+        }
+        if (prefersBinary(headers)) {
+            return ResponseEntity.ok().varyBy(VARY).body(snapshot.getCategoryDishes(category));
+        }
+        return writeSnapshot(body, headers);
     }
 
     @GetMapping("/favorites")
-    public ResponseEntity<List<DishDTO>> findFavorites() {
-        List<DishDTO> list = dishService.findFavorites().stream()
-                .map(DishDTO::fromModel)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(list);
+    public ResponseEntity<?> findFavorites(@RequestHeader HttpHeaders headers) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        if (prefersBinary(headers)) {
+            return ResponseEntity.ok().varyBy(VARY).body(snapshot.getFavoriteDishes());
+        }
+        return writeSnapshot(snapshot.getFavorites(), headers);
     }
 
     // --- MÉTODO DE CRIAÇÃO UNIFICADO (POST) ---
@@ -76,6 +134,38 @@ public class DishController {
         return ResponseEntity.ok(DishDTO.fromModel(savedDish));
     }
 
+    // --- IMPORTAÇÃO / EXPORTAÇÃO EM MASSA (CSV ou NDJSON) ---
+
+    // O corpo da requisição é lido em streaming (sem multipart): ex. curl --data-binary @cardapio.csv
+    @PostMapping("/import")
+    public ResponseEntity<ImportReportDTO> importDishes(
+            @RequestParam(defaultValue = DishImportExportService.CSV) String format,
+            InputStream body) {
+        return ResponseEntity.ok(importExportService.importDishes(body, checkFormat(format)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportDishes(
+            @RequestParam(defaultValue = DishImportExportService.CSV) String format) {
+        String checked = checkFormat(format);
+        String tenantId = TenantContext.current(); // o corpo é escrito em outra thread
+        MediaType contentType = DishImportExportService.CSV.equals(checked)
+                ? MediaType.valueOf("text/csv;charset=UTF-8")
+                : MediaType.valueOf("application/x-ndjson");
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=dishes." + checked)
+                .body(out -> importExportService.exportDishes(out, checked, tenantId));
+    }
+
+    private static String checkFormat(String format) {
+        if (!DishImportExportService.CSV.equals(format) && !DishImportExportService.NDJSON.equals(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato não suportado: " + format + " (use csv ou ndjson)");
+        }
+        return format;
+    }
+
     // --- MÉTODOS DE ATUALIZAÇÃO E DELEÇÃO ---
 
     @PutMapping(value = "/{id}", consumes = {"multipart/form-data"})
@@ -100,4 +190,32 @@ public class DishController {
         // Retorna 204 No Content (sucesso sem corpo)
         return ResponseEntity.noContent().build();
     }
+
+    // --- AUXILIARES DO CARDÁPIO PUBLICADO ---
+
+    // Escreve os bytes pré-codificados: gzip pronto se o cliente aceita, 304 se o ETag da representação escolhida bate
+    private ResponseEntity<byte[]> writeSnapshot(MenuSnapshot.EncodedBody body, HttpHeaders headers) {
+        String acceptEncoding = headers.getFirst(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = gzip ? body.getGzipEtag() : body.getEtag();
+
+        if (headers.getIfNoneMatch().contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(VARY).build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .varyBy(VARY);
+
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzip());
+        }
+        return response.body(body.getJson());
+    }
+
+    private static boolean prefersBinary(HttpHeaders headers) {
+        return headers.getAccept().stream()
+                .anyMatch(type -> type.equalsTypeAndSubtype(CBOR) || type.equalsTypeAndSubtype(SMILE));
+    }
 }
\ No newline at end of file
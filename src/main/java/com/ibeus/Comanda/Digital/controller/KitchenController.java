@@ -0,0 +1,36 @@
+package com.ibeus.Comanda.Digital.controller;
+
+import com.ibeus.Comanda.Digital.dto.PrepItemDTO;
+import com.ibeus.Comanda.Digital.dto.PrepTimeStatsDTO;
+import com.ibeus.Comanda.Digital.service.PrepListService;
+import com.ibeus.Comanda.Digital.service.PrepTimeStatsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/kitchen")
+@CrossOrigin(origins = "http://localhost:4200")
+public class KitchenController {
+
+    private final PrepListService prepListService;
+    private final PrepTimeStatsService prepTimeStatsService;
+
+    public KitchenController(PrepListService prepListService, PrepTimeStatsService prepTimeStatsService) {
+        this.prepListService = prepListService;
+        this.prepTimeStatsService = prepTimeStatsService;
+    }
+
+    // Lista de preparo: total por prato de todos os pedidos RECEIVED e IN_PREPARATION (servida da memória)
+    @GetMapping("/prep-list")
+    public ResponseEntity<List<PrepItemDTO>> getPrepList() {
+        return ResponseEntity.ok(prepListService.getPrepList());
+    }
+
+    // Percentis móveis do tempo de preparo por categoria de prato
+    @GetMapping("/prep-time")
+    public ResponseEntity<List<PrepTimeStatsDTO>> getPrepTimeStats() {
+        return ResponseEntity.ok(prepTimeStatsService.getStats());
+    }
+}
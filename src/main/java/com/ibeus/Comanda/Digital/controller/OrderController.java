@@ -1,14 +1,36 @@
 package com.ibeus.Comanda.Digital.controller;
 
+import com.ibeus.Comanda.Digital.config.TenantContext;
+import com.ibeus.Comanda.Digital.dto.DispatchGroupDTO;
+import com.ibeus.Comanda.Digital.dto.DwellTimeDTO;
+import com.ibeus.Comanda.Digital.dto.OrderChangesDTO;
 import com.ibeus.Comanda.Digital.dto.OrderDTO;
 import com.ibeus.Comanda.Digital.dto.OrderItemDTO;
 import com.ibeus.Comanda.Digital.dto.OrderItemInputDTO;
+import com.ibeus.Comanda.Digital.dto.OrderStatusEventDTO;
 import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.service.DispatchService;
+import com.ibeus.Comanda.Digital.service.FinalizedOrderCache;
+import com.ibeus.Comanda.Digital.service.OrderHistoryExportService;
 import com.ibeus.Comanda.Digital.service.OrderService;
+import com.ibeus.Comanda.Digital.service.OrderStatusEventService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/orders")
@@ -16,9 +38,26 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderStatusEventService statusEventService;
+    private final DispatchService dispatchService;
+    private final OrderHistoryExportService historyExportService;
+    private final FinalizedOrderCache finalizedOrderCache;
 
-    public OrderController(OrderService orderService) {
+    // Pedido em estado final nunca muda: o navegador pode guardar a resposta indefinidamente
+    private static final String FINAL_CACHE_CONTROL = "private, max-age=31536000, immutable";
+    // A mesma URL responde conforme o formato pedido e o restaurante: caches intermediários precisam separar
+    private static final String[] VARY = {HttpHeaders.ACCEPT, TenantContext.HEADER};
+
+    public OrderController(OrderService orderService,
+                           OrderStatusEventService statusEventService,
+                           DispatchService dispatchService,
+                           OrderHistoryExportService historyExportService,
+                           FinalizedOrderCache finalizedOrderCache) {
         this.orderService = orderService;
+        this.statusEventService = statusEventService;
+        this.dispatchService = dispatchService;
+        this.historyExportService = historyExportService;
+        this.finalizedOrderCache = finalizedOrderCache;
     }
 
     // --- MÉTODOS GET ---
@@ -28,10 +67,40 @@ public class OrderController {
         return ResponseEntity.ok(list);
     }
 
+    // Pedidos DELIVERED/CANCELED saem do cache de respostas (bytes prontos por formato, ETag permanente)
     @GetMapping("/{id}")
-    public ResponseEntity<OrderDTO> findById(@PathVariable Long id) {
-        OrderDTO dto = orderService.findById(id);
-        return ResponseEntity.ok(dto);
+    public ResponseEntity<?> findById(@PathVariable Long id, @RequestHeader HttpHeaders headers) {
+        String tenantId = TenantContext.current();
+        FinalizedOrderCache.Format format = negotiate(headers);
+
+        FinalizedOrderCache.CachedOrder cached = finalizedOrderCache.get(tenantId, id, format);
+        if (cached == null) {
+            OrderDTO dto = orderService.findById(id); // 404 se o pedido é de outro restaurante
+            cached = finalizedOrderCache.putIfFinal(dto, tenantId, format);
+            if (cached == null) {
+                return ResponseEntity.ok().varyBy(VARY).body(dto); // pedido ainda em andamento
+            }
+        }
+
+        if (headers.getIfNoneMatch().contains(cached.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(cached.getEtag())
+                    .header(HttpHeaders.CACHE_CONTROL, FINAL_CACHE_CONTROL)
+                    .varyBy(VARY)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(cached.getContentType())
+                .eTag(cached.getEtag())
+                .header(HttpHeaders.CACHE_CONTROL, FINAL_CACHE_CONTROL)
+                .varyBy(VARY)
+                .body(cached.getBody());
+    }
+
+    // Quadro da cozinha: todas as colunas ativas numa única consulta (colunas vazias vêm como [])
+    @GetMapping("/board")
+    public ResponseEntity<Map<OrderStatus, List<OrderDTO>>> getBoard() {
+        return ResponseEntity.ok(orderService.findBoard());
     }
 
     @GetMapping("/status/{status}")
@@ -40,6 +109,17 @@ public class OrderController {
         return ResponseEntity.ok(list);
     }
 
+    // Sincronização incremental para telas sem conexão push: só o que mudou desde o cursor
+    @GetMapping("/changes")
+    public ResponseEntity<OrderChangesDTO> findChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "200") int limit) {
+        if (limit < 1 || limit > 1000) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parâmetros inválidos: limit entre 1 e 1000");
+        }
+        return ResponseEntity.ok(orderService.findChanges(since, limit));
+    }
+
     // Busca o histórico de pedidos finalizados
     @GetMapping("/history")
     public ResponseEntity<List<OrderDTO>> getOrderHistory() {
@@ -47,6 +127,55 @@ public class OrderController {
         return ResponseEntity.ok(list);
     }
 
+    // Exportação do histórico de um período (datas inclusivas), escrita em streaming conforme as linhas chegam
+    @GetMapping("/history/export")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = OrderHistoryExportService.CSV) String format) {
+        if (!OrderHistoryExportService.CSV.equals(format) && !OrderHistoryExportService.NDJSON.equals(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato não suportado: " + format + " (use csv ou ndjson)");
+        }
+        if (to.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A data final deve ser igual ou posterior à inicial");
+        }
+
+        // O corpo é escrito em outra thread: o restaurante é capturado aqui
+        String tenantId = TenantContext.current();
+        ZoneId zone = ZoneId.systemDefault();
+        Instant start = from.atStartOfDay(zone).toInstant();
+        Instant end = to.plusDays(1).atStartOfDay(zone).toInstant();
+        MediaType contentType = OrderHistoryExportService.CSV.equals(format)
+                ? MediaType.valueOf("text/csv;charset=UTF-8")
+                : MediaType.valueOf("application/x-ndjson");
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=orders-" + from + "-" + to + "." + format)
+                .body(out -> historyExportService.export(out, start, end, format, tenantId));
+    }
+
+    // Pedidos ativos que estouraram o SLA do status atual (sinalizados no quadro)
+    @GetMapping("/late")
+    public ResponseEntity<List<OrderDTO>> findLate() {
+        return ResponseEntity.ok(orderService.findLate());
+    }
+
+    // Linha do tempo de um pedido (log de eventos de status)
+    @GetMapping("/{id}/timeline")
+    public ResponseEntity<List<OrderStatusEventDTO>> getTimeline(@PathVariable Long id) {
+        return ResponseEntity.ok(statusEventService.findTimeline(id));
+    }
+
+    // Distribuição do tempo de permanência em um status nas últimas N horas (gargalo da cozinha)
+    @GetMapping("/metrics/dwell/{status}")
+    public ResponseEntity<DwellTimeDTO> getDwellTime(
+            @PathVariable OrderStatus status,
+            @RequestParam(defaultValue = "24") int hours) {
+        return ResponseEntity.ok(statusEventService.findDwellTime(status, Duration.ofHours(hours)));
+    }
+
     // --- MÉTODOS DE ESCRITA (FLUXO DO CARRINHO) ---
 
     // 1. Cria o rascunho (DRAFT) vinculado ao Cliente Único
@@ -77,10 +206,12 @@ public class OrderController {
         return ResponseEntity.ok(updatedOrder);
     }
 
-    // 3. Finaliza o Pedido (Muda de DRAFT para RECEIVED)
+    // 3. Finaliza o Pedido (Muda de DRAFT para RECEIVED, ou SCHEDULED com ?slot=2026-01-31T19:30:00Z)
     @PostMapping("/{orderId}/finalize")
-    public ResponseEntity<OrderDTO> finalizeOrder(@PathVariable Long orderId) {
-        OrderDTO finalizedOrder = orderService.finalizeOrder(orderId);
+    public ResponseEntity<OrderDTO> finalizeOrder(
+            @PathVariable Long orderId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant slot) {
+        OrderDTO finalizedOrder = orderService.finalizeOrder(orderId, slot);
         return ResponseEntity.ok(finalizedOrder);
     }
 
@@ -113,4 +244,38 @@ public class OrderController {
     public ResponseEntity<OrderDTO> previousStep(@PathVariable Long id) {
         return ResponseEntity.ok(orderService.previousStep(id));
     }
-}
\ No newline at end of file
+
+    // --- DESPACHO EM LOTE (ENTREGAS) ---
+
+    // Agrupa os pedidos READY da janela de tempo por prefixo de CEP (ou por bairro)
+    @GetMapping("/dispatch")
+    public ResponseEntity<List<DispatchGroupDTO>> getDispatchGroups(
+            @RequestParam(defaultValue = "15") int windowMinutes,
+            @RequestParam(defaultValue = "5") int cepPrefix,
+            @RequestParam(defaultValue = "false") boolean byBairro) {
+        if (windowMinutes < 1 || cepPrefix < 1 || cepPrefix > 8) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parâmetros inválidos: windowMinutes >= 1 e cepPrefix entre 1 e 8");
+        }
+        return ResponseEntity.ok(dispatchService.groupReadyOrders(Duration.ofMinutes(windowMinutes), cepPrefix, byBairro));
+    }
+
+    // Envia um grupo inteiro para ON_THE_WAY (corpo: lista de IDs dos pedidos)
+    @PostMapping("/dispatch")
+    public ResponseEntity<List<OrderDTO>> dispatch(@RequestBody List<Long> orderIds) {
+        return ResponseEntity.ok(orderService.dispatch(orderIds));
+    }
+
+    // Formato aceito de maior qualidade (q), na ordem do header em caso de empate; sem Accept, ou só */*: JSON
+    static FinalizedOrderCache.Format negotiate(HttpHeaders headers) {
+        List<MediaType> accepted = new ArrayList<>(headers.getAccept());
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) break;
+            for (FinalizedOrderCache.Format format : FinalizedOrderCache.Format.values()) {
+                if (type.equalsTypeAndSubtype(format.getMediaType())) return format;
+            }
+            if (type.includes(MediaType.APPLICATION_JSON)) return FinalizedOrderCache.Format.JSON;
+        }
+        return FinalizedOrderCache.Format.JSON;
+    }
+}
@@ -17,6 +17,9 @@ public class DishDTO {
     private String description;
     private Double price;
     private Boolean favorite;
+    private Integer stock;    // null = sem controle de estoque; na atualização, negativo desativa o controle
+    private Boolean soldOut;  // Calculado (InventoryService) nas respostas do cardápio; ignorado na escrita
+    private Integer prepMinutes;
 
     public static DishDTO fromModel(Dish dish) {
         if (dish == null) return null; // Segurança contra NullPointerException
@@ -28,6 +31,8 @@ public class DishDTO {
         dto.setDescription(dish.getDescription());
         dto.setPrice(dish.getPrice());
         dto.setFavorite(dish.isFavorite());
+        dto.setStock(dish.getStock());
+        dto.setPrepMinutes(dish.getPrepMinutes());
         return dto;
     }
 
@@ -40,6 +45,8 @@ public class DishDTO {
         dish.setDescription(this.description);
         dish.setPrice(this.price);
         dish.setFavorite(this.favorite != null ? this.favorite : false);
+        dish.setStock(this.stock != null && this.stock >= 0 ? this.stock : null);
+        dish.setPrepMinutes(this.prepMinutes != null && this.prepMinutes > 0 ? this.prepMinutes : null);
         return dish;
     }
 }
\ No newline at end of file
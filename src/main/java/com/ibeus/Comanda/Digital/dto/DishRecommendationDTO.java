@@ -0,0 +1,20 @@
+package com.ibeus.Comanda.Digital.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// "Quem pediu X também pediu Y": prato sugerido e em quantos pedidos os dois apareceram juntos
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DishRecommendationDTO {
+
+    private Long id;
+    private String name;
+    private String category;
+    private Double price;
+    private String urlImage;
+    private Integer orderedTogether;
+
+}
@@ -0,0 +1,17 @@
+package com.ibeus.Comanda.Digital.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Sugestão do autocompletar da busca: só o necessário para a lista suspensa
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DishSuggestionDTO {
+
+    private Long id;
+    private String name;
+    private String category;
+
+}
@@ -0,0 +1,20 @@
+package com.ibeus.Comanda.Digital.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Grupo de pedidos PRONTOS da mesma região que podem sair juntos na mesma viagem
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchGroupDTO {
+
+    private String key;          // Prefixo do CEP ou bairro (conforme o agrupamento escolhido)
+    private String bairro;
+    private String localidade;
+    private List<OrderDTO> orders;
+
+}
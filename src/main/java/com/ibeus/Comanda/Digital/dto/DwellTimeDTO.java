@@ -0,0 +1,22 @@
+package com.ibeus.Comanda.Digital.dto;
+
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Distribuição do tempo (em segundos) que os pedidos permaneceram em um status
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DwellTimeDTO {
+
+    private OrderStatus status;
+    private Integer count;
+    private Double averageSeconds;
+    private Double p50Seconds;
+    private Double p90Seconds;
+    private Double p99Seconds;
+    private Double maxSeconds;
+
+}
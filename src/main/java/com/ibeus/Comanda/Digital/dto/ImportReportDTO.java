@@ -0,0 +1,26 @@
+package com.ibeus.Comanda.Digital.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Resultado da importação em massa: quantas linhas entraram e o motivo de cada linha recusada
+@Data
+@NoArgsConstructor
+public class ImportReportDTO {
+
+    private int imported;
+    private int rejected;
+    private List<LineError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ibeus.Comanda.Digital.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Resposta de GET /orders/changes: pedidos alterados desde o cursor e o novo cursor (opaco) para a próxima consulta
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderChangesDTO {
+
+    private String cursor;
+    private boolean hasMore; // true quando o limite foi atingido: consultar de novo com o novo cursor
+    private List<OrderDTO> orders;
+    private List<Long> deletedIds; // rascunhos removidos pela limpeza: tirar da tela
+
+}
@@ -5,6 +5,7 @@ import com.ibeus.Comanda.Digital.model.Order;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -17,11 +18,17 @@ public class OrderDTO implements Serializable {
     private OrderStatus status;
     private Double total;
     private List<OrderItemDTO> items;
+    private Instant statusEnteredAt;
+    private Boolean late; // Sinalizado pelo monitor de SLA
+    private Instant requestedSlot; // Horário agendado (null = o quanto antes)
 
     // --- 💡 CAMPOS DE SNAPSHOT (Histórico Imutável) ---
     // Estes campos são preenchidos na finalização e são imunes a futuras alterações no cadastro do cliente.
     private String clientSnapshotName;
     private String addressSnapshot;
+    private String snapshotCep;
+    private String snapshotBairro;
+    private String snapshotLocalidade;
     // ----------------------------------------------------
 
     /**
@@ -31,6 +38,9 @@ public class OrderDTO implements Serializable {
         this.id = entity.getId();
         this.status = entity.getStatus();
         this.total = entity.getTotal();
+        this.statusEnteredAt = entity.getStatusEnteredAt();
+        this.late = entity.isLate();
+        this.requestedSlot = entity.getRequestedSlot();
         this.clientId = entity.getClient() != null ? entity.getClient().getId() : null; // Pega o ID do cliente
 
         // Mapeia a lista de itens relacionados
@@ -48,6 +58,9 @@ public class OrderDTO implements Serializable {
             // 2. SE ESTÁ FINALIZADO (RECEIVED ou superior): Usa os dados CONGELADOS
             this.clientSnapshotName = entity.getClientSnapshotName();
             this.addressSnapshot = entity.getAddressSnapshot();
+            this.snapshotCep = entity.getSnapshotCep();
+            this.snapshotBairro = entity.getSnapshotBairro();
+            this.snapshotLocalidade = entity.getSnapshotLocalidade();
         }
         // -------------------------------------------
     }
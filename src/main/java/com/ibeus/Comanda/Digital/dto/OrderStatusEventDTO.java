@@ -0,0 +1,20 @@
+package com.ibeus.Comanda.Digital.dto;
+
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Uma etapa da linha do tempo de um pedido
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusEventDTO {
+
+    private OrderStatus from;
+    private OrderStatus to;
+    private Instant moment;
+
+}
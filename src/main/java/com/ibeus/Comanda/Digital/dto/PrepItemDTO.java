@@ -0,0 +1,17 @@
+package com.ibeus.Comanda.Digital.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Linha da lista de preparo: quanto de cada prato a cozinha precisa produzir agora
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrepItemDTO {
+
+    private Long dishId;
+    private String dishName;
+    private Integer quantity;
+
+}
@@ -0,0 +1,19 @@
+package com.ibeus.Comanda.Digital.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Percentis do tempo de preparo (IN_PREPARATION -> READY), em segundos, por categoria de prato
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrepTimeStatsDTO {
+
+    private String category;
+    private Integer samples;
+    private Double p50Seconds;
+    private Double p90Seconds;
+    private Double p95Seconds;
+
+}
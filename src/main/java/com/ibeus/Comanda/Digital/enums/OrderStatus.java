@@ -2,6 +2,7 @@ package com.ibeus.Comanda.Digital.enums;
 
 public enum OrderStatus {
     DRAFT,           // 1. Rascunho/Carrinho (Novo estado inicial)
+    SCHEDULED,       // 1b. Finalizado para um horário futuro; vai para RECEIVED quando a cozinha deve começar
     RECEIVED,        // 2. Pedido chegou (Finalizado pelo cliente, esperando a cozinha)
     IN_PREPARATION,  // 3. Cozinha aceitou e está fazendo
     READY,           // 4. Pronto para retirada/entrega
@@ -0,0 +1,7 @@
+package com.ibeus.Comanda.Digital.enums;
+
+public enum PrintJobStatus {
+    PENDING,  // 1. Na fila (spool) aguardando impressão ou nova tentativa
+    PRINTED,  // 2. Enviado para a impressora
+    FAILED    // 3. Esgotou as tentativas (precisa de atenção manual)
+}
@@ -0,0 +1,15 @@
+package com.ibeus.Comanda.Digital.event;
+
+import lombok.Value;
+
+/**
+ * Avisa os caches em memória deste nó que os dados de uma entidade mudaram.
+ * remote = true quando a alteração foi feita por outro nó (detectada pela tabela change_version);
+ * nesse caso o cache não recebeu nenhuma atualização incremental e deve ser recarregado.
+ */
+@Value
+public class CacheInvalidationEvent {
+
+    String entity;
+    boolean remote;
+}
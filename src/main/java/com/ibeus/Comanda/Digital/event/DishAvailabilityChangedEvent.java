@@ -0,0 +1,15 @@
+package com.ibeus.Comanda.Digital.event;
+
+import lombok.Value;
+
+/**
+ * Publicado pelo InventoryService quando um prato esgota ou volta a ter estoque.
+ * O MenuSnapshotService republica o cardápio do restaurante com o novo "soldOut".
+ * dishId é null quando vários pratos mudaram de uma vez (recarga do estoque).
+ */
+@Value
+public class DishAvailabilityChangedEvent {
+
+    String tenantId;
+    Long dishId;
+}
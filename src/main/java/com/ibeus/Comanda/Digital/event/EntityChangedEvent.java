@@ -0,0 +1,26 @@
+package com.ibeus.Comanda.Digital.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Publicado pelos serviços quando uma entidade cacheável é alterada.
+ * Após o commit, o ClusterInvalidationService incrementa a versão compartilhada no banco
+ * (para os outros nós) e repassa um CacheInvalidationEvent local.
+ * O id é opcional: presente quando um único registro mudou (permite atualização incremental),
+ * null em alterações em massa (ex: importação do cardápio).
+ */
+@Value
+@AllArgsConstructor
+public class EntityChangedEvent {
+
+    public static final String DISH = "Dish";
+    public static final String ORDER = "Order";
+
+    String entity;
+    Long id;
+
+    public EntityChangedEvent(String entity) {
+        this(entity, null);
+    }
+}
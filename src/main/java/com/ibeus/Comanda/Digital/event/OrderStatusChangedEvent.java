@@ -0,0 +1,45 @@
+package com.ibeus.Comanda.Digital.event;
+
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.model.Order;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Publicado pelo OrderService a cada mudança de status de um pedido.
+ * Os itens são copiados no momento da publicação (dentro da transação), então os ouvintes
+ * que rodam após o commit (@TransactionalEventListener) não dependem da sessão do Hibernate.
+ */
+@Value
+public class OrderStatusChangedEvent {
+
+    Long orderId;
+    String tenantId;
+    OrderStatus from; // null quando o pedido acabou de ser criado
+    OrderStatus to;
+    Instant at;
+    Instant previousStatusEnteredAt; // quando o pedido tinha entrado no status anterior
+    List<Item> items;
+
+    @Value
+    public static class Item {
+        Long dishId;
+        String dishName;
+        String category;
+        int quantity;
+    }
+
+    public static OrderStatusChangedEvent of(Order order, OrderStatus from, OrderStatus to) {
+        List<Item> items = order.getItems().stream()
+                .map(item -> new Item(
+                        item.getDish().getId(),
+                        item.getDish().getName(),
+                        item.getDish().getCategory(),
+                        item.getQuantity()))
+                .collect(Collectors.toList());
+        return new OrderStatusChangedEvent(order.getId(), order.getTenantId(), from, to, Instant.now(), order.getStatusEnteredAt(), items);
+    }
+}
@@ -0,0 +1,45 @@
+package com.ibeus.Comanda.Digital.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do JDK Flight Recorder (não é um evento do Spring): uma chamada a OrderService ou
+ * DishService, com a duração total (incluindo o commit) e quantos SQLs o Hibernate emitiu.
+ * Gravado pelo ServiceCallRecorder.
+ */
+@Name("comanda.ServiceCall")
+@Label("Chamada de serviço")
+@Category({"Comanda", "Serviços"})
+@Description("Chamada a OrderService/DishService: pedido, transição de status e quantidade de SQLs")
+@StackTrace(false)
+public class ServiceCallJfrEvent extends jdk.jfr.Event {
+
+    @Label("Serviço")
+    public String service;
+
+    @Label("Método")
+    public String method;
+
+    @Label("Restaurante")
+    public String tenant;
+
+    @Label("Pedido")
+    public long orderId; // 0 quando a chamada não é sobre um pedido
+
+    @Label("Status anterior")
+    public String fromStatus;
+
+    @Label("Novo status")
+    public String toStatus;
+
+    @Label("SQLs")
+    @Description("Comandos preparados pelo Hibernate durante a chamada (consultas via JdbcTemplate não entram)")
+    public int queries;
+
+    @Label("Sucesso")
+    public boolean succeeded;
+}
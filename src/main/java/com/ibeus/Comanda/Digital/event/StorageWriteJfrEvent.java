@@ -0,0 +1,25 @@
+package com.ibeus.Comanda.Digital.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Evento do JDK Flight Recorder: gravação de uma imagem enviada no StorageService
+@Name("comanda.StorageWrite")
+@Label("Gravação de arquivo")
+@Category({"Comanda", "Armazenamento"})
+@StackTrace(false)
+public class StorageWriteJfrEvent extends jdk.jfr.Event {
+
+    @Label("Arquivo")
+    public String path;
+
+    @Label("Tamanho")
+    @DataAmount
+    public long bytes;
+
+    @Label("Sucesso")
+    public boolean succeeded;
+}
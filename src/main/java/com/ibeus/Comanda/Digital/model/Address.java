@@ -1,10 +1,15 @@
 package com.ibeus.Comanda.Digital.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ibeus.Comanda.Digital.config.TenantContext;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table(name = "address")
+@Table(name = "address", indexes = {
+        @Index(name = "idx_address_tenant", columnList = "tenant_id")
+})
 @Data
 public class Address {
 
@@ -12,10 +17,23 @@ public class Address {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Restaurante dono do registro; preenchido com o tenant da requisição ao ser criado
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "tenant_id", length = 64, nullable = false)
+    @ColumnDefault("'default'")
+    private String tenantId;
+
     private String cep;
     private String logradouro;
     private String bairro;
     private String localidade;
     private String uf;
 
+    @PrePersist
+    private void assignTenant() {
+        if (tenantId == null) {
+            tenantId = TenantContext.current();
+        }
+    }
+
 }
@@ -0,0 +1,21 @@
+package com.ibeus.Comanda.Digital.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Versão de alteração por tipo de entidade, compartilhada entre os nós pelo MySQL.
+ * Cada nó incrementa a linha após alterar a entidade e consulta a tabela periodicamente
+ * para descobrir alterações feitas pelos outros nós (invalidação de caches locais).
+ */
+@Data
+@Entity
+@Table(name = "change_version")
+public class ChangeVersion {
+
+    @Id
+    @Column(length = 64)
+    private String entity;
+
+    private long version;
+}
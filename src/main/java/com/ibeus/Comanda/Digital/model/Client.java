@@ -1,10 +1,15 @@
 package com.ibeus.Comanda.Digital.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ibeus.Comanda.Digital.config.TenantContext;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table(name = "client")
+@Table(name = "client", indexes = {
+        @Index(name = "idx_client_tenant", columnList = "tenant_id")
+})
 @Data
 public class Client {
 
@@ -12,6 +17,12 @@ public class Client {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Restaurante dono do registro; preenchido com o tenant da requisição ao ser criado
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "tenant_id", length = 64, nullable = false)
+    @ColumnDefault("'default'")
+    private String tenantId;
+
     private String cpf;
     private String name;
     private String midName;
@@ -22,4 +33,11 @@ public class Client {
 
     private int addressNumber;
     private String complement;
+
+    @PrePersist
+    private void assignTenant() {
+        if (tenantId == null) {
+            tenantId = TenantContext.current();
+        }
+    }
 }
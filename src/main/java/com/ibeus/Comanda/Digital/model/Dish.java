@@ -1,17 +1,36 @@
 package com.ibeus.Comanda.Digital.model;
 
+import com.ibeus.Comanda.Digital.config.TenantContext;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
-@Table(name = "dishes")
+@Table(name = "dishes", indexes = {
+        // Consultas do cardápio sempre começam pelo tenant
+        @Index(name = "idx_dish_tenant_category", columnList = "tenant_id, category"),
+        @Index(name = "idx_dish_tenant_favorite", columnList = "tenant_id, favorite"),
+        @Index(name = "idx_dish_tenant_name", columnList = "tenant_id, name")
+})
 @Data
+// UPDATE só das colunas alteradas: editar o prato não regrava um "stock" antigo por cima
+// das baixas gravadas pelo InventoryService nas finalizações
+@DynamicUpdate
 public class Dish {
 
+    // Sequência "pooled" (emulada em tabela no MySQL): reserva 50 ids por ida ao banco
+    // e, ao contrário do IDENTITY, permite que o Hibernate agrupe os INSERTs em JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dish_seq")
+    @SequenceGenerator(name = "dish_seq", sequenceName = "dishes_seq", allocationSize = 50)
     private Long id;
 
+    // Restaurante dono do registro; preenchido com o tenant da requisição ao ser criado
+    @Column(name = "tenant_id", length = 64, nullable = false)
+    @ColumnDefault("'default'")
+    private String tenantId;
+
     private String urlImage;
     private String name;
     private String category;
@@ -19,4 +38,18 @@ public class Dish {
     private Double price;
     private boolean favorite = false;
 
+    // Unidades disponíveis para venda; null = sem controle de estoque. O InventoryService dá a baixa
+    // (condicionada a stock >= n) na finalização e mantém em memória o que está nos carrinhos
+    private Integer stock;
+
+    // Tempo de preparo (minutos); pesa na capacidade da cozinha por slot. null = padrão da configuração
+    private Integer prepMinutes;
+
+    @PrePersist
+    private void assignTenant() {
+        if (tenantId == null) {
+            tenantId = TenantContext.current();
+        }
+    }
+
 }
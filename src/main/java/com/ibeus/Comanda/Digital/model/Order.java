@@ -1,9 +1,11 @@
 package com.ibeus.Comanda.Digital.model;
 
+import com.ibeus.Comanda.Digital.config.TenantContext;
 import com.ibeus.Comanda.Digital.enums.OrderStatus;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -11,18 +13,66 @@ import java.util.List;
 
 @Data // Gera Getters, Setters, Equals, HashCode, ToString
 @Entity
-@Table(name = "tb_order")
+@Table(name = "tb_order", indexes = {
+        // Usado pelo monitor de SLA: varre só os pedidos de um status que ainda não foram marcados como atrasados
+        @Index(name = "idx_order_status_late_entered", columnList = "status, late, status_entered_at"),
+        // Usado pela limpeza de rascunhos abandonados
+        @Index(name = "idx_order_status_activity", columnList = "status, last_activity_at"),
+        // Consultas das telas de um restaurante (status, atrasados, despacho)
+        @Index(name = "idx_order_tenant_status", columnList = "tenant_id, status, status_entered_at"),
+        // Usado pela exportação do histórico por período (páginas por moment, id)
+        @Index(name = "idx_order_tenant_moment", columnList = "tenant_id, moment"),
+        // Usado pela sincronização incremental dos quadros (GET /orders/changes?since=)
+        @Index(name = "idx_order_tenant_updated", columnList = "tenant_id, updated_at, id"),
+        // Usado pela liberação dos pedidos agendados (SCHEDULED com release_at vencido)
+        @Index(name = "idx_order_status_release", columnList = "status, release_at")
+})
 public class Order {
 
+    // Sequência "pooled" (emulada em tabela no MySQL): reserva 50 ids por ida ao banco
+    // e, ao contrário do IDENTITY, permite que o Hibernate agrupe os INSERTs em JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "tb_order_seq", allocationSize = 50)
     private Long id;
 
+    // Controle de concorrência otimista: escritas simultâneas no mesmo pedido geram conflito (e nova tentativa)
+    @Version
+    private long version;
+
+    // Restaurante dono do pedido; preenchido com o tenant da requisição ao ser criado
+    @Column(name = "tenant_id", length = 64, nullable = false)
+    @ColumnDefault("'default'")
+    private String tenantId;
+
     private Instant moment;
 
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
+    // Momento em que o pedido entrou no status atual (reiniciado a cada transição)
+    private Instant statusEnteredAt;
+
+    // Marcado pelo monitor de SLA quando o pedido excede o tempo limite do status atual
+    private boolean late = false;
+
+    // Última alteração feita pelo OrderService (itens ou status): define quando um rascunho está abandonado
+    private Instant lastActivityAt;
+
+    // Horário agendado pelo cliente (início do slot); null = o quanto antes
+    private Instant requestedSlot;
+
+    // Quando o pedido agendado deve ir para a cozinha (slot - maior tempo de preparo - margem)
+    private Instant releaseAt;
+
+    // Minutos de preparo reservados no slot (SlotAllocator); devolvidos exatamente na liberação. null = não ocupa slot
+    private Integer slotMinutes;
+
+    // Última alteração, no relógio do MySQL (DEFAULT/ON UPDATE CURRENT_TIMESTAMP(6)): cursor de GET /orders/changes.
+    // Nunca gravado pelo Hibernate; na instância em memória pode estar desatualizado depois de uma alteração.
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private Instant updatedAt;
+
     @ManyToOne
     @JoinColumn(name = "client_id")
     private Client client;
@@ -39,6 +89,18 @@ public class Order {
     // Captura o endereço completo (Rua, Número, Bairro, CEP) no momento da finalização
     private String addressSnapshot;
 
+    // Campos estruturados do endereço congelado (usados para agrupar entregas por região)
+    private String snapshotCep;
+    private String snapshotBairro;
+    private String snapshotLocalidade;
+
+    @PrePersist
+    private void assignTenant() {
+        if (tenantId == null) {
+            tenantId = TenantContext.current();
+        }
+    }
+
     public Double getTotal() {
         double sum = 0.0;
         for (OrderItem item : items) {
@@ -9,10 +9,16 @@ import lombok.ToString;
 @Table(name = "order_item")
 public class OrderItem {
 
+    // Sequência "pooled" (emulada em tabela no MySQL): reserva 50 ids por ida ao banco
+    // e, ao contrário do IDENTITY, permite que o Hibernate agrupe os INSERTs em JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    private long version;
+
     private Integer quantity;
     private Double price;
 
@@ -0,0 +1,39 @@
+package com.ibeus.Comanda.Digital.model;
+
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Log append-only das transições de status dos pedidos.
+ * Não tem chave estrangeira para tb_order de propósito: as inserções (em lote, após o commit)
+ * nunca tocam nas linhas "quentes" dos pedidos.
+ */
+@Data
+@Entity
+@Table(name = "order_status_event", indexes = {
+        @Index(name = "idx_status_event_order", columnList = "order_id, moment"),
+        @Index(name = "idx_status_event_moment", columnList = "moment")
+})
+public class OrderStatusEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status")
+    private OrderStatus fromStatus; // null na criação do rascunho
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false)
+    private OrderStatus toStatus;
+
+    @Column(nullable = false)
+    private Instant moment;
+}
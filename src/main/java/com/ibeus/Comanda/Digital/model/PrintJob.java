@@ -0,0 +1,47 @@
+package com.ibeus.Comanda.Digital.model;
+
+import com.ibeus.Comanda.Digital.enums.PrintJobStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * Spool persistente das comandas da cozinha: cada linha é um ticket ESC/POS já renderizado
+ * para uma impressora. É gravado na mesma transação que finaliza o pedido (outbox): nada se perde
+ * se a aplicação reiniciar. Com vários nós, cada lote é reservado (claim_token) por um só deles.
+ */
+@Data
+@Entity
+@Table(name = "print_job", indexes = {
+        @Index(name = "idx_print_job_status_next", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_print_job_claim", columnList = "claim_token")
+})
+public class PrintJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long orderId;
+    private String printer;
+
+    @Lob
+    @ToString.Exclude
+    private byte[] payload;
+
+    @Enumerated(EnumType.STRING)
+    private PrintJobStatus status;
+
+    private int attempts;
+    private Instant createdAt;
+    private Instant nextAttemptAt;
+    private Instant printedAt;
+    private String lastError;
+
+    // Reserva do lote por um nó (null = livre); vale até claimedUntil
+    @Column(length = 36)
+    private String claimToken;
+    private Instant claimedUntil;
+}
@@ -3,6 +3,10 @@ package com.ibeus.Comanda.Digital.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.ibeus.Comanda.Digital.model.Address;
 
+import java.util.Optional;
+
 
 public interface AddressRepository extends JpaRepository<Address, Long> {
+
+    Optional<Address> findFirstByTenantIdOrderByIdAsc(String tenantId);
 }
@@ -3,6 +3,11 @@ package com.ibeus.Comanda.Digital.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.ibeus.Comanda.Digital.model.Client;
 
+import java.util.Optional;
+
 
 public interface ClientRepository extends JpaRepository<Client, Long> {
+
+    // Cliente padrão do restaurante (antes: findAll().get(0) na tabela inteira)
+    Optional<Client> findFirstByTenantIdOrderByIdAsc(String tenantId);
 }
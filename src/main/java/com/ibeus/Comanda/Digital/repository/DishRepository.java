@@ -1,13 +1,24 @@
 package com.ibeus.Comanda.Digital.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import com.ibeus.Comanda.Digital.model.Dish;
 import java.util.List;
+import java.util.Optional;
 
+// Todas as consultas do cardápio são por restaurante (tenant_id na frente dos índices)
 public interface DishRepository extends JpaRepository<Dish, Long> {
 
-    List<Dish> findByNameContainingIgnoreCase(String name);
-    List<Dish> findByCategoryIgnoreCase(String category);
-    List<Dish> findByFavoriteTrue();
+    List<Dish> findByTenantId(String tenantId);
+    Optional<Dish> findByIdAndTenantId(Long id, String tenantId);
+    boolean existsByIdAndTenantId(Long id, String tenantId);
+
+    List<Dish> findByTenantIdAndNameContainingIgnoreCase(String tenantId, String name);
+    List<Dish> findByTenantIdAndCategoryIgnoreCase(String tenantId, String category);
+    List<Dish> findByTenantIdAndFavoriteTrue(String tenantId);
+
+    // Restaurantes com cardápio (para publicar um snapshot por tenant)
+    @Query("SELECT DISTINCT d.tenantId FROM Dish d")
+    List<String> findTenantIds();
 
 }
@@ -2,12 +2,62 @@ package com.ibeus.Comanda.Digital.repository;
 
 import com.ibeus.Comanda.Digital.enums.OrderStatus;
 import com.ibeus.Comanda.Digital.model.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    List<Order> findByStatus(OrderStatus status);
-    List<Order> findByStatusIn(List<OrderStatus> statuses);
-}
\ No newline at end of file
+    // Consultas das telas: sempre de um restaurante (índices começando por tenant_id)
+    List<Order> findByTenantId(String tenantId);
+    Optional<Order> findByIdAndTenantId(Long id, String tenantId);
+    List<Order> findByTenantIdAndIdIn(String tenantId, List<Long> ids);
+    List<Order> findByTenantIdAndStatus(String tenantId, OrderStatus status);
+
+    // Carrega o pedido forçando o incremento da versão no commit: duas alterações simultâneas
+    // no carrinho (mesmo que em itens diferentes) sempre conflitam em vez de uma sobrescrever a outra.
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT o FROM Order o WHERE o.id = :id AND o.tenantId = :tenantId")
+    Optional<Order> findByIdForceIncrement(@Param("id") Long id, @Param("tenantId") String tenantId);
+    List<Order> findByTenantIdAndStatusIn(String tenantId, List<OrderStatus> statuses);
+    List<Order> findByTenantIdAndStatusInAndLateTrue(String tenantId, List<OrderStatus> statuses);
+    List<Order> findByTenantIdAndStatusAndStatusEnteredAtAfter(String tenantId, OrderStatus status, Instant since);
+
+    // Quadro da cozinha: pedidos dos status informados com itens, pratos e cliente num único SELECT
+    // (faixas de idx_order_tenant_status; a ordem é a de chegada em cada status)
+    @Query("SELECT o FROM Order o " +
+           "LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.dish LEFT JOIN FETCH o.client " +
+           "WHERE o.tenantId = :tenantId AND o.status IN :statuses " +
+           "ORDER BY o.statusEnteredAt, o.id")
+    List<Order> findBoard(@Param("tenantId") String tenantId, @Param("statuses") Collection<OrderStatus> statuses);
+
+    // Liberação dos agendados: faixa (SCHEDULED, release_at <= agora) de idx_order_status_release
+    List<Order> findByStatusAndReleaseAtLessThanEqualOrderByReleaseAtAsc(OrderStatus status, Instant now, Pageable pageable);
+
+    // Marca como atrasados os pedidos que entraram no status antes do limite.
+    // Percorre apenas a faixa (status, late = false, status_entered_at < limite) do índice.
+    // O MySQL atualiza updated_at das linhas marcadas, então elas também aparecem em GET /orders/changes.
+    @Modifying
+    @Query("UPDATE Order o SET o.late = true " +
+           "WHERE o.status = :status AND o.late = false AND o.statusEnteredAt < :cutoff")
+    int flagLate(@Param("status") OrderStatus status, @Param("cutoff") Instant cutoff);
+
+    // Soma das quantidades por prato nos pedidos com os status informados: [tenantId, dishId, dishName, quantidade]
+    @Query("SELECT i.order.tenantId, i.dish.id, i.dish.name, SUM(i.quantity) FROM OrderItem i " +
+           "WHERE i.order.status IN :statuses GROUP BY i.order.tenantId, i.dish.id, i.dish.name")
+    List<Object[]> sumQuantityByDishForStatuses(@Param("statuses") List<OrderStatus> statuses);
+
+    // Popularidade: total pedido de cada prato fora dos status informados: [dishId, quantidade]
+    @Query("SELECT i.dish.id, SUM(i.quantity) FROM OrderItem i " +
+           "WHERE i.order.status NOT IN :excluded GROUP BY i.dish.id")
+    List<Object[]> sumQuantityByDishExcludingStatuses(@Param("excluded") List<OrderStatus> excluded);
+}
@@ -0,0 +1,27 @@
+package com.ibeus.Comanda.Digital.repository;
+
+import com.ibeus.Comanda.Digital.model.PrintJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface PrintJobRepository extends JpaRepository<PrintJob, Long> {
+
+    // Reserva até "limit" tickets vencidos e livres (ou com reserva expirada) para este nó.
+    // O UPDATE trava as linhas: dois nós nunca saem com o mesmo ticket.
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE print_job SET claim_token = :token, claimed_until = :until " +
+                   "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "AND (claimed_until IS NULL OR claimed_until <= :now) " +
+                   "ORDER BY id LIMIT :limit", nativeQuery = true)
+    int claimDue(@Param("token") String token, @Param("until") Instant until,
+                 @Param("now") Instant now, @Param("limit") int limit);
+
+    List<PrintJob> findByClaimTokenOrderByIdAsc(String claimToken);
+}
@@ -1,6 +1,7 @@
 package com.ibeus.Comanda.Digital.service;
 
 
+import com.ibeus.Comanda.Digital.config.TenantContext;
 import com.ibeus.Comanda.Digital.model.Address;
 import com.ibeus.Comanda.Digital.repository.AddressRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,11 +36,11 @@ public class AddressService {
         return address;
     }
 
-    //  Salva ou atualiza o endereço (só existe um)
+    //  Salva ou atualiza o endereço (só existe um por restaurante)
     public Address saveOrupdateByCep(String cep) {
         Address novoEndereco = findByCep(cep);
 
-        Optional<Address> existente = addressRepository.findAll().stream().findFirst();
+        Optional<Address> existente = addressRepository.findFirstByTenantIdOrderByIdAsc(TenantContext.current());
 
         if (existente.isPresent()) {
             Address address = existente.get();
@@ -50,11 +51,12 @@ public class AddressService {
             address.setUf(novoEndereco.getUf());
             return addressRepository.save(address);
         } else {
+            novoEndereco.setTenantId(TenantContext.current());
             return addressRepository.save(novoEndereco);
         }
     }
 
     public Address getAddress() {
-        return addressRepository.findAll().stream().findFirst().orElse(null);
+        return addressRepository.findFirstByTenantIdOrderByIdAsc(TenantContext.current()).orElse(null);
     }
 }
\ No newline at end of file
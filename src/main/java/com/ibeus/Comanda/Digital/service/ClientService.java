@@ -1,5 +1,6 @@
 package com.ibeus.Comanda.Digital.service;
 
+import com.ibeus.Comanda.Digital.config.TenantContext;
 import com.ibeus.Comanda.Digital.model.Address; // Importante
 import com.ibeus.Comanda.Digital.model.Client;
 import com.ibeus.Comanda.Digital.repository.AddressRepository; // Importante
@@ -19,15 +20,16 @@ public class ClientService {
     @Autowired
     private AddressRepository addressRepository; // Injete o repositório de endereço
 
+    // Um cliente e um endereço por restaurante (tenant da requisição)
     public Client getClient() {
-        return clientRepository.findAll().stream().findFirst().orElse(null);
+        return clientRepository.findFirstByTenantIdOrderByIdAsc(TenantContext.current()).orElse(null);
     }
 
     @Transactional // Garante que tudo roda na mesma transação
     public Client saveOrUpdate(Client clientData) {
 
         // 1. Tenta recuperar o cliente existente
-        Optional<Client> existingClientOpt = clientRepository.findAll().stream().findFirst();
+        Optional<Client> existingClientOpt = clientRepository.findFirstByTenantIdOrderByIdAsc(TenantContext.current());
         Client clientToSave;
 
         if (existingClientOpt.isPresent()) {
@@ -40,17 +42,21 @@ public class ClientService {
             clientToSave.setComplement(clientData.getComplement());
         } else {
             clientToSave = clientData;
+            clientToSave.setId(null); // Novo registro sempre no restaurante da requisição
+            clientToSave.setTenantId(TenantContext.current());
         }
 
         // 2. LÓGICA DE VÍNCULO DE ENDEREÇO CORRIGIDA
         // Verifica se já existe um endereço salvo no banco (pelo AddressController)
-        Optional<Address> existingAddressOpt = addressRepository.findAll().stream().findFirst();
+        Optional<Address> existingAddressOpt = addressRepository.findFirstByTenantIdOrderByIdAsc(TenantContext.current());
 
         if (existingAddressOpt.isPresent()) {
             // Se já existe endereço no banco, vinculamos este endereço ao cliente
             clientToSave.setAddress(existingAddressOpt.get());
         } else if (clientData.getAddress() != null) {
             // Se não existe no banco, mas veio no JSON, deixamos o Cascade salvar
+            clientData.getAddress().setId(null);
+            clientData.getAddress().setTenantId(TenantContext.current());
             clientToSave.setAddress(clientData.getAddress());
         }
 
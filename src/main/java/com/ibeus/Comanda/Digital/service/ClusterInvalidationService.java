@@ -0,0 +1,134 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.event.CacheInvalidationEvent;
+import com.ibeus.Comanda.Digital.event.EntityChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Invalidação de caches entre vários nós usando apenas o MySQL compartilhado.
+ *
+ * - Alteração local: após o commit, avisa os caches deste nó e marca a entidade como alterada.
+ *   O incremento de change_version sai no próximo ciclo do agendamento, uma vez por entidade:
+ *   com centenas de mudanças de status por minuto, os outros nós recebem um aviso por ciclo, não um por pedido.
+ * - Alteração remota: o mesmo agendamento lê a tabela (poucas linhas, chave primária) e, quando a versão
+ *   de uma entidade avança além da última conhecida, avisa os caches deste nó com remote = true.
+ */
+@Service
+public class ClusterInvalidationService {
+
+    private static final List<String> ENTITIES = List.of(EntityChangedEvent.DISH, EntityChangedEvent.ORDER);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Última versão vista por este nó, por entidade
+    private final Map<String, Long> knownVersions = new ConcurrentHashMap<>();
+
+    // Entidades alteradas neste nó desde o último ciclo (incremento pendente no banco)
+    private final Set<String> pendingBumps = ConcurrentHashMap.newKeySet();
+
+    public ClusterInvalidationService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        for (String entity : ENTITIES) {
+            jdbcTemplate.update("INSERT IGNORE INTO change_version (entity, version) VALUES (?, 0)", entity);
+        }
+        // Parte da versão atual: os caches acabaram de ser carregados na subida
+        readVersions().forEach(knownVersions::put);
+    }
+
+    // --- ALTERAÇÃO LOCAL ---
+    // fallbackExecution: também cobre alterações feitas fora de transação (ex: DishService.create)
+    // Sem transação própria: aqui nada é gravado (o incremento sai no poll), e os caches que recarregam
+    // só leem, pela conexão que o commit ainda não devolveu. Um REQUIRES_NEW pegaria uma segunda
+    // conexão do pool a cada mudança de status, com a primeira ainda presa
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        pendingBumps.add(event.getEntity());
+        eventPublisher.publishEvent(new CacheInvalidationEvent(event.getEntity(), false));
+    }
+
+    // --- CICLO: PUBLICA AS ALTERAÇÕES DESTE NÓ E LÊ AS DOS OUTROS ---
+    @Scheduled(fixedDelayString = "${comanda.cluster.poll-interval-ms:1000}")
+    public void poll() {
+        publishPendingBumps();
+
+        readVersions().forEach((entity, version) -> {
+            Long known = knownVersions.get(entity);
+            if (known == null || version > known) {
+                knownVersions.merge(entity, version, Math::max);
+                eventPublisher.publishEvent(new CacheInvalidationEvent(entity, true));
+            }
+        });
+    }
+
+    // Ao desligar, os outros nós ainda precisam saber das últimas alterações deste
+    @PreDestroy
+    public void publishOnShutdown() {
+        publishPendingBumps();
+    }
+
+    private void publishPendingBumps() {
+        for (String entity : ENTITIES) {
+            if (pendingBumps.remove(entity)) {
+                long version;
+                try {
+                    version = bump(entity);
+                } catch (DataAccessException e) {
+                    pendingBumps.add(entity); // tenta de novo no próximo ciclo
+                    throw e;
+                }
+                // Só avança a versão conhecida se ninguém incrementou no meio (known + 1 == version).
+                // Caso contrário há incrementos de outros nós ainda não vistos: o poll detecta e avisa.
+                knownVersions.replace(entity, version - 1, version);
+            }
+        }
+    }
+
+    // Incrementa e lê a nova versão na mesma conexão (LAST_INSERT_ID é por conexão, imune a outros nós)
+    private long bump(String entity) {
+        Long version = jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE change_version SET version = LAST_INSERT_ID(version + 1) WHERE entity = ?")) {
+                update.setString(1, entity);
+                update.executeUpdate();
+            }
+            try (PreparedStatement select = connection.prepareStatement("SELECT LAST_INSERT_ID()");
+                 ResultSet rs = select.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        });
+        return version != null ? version : 0L;
+    }
+
+    private Map<String, Long> readVersions() {
+        Map<String, Long> versions = new ConcurrentHashMap<>();
+        // Só as entidades cacheadas deste serviço
+        jdbcTemplate.query("SELECT entity, version FROM change_version WHERE entity IN (?, ?)",
+                rs -> { versions.put(rs.getString("entity"), rs.getLong("version")); },
+                EntityChangedEvent.DISH, EntityChangedEvent.ORDER);
+        return versions;
+    }
+}
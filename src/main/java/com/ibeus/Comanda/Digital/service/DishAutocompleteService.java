@@ -0,0 +1,331 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.config.TenantContext;
+import com.ibeus.Comanda.Digital.dto.DishSuggestionDTO;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.event.CacheInvalidationEvent;
+import com.ibeus.Comanda.Digital.event.EntityChangedEvent;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import com.ibeus.Comanda.Digital.model.Dish;
+import com.ibeus.Comanda.Digital.repository.DishRepository;
+import com.ibeus.Comanda.Digital.repository.OrderRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Autocompletar da busca de pratos: trie em memória sobre as palavras normalizadas dos nomes
+ * (minúsculas, sem acento), então "fra" encontra "Filé de Frango".
+ *
+ * Cada nó guarda os pratos sob aquele prefixo e os top-k já ordenados (favorito primeiro,
+ * depois os mais pedidos), de modo que a consulta é só descer alguns nós e copiar a lista.
+ * As alterações do DishService e as finalizações de pedido atualizam apenas os nós afetados.
+ * Cada restaurante (tenant) tem a sua trie; os ids dos pratos são globais.
+ */
+@Service
+public class DishAutocompleteService {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // Itens destes status não contam como "pedidos" para a popularidade
+    private static final List<OrderStatus> NOT_ORDERED = List.of(OrderStatus.DRAFT, OrderStatus.CANCELED);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    // Favorito primeiro, depois mais pedido; empate pelo nome para a ordem ser estável
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparing((Entry e) -> !e.favorite)
+            .thenComparing(e -> -e.popularity)
+            .thenComparing(e -> e.name)
+            .thenComparing(e -> e.id);
+
+    private static final Entry[] EMPTY = new Entry[0];
+
+    private final DishRepository dishRepository;
+    private final OrderRepository orderRepository;
+
+    // Leitores concorrentes; escritas (sempre dentro de métodos synchronized) pegam o lock exclusivo só para aplicar
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, Node> roots = new HashMap<>();
+    private Map<Long, Entry> entries = new HashMap<>();
+
+    public DishAutocompleteService(DishRepository dishRepository, OrderRepository orderRepository) {
+        this.dishRepository = dishRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    // --- RECONSTRUÇÃO COMPLETA ---
+
+    // Na subida e periodicamente: a popularidade também muda com pedidos finalizados em outros nós
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${comanda.autocomplete.refresh-interval-ms:600000}",
+               fixedDelayString = "${comanda.autocomplete.refresh-interval-ms:600000}")
+    public synchronized void rebuild() {
+        Map<Long, Long> popularity = new HashMap<>();
+        for (Object[] row : orderRepository.sumQuantityByDishExcludingStatuses(NOT_ORDERED)) {
+            popularity.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+
+        Map<String, Node> newRoots = new HashMap<>();
+        Map<Long, Entry> newEntries = new HashMap<>();
+        for (Dish dish : dishRepository.findAll()) {
+            Entry entry = new Entry(dish, popularity.getOrDefault(dish.getId(), 0L));
+            newEntries.put(entry.id, entry);
+            index(newRoots.computeIfAbsent(entry.tenantId, t -> new Node()), entry);
+        }
+
+        lock.writeLock().lock();
+        try {
+            this.roots = newRoots;
+            this.entries = newEntries;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Outro nó alterou o cardápio: não há deltas, então recarrega tudo
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isRemote() && EntityChangedEvent.DISH.equals(event.getEntity())) {
+            rebuild();
+        }
+    }
+
+    // --- ATUALIZAÇÃO INCREMENTAL ---
+
+    // REQUIRES_NEW (leitura-escrita): relê o prato no primário, sem risco de atraso da réplica
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onDishChanged(EntityChangedEvent event) {
+        if (!EntityChangedEvent.DISH.equals(event.getEntity())) return;
+
+        if (event.getId() == null) {
+            rebuild(); // Alteração em massa (importação)
+        } else {
+            apply(event.getId(), dishRepository.findById(event.getId()).orElse(null));
+        }
+    }
+
+    // Pedido finalizado: os pratos dele ficam mais populares
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        // Conta quando o pedido é feito: finalizado para agora (RECEIVED) ou para um horário (SCHEDULED)
+        boolean placed = event.getTo() == OrderStatus.RECEIVED || event.getTo() == OrderStatus.SCHEDULED;
+        if (!placed || (event.getFrom() != null && event.getFrom() != OrderStatus.DRAFT)) {
+            return;
+        }
+        addPopularity(event.getItems());
+    }
+
+    // dish == null: o prato foi removido
+    private synchronized void apply(Long dishId, Dish dish) {
+        lock.writeLock().lock();
+        try {
+            Entry old = entries.remove(dishId);
+            if (old != null) {
+                unindex(roots.get(old.tenantId), old);
+            }
+            if (dish != null) {
+                Entry entry = new Entry(dish, old != null ? old.popularity : 0L);
+                entries.put(dishId, entry);
+                index(roots.computeIfAbsent(entry.tenantId, t -> new Node()), entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private synchronized void addPopularity(List<OrderStatusChangedEvent.Item> items) {
+        lock.writeLock().lock();
+        try {
+            for (OrderStatusChangedEvent.Item item : items) {
+                Entry entry = entries.get(item.getDishId());
+                if (entry == null) continue;
+                entry.popularity += item.getQuantity();
+                // A pontuação só subiu: basta reposicionar o prato nos top-k dos seus prefixos
+                forEachPrefixNode(roots.get(entry.tenantId), entry, node -> offer(node, entry));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- CONSULTA ---
+
+    public List<DishSuggestionDTO> suggest(String query, int limit) {
+        String[] tokens = tokenize(query);
+        if (tokens.length == 0 || limit <= 0) return List.of();
+        int max = Math.min(limit, MAX_SUGGESTIONS);
+
+        lock.readLock().lock();
+        try {
+            Node root = roots.get(TenantContext.current());
+            if (root == null) return List.of();
+
+            // Uma palavra: os top-k do nó já estão prontos
+            if (tokens.length == 1) {
+                Node node = find(root, tokens[0]);
+                return node == null ? List.of() : toDTOs(Arrays.asList(node.top), max);
+            }
+
+            // Várias palavras: parte do prefixo mais seletivo e filtra pelos demais
+            Node smallest = null;
+            for (String token : tokens) {
+                Node node = find(root, token);
+                if (node == null) return List.of();
+                if (smallest == null || node.entries.size() < smallest.entries.size()) smallest = node;
+            }
+            List<Entry> matches = new ArrayList<>();
+            for (Entry entry : smallest.entries) {
+                if (entry.matchesAll(tokens)) matches.add(entry);
+            }
+            matches.sort(RANKING);
+            return toDTOs(matches, max);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<DishSuggestionDTO> toDTOs(List<Entry> ranked, int max) {
+        List<DishSuggestionDTO> result = new ArrayList<>(Math.min(ranked.size(), max));
+        for (int i = 0; i < ranked.size() && i < max; i++) {
+            Entry entry = ranked.get(i);
+            result.add(new DishSuggestionDTO(entry.id, entry.name, entry.category));
+        }
+        return result;
+    }
+
+    // --- TRIE ---
+
+    private static void index(Node root, Entry entry) {
+        for (String word : entry.words) {
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(word.charAt(i), c -> new Node());
+                node.entries.add(entry);
+                offer(node, entry);
+            }
+        }
+    }
+
+    private static void unindex(Node root, Entry entry) {
+        for (String word : entry.words) {
+            Node parent = root;
+            for (int i = 0; i < word.length(); i++) {
+                Node node = parent.children.get(word.charAt(i));
+                if (node == null) break;
+                node.entries.remove(entry);
+                if (node.entries.isEmpty()) {
+                    // Nenhum prato restante sob este prefixo: descarta o ramo inteiro
+                    parent.children.remove(word.charAt(i));
+                    break;
+                }
+                if (contains(node.top, entry)) {
+                    node.top = node.entries.stream().sorted(RANKING).limit(MAX_SUGGESTIONS).toArray(Entry[]::new);
+                }
+                parent = node;
+            }
+        }
+    }
+
+    // Insere (ou reposiciona, se a pontuação subiu) o prato nos top-k do nó
+    private static void offer(Node node, Entry entry) {
+        Entry[] top = node.top;
+        boolean present = contains(top, entry);
+        if (!present && top.length == MAX_SUGGESTIONS && RANKING.compare(entry, top[top.length - 1]) >= 0) {
+            return;
+        }
+        List<Entry> list = new ArrayList<>(top.length + 1);
+        Collections.addAll(list, top);
+        if (!present) list.add(entry);
+        list.sort(RANKING);
+        node.top = list.subList(0, Math.min(list.size(), MAX_SUGGESTIONS)).toArray(EMPTY);
+    }
+
+    private static void forEachPrefixNode(Node root, Entry entry, Consumer<Node> action) {
+        for (String word : entry.words) {
+            Node node = root;
+            for (int i = 0; i < word.length() && node != null; i++) {
+                node = node.children.get(word.charAt(i));
+                if (node != null) action.accept(node);
+            }
+        }
+    }
+
+    private static Node find(Node root, String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    private static boolean contains(Entry[] top, Entry entry) {
+        for (Entry e : top) {
+            if (e == entry) return true;
+        }
+        return false;
+    }
+
+    // "Filé à Parmegiana" -> ["file", "a", "parmegiana"]
+    static String[] tokenize(String text) {
+        if (text == null) return new String[0];
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(SEPARATORS.split(normalized.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final Set<Entry> entries = new HashSet<>(); // todos os pratos com alguma palavra neste prefixo
+        private Entry[] top = EMPTY;                        // os melhores, já ordenados por RANKING
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final String tenantId;
+        private final String name;
+        private final String category;
+        private final boolean favorite;
+        private final String[] words;
+        private long popularity;
+
+        private Entry(Dish dish, long popularity) {
+            this.id = dish.getId();
+            this.tenantId = dish.getTenantId();
+            this.name = dish.getName() != null ? dish.getName() : "";
+            this.category = dish.getCategory();
+            this.favorite = dish.isFavorite();
+            this.words = tokenize(dish.getName());
+            this.popularity = popularity;
+        }
+
+        private boolean matchesAll(String[] tokens) {
+            for (String token : tokens) {
+                boolean matched = false;
+                for (String word : words) {
+                    if (word.startsWith(token)) {
+                        matched = true;
+                        break;
+                    }
+                }
+                if (!matched) return false;
+            }
+            return true;
+        }
+    }
+}
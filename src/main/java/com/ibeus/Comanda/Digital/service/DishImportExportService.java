@@ -0,0 +1,284 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibeus.Comanda.Digital.dto.DishDTO;
+import com.ibeus.Comanda.Digital.dto.ImportReportDTO;
+import com.ibeus.Comanda.Digital.event.EntityChangedEvent;
+import com.ibeus.Comanda.Digital.model.Dish;
+import com.ibeus.Comanda.Digital.repository.DishRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Importação e exportação em massa do cardápio (CSV ou NDJSON), em memória constante:
+ * - Importação: lê linha a linha, valida, acumula um lote de 500 e grava cada lote em uma transação.
+ *   Os INSERTs saem em JDBC batch de hibernate.jdbc.batch_size (50) porque o id de Dish vem da
+ *   sequência dishes_seq; com IDENTITY o Hibernate seria obrigado a inserir um a um.
+ * - Exportação: percorre o result set em streaming e escreve cada linha direto na resposta.
+ */
+@Service
+public class DishImportExportService {
+
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+
+    private static final String[] CSV_COLUMNS = {"id", "name", "category", "description", "price", "urlImage", "favorite", "stock", "prepMinutes"};
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final DishRepository dishRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DishImportExportService(DishRepository dishRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   DataSource dataSource,
+                                   ObjectMapper objectMapper,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.dishRepository = dishRepository;
+        this.transactionTemplate = transactionTemplate;
+        // Integer.MIN_VALUE faz o driver do MySQL entregar as linhas uma a uma, sem carregar o resultado inteiro
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // --- IMPORTAÇÃO ---
+
+    public ImportReportDTO importDishes(InputStream input, String format) {
+        ImportReportDTO report = new ImportReportDTO();
+        List<DishDTO> batch = new ArrayList<>(BATCH_SIZE);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> header = null;
+            String line;
+            long lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+
+                if (CSV.equals(format) && header == null) {
+                    header = parseHeader(line);
+                    continue;
+                }
+
+                try {
+                    DishDTO dish = CSV.equals(format) ? fromCsv(parseCsvLine(line), header) : objectMapper.readValue(line, DishDTO.class);
+                    validate(dish);
+                    batch.add(dish);
+                } catch (Exception e) {
+                    reject(report, lineNumber, e.getMessage());
+                    continue;
+                }
+
+                if (batch.size() == BATCH_SIZE) {
+                    insertBatch(batch);
+                    report.setImported(report.getImported() + batch.size());
+                    batch.clear();
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                insertBatch(batch);
+                report.setImported(report.getImported() + batch.size());
+            }
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Falha ao ler o arquivo de importação", e);
+        } finally {
+            if (report.getImported() > 0) {
+                eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.DISH));
+            }
+        }
+
+        return report;
+    }
+
+    // Uma transação por lote: o contexto de persistência é descartado no commit, então a memória não cresce
+    private void insertBatch(List<DishDTO> batch) {
+        List<Dish> dishes = new ArrayList<>(batch.size());
+        for (DishDTO dto : batch) {
+            Dish dish = dto.toModel();
+            dish.setId(null); // Importação sempre cria pratos novos; o id vem da sequência
+            dishes.add(dish);
+        }
+        transactionTemplate.executeWithoutResult(status -> dishRepository.saveAll(dishes));
+    }
+
+    private static void validate(DishDTO dish) {
+        if (dish.getName() == null || dish.getName().isBlank()) {
+            throw new IllegalArgumentException("Nome do prato é obrigatório");
+        }
+        if (dish.getName().length() > 255) {
+            throw new IllegalArgumentException("Nome do prato excede 255 caracteres");
+        }
+        if (dish.getPrice() == null || dish.getPrice() < 0) {
+            throw new IllegalArgumentException("Preço ausente ou negativo");
+        }
+    }
+
+    private static void reject(ImportReportDTO report, long line, String message) {
+        report.setRejected(report.getRejected() + 1);
+        // O relatório também tem tamanho limitado
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new ImportReportDTO.LineError(line, message));
+        }
+    }
+
+    // --- EXPORTAÇÃO ---
+
+    public void exportDishes(OutputStream output, String format, String tenantId) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (CSV.equals(format)) {
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write('\n');
+        }
+
+        streamingJdbcTemplate.query(
+                "SELECT id, name, category, description, price, url_image, favorite, stock, prep_minutes FROM dishes " +
+                "WHERE tenant_id = ? ORDER BY id",
+                rs -> {
+                    DishDTO dish = new DishDTO(
+                            rs.getLong("id"),
+                            rs.getString("url_image"),
+                            rs.getString("name"),
+                            rs.getString("category"),
+                            rs.getString("description"),
+                            rs.getDouble("price"),
+                            rs.getBoolean("favorite"),
+                            rs.getObject("stock", Integer.class),
+                            null,
+                            rs.getObject("prep_minutes", Integer.class));
+                    try {
+                        if (CSV.equals(format)) {
+                            writeCsvLine(writer, dish);
+                        } else {
+                            writer.write(objectMapper.writeValueAsString(dish));
+                            writer.write('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, tenantId);
+
+        writer.flush();
+    }
+
+    // --- CSV ---
+
+    static Map<String, Integer> parseHeader(String line) {
+        Map<String, Integer> header = new HashMap<>();
+        List<String> columns = parseCsvLine(line);
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim(), i);
+        }
+        if (!header.containsKey("name") || !header.containsKey("price")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cabeçalho CSV deve conter ao menos as colunas name e price");
+        }
+        return header;
+    }
+
+    static DishDTO fromCsv(List<String> values, Map<String, Integer> header) {
+        DishDTO dish = new DishDTO();
+        dish.setName(column(values, header, "name"));
+        dish.setCategory(column(values, header, "category"));
+        dish.setDescription(column(values, header, "description"));
+        dish.setUrlImage(column(values, header, "urlImage"));
+
+        String price = column(values, header, "price");
+        dish.setPrice(price == null || price.isBlank() ? null : Double.valueOf(price.trim()));
+
+        String favorite = column(values, header, "favorite");
+        dish.setFavorite(favorite != null && Boolean.parseBoolean(favorite.trim()));
+
+        // Vazio = sem controle de estoque / tempo de preparo padrão (mesma regra do DishDTO.toModel)
+        dish.setStock(integerColumn(values, header, "stock"));
+        dish.setPrepMinutes(integerColumn(values, header, "prepMinutes"));
+        return dish;
+    }
+
+    private static Integer integerColumn(List<String> values, Map<String, Integer> header, String name) {
+        String value = column(values, header, name);
+        return value == null || value.isBlank() ? null : Integer.valueOf(value.trim());
+    }
+
+    private static String column(List<String> values, Map<String, Integer> header, String name) {
+        Integer index = header.get(name);
+        if (index == null || index >= values.size()) return null;
+        String value = values.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    // Separa uma linha CSV respeitando aspas ("a, b" e aspas duplicadas "")
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    static void writeCsvLine(Writer writer, DishDTO dish) throws IOException {
+        writer.write(String.valueOf(dish.getId()));
+        writer.write(',');
+        writer.write(csv(dish.getName()));
+        writer.write(',');
+        writer.write(csv(dish.getCategory()));
+        writer.write(',');
+        writer.write(csv(dish.getDescription()));
+        writer.write(',');
+        writer.write(String.valueOf(dish.getPrice()));
+        writer.write(',');
+        writer.write(csv(dish.getUrlImage()));
+        writer.write(',');
+        writer.write(String.valueOf(dish.getFavorite()));
+        writer.write(',');
+        writer.write(dish.getStock() != null ? String.valueOf(dish.getStock()) : "");
+        writer.write(',');
+        writer.write(dish.getPrepMinutes() != null ? String.valueOf(dish.getPrepMinutes()) : "");
+        writer.write('\n');
+    }
+
+    static String csv(String value) {
+        if (value == null) return "";
+        // Uma linha por prato: quebras de linha da descrição viram espaço (a importação lê linha a linha)
+        value = value.replace("\r\n", " ").replace('\n', ' ').replace('\r', ' ');
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
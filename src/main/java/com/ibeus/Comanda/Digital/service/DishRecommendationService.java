@@ -0,0 +1,359 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.dto.DishDTO;
+import com.ibeus.Comanda.Digital.dto.DishRecommendationDTO;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * "Quem pediu X também pediu Y": matriz de co-ocorrência de pratos em memória.
+ *
+ * Cada prato tem uma linha (LongIntMap: outro prato -> em quantos pedidos apareceram juntos)
+ * e os top-k dessa linha já ordenados, publicados como um array imutável. A consulta só lê
+ * esse array (sem lock); a atualização, a cada pedido finalizado, mexe apenas nas linhas
+ * dos pratos do pedido. Na subida a matriz é montada varrendo order_item em paralelo.
+ *
+ * A varredura roda em segundo plano (thread própria) e em transações somente-leitura, que vão
+ * para a réplica quando houver. Os pedidos contados incrementalmente nos últimos minutos ficam
+ * registrados e são reaplicados sobre a matriz nova apenas se a varredura não os viu
+ * (réplica atrasada ou finalização durante a varredura), sem contar nenhum pedido duas vezes.
+ */
+@Service
+public class DishRecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(DishRecommendationService.class);
+
+    public static final int MAX_RECOMMENDATIONS = 10;
+    // Guarda mais que o máximo exposto: pratos removidos do cardápio são filtrados na leitura
+    private static final int TOP_CAPACITY = MAX_RECOMMENDATIONS * 2;
+
+    // Terceira coluna: o pedido teve atividade recente (pode estar também no registro de incrementos)
+    private static final String PAIRS_SQL =
+            "SELECT i.order_id, i.dish_id, o.last_activity_at >= ? AS recent " +
+            "FROM order_item i JOIN tb_order o ON o.id = i.order_id " +
+            "WHERE o.status NOT IN ('DRAFT', 'CANCELED') AND i.order_id BETWEEN ? AND ? " +
+            "ORDER BY i.order_id";
+
+    // Incrementos guardados para a reconciliação: cobre o atraso da réplica e a duração da transação
+    private static final Duration REPLAY_WINDOW = Duration.ofMinutes(2);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MenuSnapshotService menuSnapshotService;
+    private final int scanThreads;
+
+    // Recarga fora das threads da subida e do agendador (a varredura pode levar minutos)
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recommendations-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    // dishId -> linha da matriz
+    private volatile ConcurrentHashMap<Long, Row> rows = new ConcurrentHashMap<>();
+    // Pedidos contados incrementalmente nos últimos REPLAY_WINDOW (protegido pelo monitor do serviço)
+    private final Deque<Placed> recent = new ArrayDeque<>();
+
+    public DishRecommendationService(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     MenuSnapshotService menuSnapshotService,
+                                     @Value("${comanda.recommendations.scan-threads:4}") int scanThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Cada faixa é lida em streaming (linha a linha), sem carregar o resultado inteiro em memória
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        // Somente leitura: com réplica configurada, a varredura não pesa no primário
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.menuSnapshotService = menuSnapshotService;
+        this.scanThreads = Math.max(1, scanThreads);
+    }
+
+    // --- RECONSTRUÇÃO (na subida e periodicamente, para incluir pedidos finalizados em outros nós) ---
+
+    // Só agenda: a subida e o agendador não esperam a varredura; pedidos repetidos enquanto uma recarga espera são ignorados
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${comanda.recommendations.refresh-interval-ms:3600000}",
+               fixedDelayString = "${comanda.recommendations.refresh-interval-ms:3600000}")
+    public void scheduleRebuild() {
+        if (!rebuildQueued.compareAndSet(false, true)) return;
+        rebuilder.execute(() -> {
+            rebuildQueued.set(false);
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Falha ao recarregar a matriz de recomendações; mantida a anterior", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    void rebuild() {
+        long started = System.nanoTime();
+        // Reaplicáveis: incrementos de até REPLAY_WINDOW antes da recarga. A atividade desses pedidos foi gravada
+        // (no relógio deste nó) no máximo uma transação antes, então a varredura os marca a partir de 2x a janela.
+        Instant replayFrom = Instant.now().minus(REPLAY_WINDOW);
+        Timestamp recentSince = Timestamp.from(replayFrom.minus(REPLAY_WINDOW));
+
+        Map<String, Object> bounds = readOnlyTransaction.execute(status ->
+                jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM tb_order"));
+        if (bounds.get("min_id") == null) {
+            publish(new ConcurrentHashMap<>(), Set.of(), replayFrom);
+            return;
+        }
+        long minId = ((Number) bounds.get("min_id")).longValue();
+        long maxId = ((Number) bounds.get("max_id")).longValue();
+
+        // Divide a faixa de ids em partes iguais; cada thread conta os pares da sua parte
+        long chunk = (maxId - minId) / scanThreads + 1;
+        ExecutorService executor = Executors.newFixedThreadPool(scanThreads, runnable -> {
+            Thread thread = new Thread(runnable, "recommendations-scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Partial>> partials = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += chunk) {
+                long to = Math.min(from + chunk - 1, maxId);
+                long start = from;
+                partials.add(executor.submit(() -> readOnlyTransaction.execute(status -> scan(start, to, recentSince))));
+            }
+
+            // Soma as contagens parciais nas linhas definitivas
+            ConcurrentHashMap<Long, Row> rebuilt = new ConcurrentHashMap<>();
+            Set<Long> recentOrders = new HashSet<>();
+            for (Future<Partial> partial : partials) {
+                Partial result = partial.get();
+                result.counts().forEach((dishId, counts) -> {
+                    Row row = rebuilt.computeIfAbsent(dishId, id -> new Row());
+                    counts.forEach(row.counts::add);
+                });
+                recentOrders.addAll(result.recentOrders());
+            }
+            publish(rebuilt, recentOrders, replayFrom);
+
+            log.info("Matriz de recomendações carregada: {} pratos em {} ms",
+                    rebuilt.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao carregar a matriz de recomendações", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Troca a matriz, reaplicando os incrementos recentes que a varredura não contou
+    private synchronized void publish(ConcurrentHashMap<Long, Row> rebuilt, Set<Long> scannedRecentOrders, Instant replayFrom) {
+        for (Placed placed : recent) {
+            if (!placed.at().isBefore(replayFrom) && !scannedRecentOrders.contains(placed.orderId())) {
+                for (Long x : placed.dishes()) {
+                    Row row = rebuilt.computeIfAbsent(x, id -> new Row());
+                    for (Long y : placed.dishes()) {
+                        if (!x.equals(y)) row.counts.add(y, 1);
+                    }
+                }
+            }
+        }
+        rebuilt.values().forEach(Row::recomputeTop);
+        this.rows = rebuilt;
+    }
+
+    // Lê os itens da faixa em ordem de pedido e conta os pares de cada pedido
+    private Partial scan(long fromOrderId, long toOrderId, Timestamp recentSince) {
+        Map<Long, LongIntMap> counts = new HashMap<>();
+        Set<Long> recentOrders = new HashSet<>();
+        List<Long> dishes = new ArrayList<>();
+        long[] currentOrder = {-1};
+
+        streamingJdbcTemplate.query(PAIRS_SQL, rs -> {
+            long orderId = rs.getLong(1);
+            if (orderId != currentOrder[0]) {
+                countPairs(dishes, counts);
+                dishes.clear();
+                currentOrder[0] = orderId;
+                if (rs.getBoolean(3)) recentOrders.add(orderId);
+            }
+            long dishId = rs.getLong(2);
+            if (!dishes.contains(dishId)) dishes.add(dishId);
+        }, recentSince, fromOrderId, toOrderId);
+        countPairs(dishes, counts);
+
+        return new Partial(counts, recentOrders);
+    }
+
+    private static void countPairs(List<Long> dishes, Map<Long, LongIntMap> counts) {
+        for (int a = 0; a < dishes.size(); a++) {
+            for (int b = a + 1; b < dishes.size(); b++) {
+                long x = dishes.get(a);
+                long y = dishes.get(b);
+                counts.computeIfAbsent(x, id -> new LongIntMap()).add(y, 1);
+                counts.computeIfAbsent(y, id -> new LongIntMap()).add(x, 1);
+            }
+        }
+    }
+
+    // --- ATUALIZAÇÃO INCREMENTAL (pedido finalizado, após o commit) ---
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        // Conta quando o pedido é feito: finalizado para agora (RECEIVED) ou para um horário (SCHEDULED)
+        boolean placed = event.getTo() == OrderStatus.RECEIVED || event.getTo() == OrderStatus.SCHEDULED;
+        if (!placed || (event.getFrom() != null && event.getFrom() != OrderStatus.DRAFT)) {
+            return;
+        }
+
+        List<Long> dishes = new ArrayList<>();
+        for (OrderStatusChangedEvent.Item item : event.getItems()) {
+            if (!dishes.contains(item.getDishId())) dishes.add(item.getDishId());
+        }
+        if (dishes.size() > 1) {
+            increment(event.getOrderId(), dishes);
+        }
+    }
+
+    // Não espera a recarga em andamento: aplica na matriz atual e registra para a reconciliação na troca
+    private synchronized void increment(Long orderId, List<Long> dishes) {
+        Instant now = Instant.now();
+        recent.addLast(new Placed(orderId, dishes, now));
+        Instant expired = now.minus(REPLAY_WINDOW);
+        while (!recent.isEmpty() && recent.peekFirst().at().isBefore(expired)) {
+            recent.removeFirst();
+        }
+
+        ConcurrentHashMap<Long, Row> current = rows;
+        for (Long x : dishes) {
+            Row row = current.computeIfAbsent(x, id -> new Row());
+            for (Long y : dishes) {
+                if (!x.equals(y)) {
+                    row.offer(y, row.counts.add(y, 1));
+                }
+            }
+        }
+    }
+
+    // --- CONSULTA ---
+
+    public List<DishRecommendationDTO> recommend(Long dishId, int limit) {
+        int max = Math.min(Math.max(limit, 0), MAX_RECOMMENDATIONS);
+        Row row = rows.get(dishId);
+        if (row == null || max == 0) return List.of();
+
+        Top top = row.top; // snapshot imutável
+        MenuSnapshot menu = menuSnapshotService.current();
+        List<DishRecommendationDTO> result = new ArrayList<>(max);
+        for (int i = 0; i < top.ids.length && result.size() < max; i++) {
+            DishDTO dish = menu.getDish(top.ids[i]);
+            if (dish == null || Boolean.TRUE.equals(dish.getSoldOut())) continue; // removido do cardápio ou esgotado
+            result.add(new DishRecommendationDTO(
+                    dish.getId(), dish.getName(), dish.getCategory(), dish.getPrice(), dish.getUrlImage(), top.counts[i]));
+        }
+        return result;
+    }
+
+    // --- ESTRUTURAS ---
+
+    private record Partial(Map<Long, LongIntMap> counts, Set<Long> recentOrders) {
+    }
+
+    private record Placed(Long orderId, List<Long> dishes, Instant at) {
+    }
+
+    private static final class Row {
+        // Só é alterado dentro dos métodos synchronized (ou pela thread da recarga, antes da publicação)
+        private final LongIntMap counts = new LongIntMap();
+        private volatile Top top = Top.EMPTY;
+
+        // As contagens só crescem: basta inserir/reposicionar o prato nos top-k
+        private void offer(long dishId, int count) {
+            Top current = top;
+            int position = -1;
+            for (int i = 0; i < current.ids.length; i++) {
+                if (current.ids[i] == dishId) {
+                    position = i;
+                    break;
+                }
+            }
+            int size = current.ids.length;
+            if (position < 0 && size == TOP_CAPACITY && count <= current.counts[size - 1]) {
+                return;
+            }
+
+            int newSize = position >= 0 || size == TOP_CAPACITY ? size : size + 1;
+            long[] ids = new long[newSize];
+            int[] counts = new int[newSize];
+            int n = 0;
+            boolean placed = false;
+            for (int i = 0; i < size && n < newSize; i++) {
+                if (i == position) continue;
+                if (!placed && count > current.counts[i]) {
+                    ids[n] = dishId;
+                    counts[n++] = count;
+                    placed = true;
+                    if (n == newSize) break;
+                }
+                ids[n] = current.ids[i];
+                counts[n++] = current.counts[i];
+            }
+            if (!placed && n < newSize) {
+                ids[n] = dishId;
+                counts[n] = count;
+            }
+            top = new Top(ids, counts);
+        }
+
+        private void recomputeTop() {
+            List<long[]> all = new ArrayList<>(counts.size());
+            counts.forEach((dishId, count) -> all.add(new long[]{dishId, count}));
+            all.sort((a, b) -> Long.compare(b[1], a[1]));
+
+            int size = Math.min(all.size(), TOP_CAPACITY);
+            long[] ids = new long[size];
+            int[] topCounts = new int[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = all.get(i)[0];
+                topCounts[i] = (int) all.get(i)[1];
+            }
+            top = new Top(ids, topCounts);
+        }
+    }
+
+    // Top-k de uma linha, em ordem decrescente de contagem (arrays nunca alterados após criados)
+    private static final class Top {
+        private static final Top EMPTY = new Top(new long[0], new int[0]);
+
+        private final long[] ids;
+        private final int[] counts;
+
+        private Top(long[] ids, int[] counts) {
+            this.ids = ids;
+            this.counts = counts;
+        }
+    }
+}
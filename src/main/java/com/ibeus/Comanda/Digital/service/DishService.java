@@ -1,9 +1,12 @@
 package com.ibeus.Comanda.Digital.service;
 
+import com.ibeus.Comanda.Digital.config.TenantContext;
 import com.ibeus.Comanda.Digital.dto.DishDTO;
+import com.ibeus.Comanda.Digital.event.EntityChangedEvent;
 import com.ibeus.Comanda.Digital.model.Dish;
 import com.ibeus.Comanda.Digital.repository.DishRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,28 +23,31 @@ public class DishService {
     @Autowired
     private StorageService storageService; // Injeta o serviço que sabe salvar arquivos
 
-    // --- Buscas ---
+    @Autowired
+    private ApplicationEventPublisher eventPublisher; // Avisa os caches (deste e dos outros nós) que o cardápio mudou
+
+    // --- Buscas (sempre no cardápio do restaurante da requisição) ---
 
     public List<Dish> findAll() {
-        return dishRepository.findAll();
+        return dishRepository.findByTenantId(TenantContext.current());
     }
 
     public Dish findById(Long id) {
-        return dishRepository.findById(id)
+        return dishRepository.findByIdAndTenantId(id, TenantContext.current())
                 // Se não achar, lança erro 404 (Not Found) em vez de erro genérico
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Prato não encontrado: " + id));
     }
 
     public List<Dish> findFavorites(){
-        return dishRepository.findByFavoriteTrue();
+        return dishRepository.findByTenantIdAndFavoriteTrue(TenantContext.current());
     }
 
     public List<Dish> findByName(String name) {
-        return dishRepository.findByNameContainingIgnoreCase(name);
+        return dishRepository.findByTenantIdAndNameContainingIgnoreCase(TenantContext.current(), name);
     }
 
     public List<Dish> findByCategory(String category) {
-        List<Dish> dishes = dishRepository.findByCategoryIgnoreCase(category);
+        List<Dish> dishes = dishRepository.findByTenantIdAndCategoryIgnoreCase(TenantContext.current(), category);
         if (dishes.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Nenhum prato nesta categoria: " + category);
         }
@@ -55,7 +61,9 @@ public class DishService {
         // Inverte o valor booleano atual
         existingDish.setFavorite(!existingDish.isFavorite());
         
-        return dishRepository.save(existingDish);
+        Dish saved = dishRepository.save(existingDish);
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.DISH, id));
+        return saved;
     }
 
     // --- Criação Unificada (Lógica Principal) ---
@@ -71,8 +79,13 @@ public class DishService {
             }
             // Se file for null, ele mantém a URL que talvez já tenha vindo no DTO (ou fica null)
 
-            // 2. Converte DTO -> Entity e salva no banco
-            return dishRepository.save(dishDTO.toModel());
+            // 2. Converte DTO -> Entity e salva no banco (no cardápio do restaurante da requisição)
+            Dish dish = dishDTO.toModel();
+            dish.setId(null); // Sempre um prato novo: um id no corpo não pode sobrescrever outro (de outro restaurante)
+            dish.setTenantId(TenantContext.current());
+            Dish saved = dishRepository.save(dish);
+            eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.DISH, saved.getId()));
+            return saved;
 
         } catch (Exception e) {
             // Captura erros e devolve um 400 Bad Request
@@ -96,7 +109,7 @@ public class DishService {
      */
     @Transactional
     public DishDTO update(Long id, DishDTO dto, MultipartFile file) {
-        Dish existingDish = dishRepository.findById(id)
+        Dish existingDish = dishRepository.findByIdAndTenantId(id, TenantContext.current())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Prato não encontrado: " + id));
 
         try {
@@ -107,6 +120,9 @@ public class DishService {
             if (dto.getCategory() != null) existingDish.setCategory(dto.getCategory());
             if (dto.getDescription() != null) existingDish.setDescription(dto.getDescription());
             if (dto.getPrice() != null) existingDish.setPrice(dto.getPrice());
+            // Contagem do estoque (valor absoluto); negativo desliga o controle. O InventoryService recarrega após o commit
+            if (dto.getStock() != null) existingDish.setStock(dto.getStock() >= 0 ? dto.getStock() : null);
+            if (dto.getPrepMinutes() != null) existingDish.setPrepMinutes(dto.getPrepMinutes() > 0 ? dto.getPrepMinutes() : null);
             // ⚠️ LINHA REMOVIDA: Não atualiza existingDish.setFavorite(dto.getFavorite());
 
             String oldUrlImage = existingDish.getUrlImage();
@@ -149,6 +165,7 @@ public class DishService {
 
             // 4. Salva o prato com todas as alterações
             Dish saved = dishRepository.save(existingDish);
+            eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.DISH, id));
             return DishDTO.fromModel(saved);
 
         } catch (Exception e) {
@@ -161,9 +178,10 @@ public class DishService {
     // --- Deleção ---
 
     public void delete(Long id) {
-        if (!dishRepository.existsById(id)) {
+        if (!dishRepository.existsByIdAndTenantId(id, TenantContext.current())) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Prato não encontrado para deletar");
         }
         dishRepository.deleteById(id);
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.DISH, id));
     }
 }
\ No newline at end of file
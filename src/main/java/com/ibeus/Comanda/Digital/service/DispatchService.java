@@ -0,0 +1,67 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.config.TenantContext;
+import com.ibeus.Comanda.Digital.dto.DispatchGroupDTO;
+import com.ibeus.Comanda.Digital.dto.OrderDTO;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.model.Order;
+import com.ibeus.Comanda.Digital.repository.OrderRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Agrupa os pedidos PRONTOS por região para que o entregador leve vários na mesma viagem.
+ * Usa os campos estruturados do snapshot de endereço (CEP/bairro) capturados na finalização.
+ */
+@Service
+public class DispatchService {
+
+    private final OrderRepository orderRepository;
+
+    public DispatchService(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * @param window       Considera apenas os pedidos que ficaram prontos dentro desta janela.
+     * @param cepPrefix    Quantidade de dígitos do CEP usados para agrupar (ex: 5 = setor).
+     * @param byBairro     Se true, agrupa pelo bairro em vez do prefixo do CEP.
+     */
+    @Transactional(readOnly = true)
+    public List<DispatchGroupDTO> groupReadyOrders(Duration window, int cepPrefix, boolean byBairro) {
+        List<Order> readyOrders = orderRepository.findByTenantIdAndStatusAndStatusEnteredAtAfter(
+                TenantContext.current(), OrderStatus.READY, Instant.now().minus(window));
+        return group(readyOrders, cepPrefix, byBairro);
+    }
+
+    // Agrupamento puro (sem banco); cepPrefix já validado pelo controller (1 a 8 dígitos)
+    static List<DispatchGroupDTO> group(List<Order> readyOrders, int cepPrefix, boolean byBairro) {
+        // LinkedHashMap + ordenação por horário: o grupo com o pedido mais antigo aparece primeiro
+        readyOrders.sort(Comparator.comparing(Order::getStatusEnteredAt));
+        Map<String, DispatchGroupDTO> groups = new LinkedHashMap<>();
+
+        for (Order order : readyOrders) {
+            String key = byBairro ? normalizeBairro(order.getSnapshotBairro()) : cepKey(order.getSnapshotCep(), cepPrefix);
+            groups.computeIfAbsent(key, k -> new DispatchGroupDTO(
+                    k, order.getSnapshotBairro(), order.getSnapshotLocalidade(), new ArrayList<>()))
+                    .getOrders().add(new OrderDTO(order));
+        }
+
+        return new ArrayList<>(groups.values());
+    }
+
+    // Usa apenas os dígitos do CEP ("01001-000" -> "01001" com prefixo 5)
+    private static String cepKey(String cep, int prefix) {
+        if (cep == null) return "SEM_CEP";
+        String digits = cep.replaceAll("\\D", "");
+        return digits.length() <= prefix ? digits : digits.substring(0, prefix);
+    }
+
+    private static String normalizeBairro(String bairro) {
+        return bairro == null || bairro.isBlank() ? "SEM_BAIRRO" : bairro.trim().toUpperCase(Locale.ROOT);
+    }
+}
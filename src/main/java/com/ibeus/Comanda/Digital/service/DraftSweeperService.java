@@ -0,0 +1,135 @@
+package com.ibeus.Comanda.Digital.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Limpeza de rascunhos (DRAFT) abandonados pelos tablets.
+ * Apaga em lotes pequenos, percorrendo por id (keyset), cada lote em uma transação curta:
+ * primeiro os itens, depois os pedidos. Assim nenhum lock fica preso por muito tempo.
+ * As unidades reservadas pelos carrinhos apagados voltam ao estoque (InventoryService) após o commit.
+ * Cada pedido apagado deixa um tombstone na mesma transação, para o feed de GET /orders/changes.
+ */
+@Service
+public class DraftSweeperService {
+
+    private static final Logger log = LoggerFactory.getLogger(DraftSweeperService.class);
+
+    // Condição repetida nos DELETEs: se o carrinho voltou a ser usado depois da seleção, ele é preservado
+    private static final String ABANDONED_DRAFT =
+            "o.status = 'DRAFT' AND (o.last_activity_at < :cutoff OR (o.last_activity_at IS NULL AND o.moment < :cutoff))";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryService inventoryService;
+    private final OrderChangeFeed changeFeed;
+    private final Duration maxAge;
+    private final int batchSize;
+
+    private final Counter ordersReclaimed;
+    private final Counter itemsReclaimed;
+    private final Timer batchTimer;
+
+    public DraftSweeperService(NamedParameterJdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               InventoryService inventoryService,
+                               OrderChangeFeed changeFeed,
+                               @Value("${comanda.drafts.max-age:2h}") Duration maxAge,
+                               @Value("${comanda.drafts.batch-size:200}") int batchSize,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.inventoryService = inventoryService;
+        this.changeFeed = changeFeed;
+        this.maxAge = maxAge;
+        this.batchSize = batchSize;
+
+        this.ordersReclaimed = Counter.builder("comanda.drafts.reclaimed").tag("table", "tb_order").register(meterRegistry);
+        this.itemsReclaimed = Counter.builder("comanda.drafts.reclaimed").tag("table", "order_item").register(meterRegistry);
+        this.batchTimer = Timer.builder("comanda.drafts.sweep.batch")
+                .description("Duração de cada lote da limpeza de rascunhos")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${comanda.drafts.sweep-interval-ms:300000}")
+    public void sweep() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(maxAge));
+        long lastId = 0;
+        int totalOrders = 0;
+        int totalItems = 0;
+
+        while (true) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("cutoff", cutoff)
+                    .addValue("lastId", lastId)
+                    .addValue("limit", batchSize);
+
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT o.id FROM tb_order o WHERE " + ABANDONED_DRAFT + " AND o.id > :lastId ORDER BY o.id LIMIT :limit",
+                    params, Long.class);
+            if (ids.isEmpty()) break;
+
+            params.addValue("ids", ids);
+            long start = System.nanoTime();
+
+            Map<Long, Integer> reserved = new HashMap<>();
+            int[] deleted = transactionTemplate.execute(status -> {
+                // Trava os carrinhos ainda abandonados: as quantidades somadas são exatamente as que serão apagadas
+                List<Long> locked = jdbcTemplate.queryForList(
+                        "SELECT o.id FROM tb_order o WHERE o.id IN (:ids) AND " + ABANDONED_DRAFT + " FOR UPDATE",
+                        params, Long.class);
+                if (locked.isEmpty()) return new int[]{0, 0};
+
+                MapSqlParameterSource lockedParams = new MapSqlParameterSource("locked", locked);
+                jdbcTemplate.query(
+                        "SELECT dish_id, SUM(quantity) FROM order_item WHERE order_id IN (:locked) GROUP BY dish_id",
+                        lockedParams, rs -> {
+                            reserved.put(rs.getLong(1), rs.getInt(2));
+                        });
+                jdbcTemplate.update("INSERT INTO order_tombstone (order_id, tenant_id) " +
+                        "SELECT id, tenant_id FROM tb_order WHERE id IN (:locked)", lockedParams);
+                return new int[]{
+                        jdbcTemplate.update("DELETE FROM order_item WHERE order_id IN (:locked)", lockedParams),
+                        jdbcTemplate.update("DELETE FROM tb_order WHERE id IN (:locked)", lockedParams)
+                };
+            });
+            inventoryService.releaseAll(reserved);
+
+            batchTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            itemsReclaimed.increment(deleted[0]);
+            ordersReclaimed.increment(deleted[1]);
+            totalItems += deleted[0];
+            totalOrders += deleted[1];
+
+            lastId = ids.get(ids.size() - 1);
+            if (ids.size() < batchSize) break;
+        }
+
+        int purged = changeFeed.purgeTombstones();
+        if (purged > 0) {
+            log.debug("{} tombstone(s) de pedidos apagados expiraram", purged);
+        }
+
+        if (totalOrders > 0) {
+            log.info("Limpeza de rascunhos: {} pedido(s) e {} item(ns) removidos (inativos há mais de {})",
+                    totalOrders, totalItems, maxAge);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Renderiza a comanda da cozinha em bytes ESC/POS a partir do snapshot do pedido.
+ */
+@Component
+public class EscPosTicketRenderer {
+
+    private static final byte ESC = 0x1B;
+    private static final byte GS = 0x1D;
+
+    // Página de código PC850 (acentos do português), selecionada com ESC t 2
+    private static final Charset CHARSET = Charset.forName("IBM850");
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("dd/MM HH:mm").withZone(ZoneId.systemDefault());
+
+    public byte[] render(OrderStatusChangedEvent event, String printer, List<OrderStatusChangedEvent.Item> items) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+        out.write(ESC); out.write('@');          // Inicializa a impressora
+        out.write(ESC); out.write('t'); out.write(2); // Página de código PC850
+
+        // Cabeçalho em negrito e tamanho duplo
+        out.write(ESC); out.write('a'); out.write(1); // Centralizado
+        out.write(GS); out.write('!'); out.write(0x11);
+        text(out, "PEDIDO #" + event.getOrderId() + "\n");
+        out.write(GS); out.write('!'); out.write(0x00);
+        text(out, TIME_FORMAT.format(event.getAt()) + " - " + printer.toUpperCase() + "\n");
+        out.write(ESC); out.write('a'); out.write(0); // Alinhado à esquerda
+        text(out, "--------------------------------\n");
+
+        // Itens: quantidade em negrito
+        for (OrderStatusChangedEvent.Item item : items) {
+            out.write(ESC); out.write('E'); out.write(1);
+            text(out, item.getQuantity() + "x ");
+            out.write(ESC); out.write('E'); out.write(0);
+            text(out, item.getDishName() + "\n");
+        }
+
+        text(out, "--------------------------------\n\n\n");
+        out.write(GS); out.write('V'); out.write(66); out.write(0); // Avança e corta o papel
+
+        return out.toByteArray();
+    }
+
+    private static void text(ByteArrayOutputStream out, String value) {
+        out.writeBytes(value.getBytes(CHARSET));
+    }
+}
@@ -0,0 +1,41 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.config.TicketProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Impressora "de mentira": grava cada lote em um arquivo .escpos por impressora.
+ * É o modo padrão (desenvolvimento e testes); o arquivo pode ser enviado a uma impressora real com "cat > /dev/usb/lp0".
+ */
+@Component
+@ConditionalOnProperty(name = "comanda.tickets.mode", havingValue = "file", matchIfMissing = true)
+public class FileTicketPrinter implements TicketPrinter {
+
+    private final Path baseDir;
+
+    public FileTicketPrinter(TicketProperties properties) {
+        this.baseDir = Paths.get(System.getProperty("user.dir"), properties.getDirectory());
+    }
+
+    @Override
+    public void print(String printer, List<byte[]> tickets) throws IOException {
+        Path printerDir = baseDir.resolve(printer);
+        Files.createDirectories(printerDir);
+
+        Path file = printerDir.resolve(System.currentTimeMillis() + "-" + UUID.randomUUID() + ".escpos");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (byte[] ticket : tickets) {
+                out.write(ticket);
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibeus.Comanda.Digital.dto.OrderDTO;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import com.ibeus.Comanda.Digital.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Cache das respostas (já serializadas) dos pedidos em estado final: DELIVERED e CANCELED.
+ * Esses pedidos nunca mais mudam e o OrderDTO deles usa só os dados congelados, então os bytes
+ * podem ser servidos com ETag permanente (comprovante do cliente, reimpressões) sem tocar no banco.
+ *
+ * É preenchido após o commit da transição para o estado final e, depois de um restart ou de uma
+ * remoção por tamanho (LRU), na primeira leitura do pedido. A chave é (restaurante, pedido, formato):
+ * um restaurante nunca recebe a entrada de outro, e JSON, CBOR e Smile têm bytes e ETags próprios.
+ */
+@Service
+public class FinalizedOrderCache {
+
+    private static final Set<OrderStatus> TERMINAL = EnumSet.of(OrderStatus.DELIVERED, OrderStatus.CANCELED);
+
+    // Representações servidas pelo cache (as mesmas negociadas pelos conversores, ver SerializationConfig)
+    public enum Format {
+        JSON(MediaType.APPLICATION_JSON, "json"),
+        CBOR(MediaType.valueOf("application/cbor"), "cbor"),
+        SMILE(MediaType.valueOf("application/x-jackson-smile"), "smile");
+
+        private final MediaType mediaType;
+        private final String tag;
+
+        Format(MediaType mediaType, String tag) {
+            this.mediaType = mediaType;
+            this.tag = tag;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+    }
+
+    private record Key(String tenantId, Long orderId, Format format) {
+    }
+
+    private final OrderRepository repository;
+    private final Map<Format, ObjectMapper> mappers = new EnumMap<>(Format.class);
+
+    // LRU limitado: acesso move a entrada para o fim; a mais antiga sai quando passa do limite
+    private final Map<Key, CachedOrder> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public FinalizedOrderCache(OrderRepository repository,
+                               ObjectMapper objectMapper,
+                               MappingJackson2CborHttpMessageConverter cborConverter,
+                               MappingJackson2SmileHttpMessageConverter smileConverter,
+                               @Value("${comanda.order-cache.max-entries:10000}") int maxEntries,
+                               MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.mappers.put(Format.JSON, objectMapper);
+        this.mappers.put(Format.CBOR, cborConverter.getObjectMapper());
+        this.mappers.put(Format.SMILE, smileConverter.getObjectMapper());
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedOrder> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        this.hits = Counter.builder("comanda.orders.final_cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("comanda.orders.final_cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("comanda.orders.final_cache.size", this, FinalizedOrderCache::size)
+                .description("Pedidos finalizados com resposta em cache")
+                .register(meterRegistry);
+    }
+
+    // REQUIRES_NEW (leitura-escrita): relê o pedido no primário, já com o estado confirmado.
+    // Só o JSON é aquecido aqui; os formatos binários entram na primeira leitura.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (!TERMINAL.contains(event.getTo())) return;
+        repository.findById(event.getOrderId()).map(OrderDTO::new)
+                .ifPresent(dto -> putIfFinal(dto, event.getTenantId(), Format.JSON));
+    }
+
+    public CachedOrder get(String tenantId, Long id, Format format) {
+        CachedOrder cached;
+        synchronized (entries) {
+            cached = entries.get(new Key(tenantId, id, format));
+        }
+        (cached != null ? hits : misses).increment();
+        return cached;
+    }
+
+    // Guarda a resposta somente se o pedido está em estado final; retorna null caso contrário
+    public CachedOrder putIfFinal(OrderDTO dto, String tenantId, Format format) {
+        if (dto == null || !TERMINAL.contains(dto.getStatus())) return null;
+
+        CachedOrder cached = encode(dto, format);
+        synchronized (entries) {
+            entries.put(new Key(tenantId, dto.getId(), format), cached);
+        }
+        return cached;
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    // O formato entra no ETag: um 304 nunca confirma bytes de outra representação guardados pelo cliente
+    private CachedOrder encode(OrderDTO dto, Format format) {
+        try {
+            byte[] body = mappers.get(format).writeValueAsBytes(dto);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            String etag = "\"order-" + dto.getId() + "-" + format.tag + "-" + Long.toHexString(crc.getValue()) + "\"";
+            return new CachedOrder(body, etag, format.getMediaType());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o pedido " + dto.getId(), e);
+        }
+    }
+
+    public static class CachedOrder {
+        private final byte[] body;
+        private final String etag;
+        private final MediaType contentType;
+
+        private CachedOrder(byte[] body, String etag, MediaType contentType) {
+            this.body = body;
+            this.etag = etag;
+            this.contentType = contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public MediaType getContentType() {
+            return contentType;
+        }
+    }
+}
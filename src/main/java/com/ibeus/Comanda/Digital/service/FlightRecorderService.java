@@ -0,0 +1,113 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.event.ServiceCallJfrEvent;
+import com.ibeus.Comanda.Digital.event.StorageWriteJfrEvent;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Gravação contínua do JDK Flight Recorder com a configuração "default" (a de baixo custo,
+ * própria para produção), mantida em disco e limitada por idade e tamanho. Inclui os eventos
+ * da aplicação (ServiceCallJfrEvent e StorageWriteJfrEvent). O endpoint /admin/flight-recording
+ * (protegido pelo AdminTokenInterceptor) extrai os últimos minutos sem interromper a gravação.
+ * Os eventos que copiam o ambiente do processo ficam de fora: propriedades, variáveis de ambiente
+ * e a linha de comando podem trazer senhas (ex: --spring.datasource.password=...).
+ */
+@Service
+public class FlightRecorderService {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecorderService.class);
+
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+    private final Duration serviceCallThreshold;
+
+    // Propriedades do sistema, variáveis de ambiente, argumentos da JVM e processos da máquina
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialSystemProperty", "jdk.InitialEnvironmentVariable", "jdk.JVMInformation", "jdk.SystemProcess");
+
+    private Recording recording;
+
+    public FlightRecorderService(@Value("${comanda.flight-recorder.enabled:true}") boolean enabled,
+                                 @Value("${comanda.flight-recorder.max-age:30m}") Duration maxAge,
+                                 @Value("${comanda.flight-recorder.max-size:250MB}") DataSize maxSize,
+                                 @Value("${comanda.flight-recorder.service-call-threshold:0ms}") Duration serviceCallThreshold) {
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.serviceCallThreshold = serviceCallThreshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || recording != null || !FlightRecorder.isAvailable()) return;
+
+        try {
+            Recording continuous = new Recording(Configuration.getConfiguration("default"));
+            continuous.setName("comanda-continuous");
+            continuous.setToDisk(true);
+            continuous.setMaxAge(maxAge);
+            continuous.setMaxSize(maxSize.toBytes());
+            continuous.enable(ServiceCallJfrEvent.class).withThreshold(serviceCallThreshold);
+            continuous.enable(StorageWriteJfrEvent.class);
+            SENSITIVE_EVENTS.forEach(continuous::disable);
+            continuous.start();
+            this.recording = continuous;
+            log.info("Flight Recorder contínuo iniciado (últimos {} / {})", maxAge, maxSize);
+        } catch (IOException | ParseException | IllegalStateException e) {
+            // Sem gravação a aplicação continua funcionando; só o endpoint fica indisponível
+            log.warn("Não foi possível iniciar o Flight Recorder: {}", e.getMessage());
+        }
+    }
+
+    public boolean isRecording() {
+        return recording != null;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Escreve em output os dados dos últimos minutos, no formato .jfr (abrir no JDK Mission Control
+     * ou com "jfr print"). O snapshot é uma cópia: a gravação contínua segue sem pausa.
+     */
+    public void dump(Duration last, OutputStream output) throws IOException {
+        Path file = Files.createTempFile("comanda-", ".jfr");
+        try {
+            try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+                snapshot.setMaxAge(last);
+                snapshot.dump(file);
+            }
+            Files.copy(file, output);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.event.CacheInvalidationEvent;
+import com.ibeus.Comanda.Digital.event.DishAvailabilityChangedEvent;
+import com.ibeus.Comanda.Digital.event.EntityChangedEvent;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estoque dos pratos: um contador atômico por prato para os carrinhos, com a baixa garantida no banco.
+ *
+ * available = estoque gravado - quantidades nos carrinhos (DRAFT), como lidos na última recarga,
+ * mais as reservas e devoluções feitas neste nó desde então. O carrinho reserva (CAS em available)
+ * ao adicionar o item, sem lock de linha; a reserva é desfeita se a transação não confirmar.
+ *
+ * O contador é de cada nó e só serve para recusar cedo. Quem garante que os nós, somados, não vendem
+ * além do estoque é a baixa na finalização: "stock = stock - n WHERE stock >= n" na própria transação
+ * do pedido (409 se outro nó levou as últimas unidades). O estorno de cancelamento antes do preparo
+ * também vai na transação. A linha do prato fica travada só durante o commit da finalização.
+ *
+ * A recarga periódica (e a cada alteração de prato) reconcilia os contadores com o banco por delta:
+ * o que foi reservado neste nó durante a leitura continua descontado (ver reload).
+ */
+@Service
+public class InventoryService {
+
+    // Cancelado antes de a cozinha começar: as unidades voltam para o estoque
+    private static final Set<OrderStatus> RESTOCK_ON_CANCEL = EnumSet.of(OrderStatus.SCHEDULED, OrderStatus.RECEIVED);
+
+    private static final String STOCK_SQL = "SELECT id, tenant_id, stock FROM dishes WHERE stock IS NOT NULL";
+
+    private static final String DRAFT_QUANTITIES_SQL =
+            "SELECT i.dish_id, SUM(i.quantity) FROM order_item i JOIN tb_order o ON o.id = i.order_id " +
+            "WHERE o.status = 'DRAFT' GROUP BY i.dish_id";
+
+    // Baixa condicionada: 0 linhas = o estoque gravado não cobre o pedido
+    private static final String SELL_SQL =
+            "UPDATE dishes SET stock = stock - ? WHERE id = ? AND stock >= ?";
+
+    private static final String RESTOCK_SQL =
+            "UPDATE dishes SET stock = stock + ? WHERE id = ? AND stock IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter rejected;
+
+    // dishId -> estoque; prato ausente = sem controle de estoque (sempre disponível)
+    private final ConcurrentHashMap<Long, Stock> stocks = new ConcurrentHashMap<>();
+
+    public InventoryService(JdbcTemplate jdbcTemplate,
+                            ApplicationEventPublisher eventPublisher,
+                            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.rejected = Counter.builder("comanda.inventory.rejected")
+                .description("Itens recusados por falta de estoque")
+                .register(meterRegistry);
+    }
+
+    // --- CONSULTA ---
+
+    public boolean isSoldOut(Long dishId) {
+        Stock stock = stocks.get(dishId);
+        return stock != null && stock.available.get() <= 0;
+    }
+
+    // --- RESERVA (carrinho) ---
+
+    /**
+     * Reserva as unidades para um carrinho, dentro da transação do OrderService.
+     * Recusa com 409 se não houver estoque; se a transação for desfeita, a reserva também é.
+     */
+    public void reserve(Long dishId, int quantity) {
+        Stock stock = stocks.get(dishId);
+        if (stock == null) return;
+
+        int before;
+        do {
+            before = stock.available.get();
+            if (before < quantity) {
+                rejected.increment();
+                throw new ResponseStatusException(HttpStatus.CONFLICT, before > 0
+                        ? "Estoque insuficiente para o prato " + dishId + ": restam " + before
+                        : "Prato esgotado: " + dishId);
+            }
+        } while (!stock.available.compareAndSet(before, before - quantity));
+        stock.localDelta.addAndGet(-quantity);
+
+        if (before - quantity <= 0) {
+            availabilityChanged(stock, dishId);
+        }
+        // Sem evento ao desfazer: o "esgotado" publicado acima também não chegou a rodar (AFTER_COMMIT),
+        // e um evento publicado dentro do afterCompletion seria registrado numa transação que já terminou
+        onCompletion(TransactionSynchronization.STATUS_ROLLED_BACK, () -> release(dishId, quantity, false));
+    }
+
+    // Item removido do carrinho: devolve as unidades quando (e se) a remoção confirmar
+    public void releaseAfterCommit(Long dishId, int quantity) {
+        onCompletion(TransactionSynchronization.STATUS_COMMITTED, () -> release(dishId, quantity, true));
+    }
+
+    // Rascunhos apagados pela limpeza (chamado após o commit do lote): dishId -> quantidade
+    public void releaseAll(Map<Long, Integer> quantities) {
+        quantities.forEach((dishId, quantity) -> release(dishId, quantity, true));
+    }
+
+    private void release(Long dishId, int quantity, boolean publish) {
+        Stock stock = stocks.get(dishId);
+        if (stock == null) return;
+
+        int after = stock.available.addAndGet(quantity);
+        stock.localDelta.addAndGet(quantity);
+        if (publish && after > 0 && after - quantity <= 0) {
+            availabilityChanged(stock, dishId);
+        }
+    }
+
+    // --- BAIXA (finalização) E ESTORNO ---
+
+    /**
+     * Grava a baixa ou o estorno na transação que muda o status, antes do commit.
+     * Lança 409 (e a transação é desfeita) se algum prato não tiver mais estoque gravado.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onStatusChanging(OrderStatusChangedEvent event) {
+        OrderStatus from = event.getFrom();
+        OrderStatus to = event.getTo();
+        if (from == null || from == to) return;
+
+        if (from == OrderStatus.DRAFT && to != OrderStatus.CANCELED) {
+            quantities(event).forEach((dishId, quantity) -> {
+                if (jdbcTemplate.update(SELL_SQL, quantity, dishId, quantity) == 0) {
+                    rejected.increment();
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Estoque insuficiente para o prato " + dishId + " ao finalizar o pedido");
+                }
+            });
+        } else if (from != OrderStatus.DRAFT
+                && (to == OrderStatus.DRAFT || to == OrderStatus.CANCELED && RESTOCK_ON_CANCEL.contains(from))) {
+            // Voltou a ser carrinho (segue reservado) ou foi cancelado antes do preparo
+            quantities(event).forEach((dishId, quantity) -> jdbcTemplate.update(RESTOCK_SQL, quantity, dishId));
+        }
+    }
+
+    // Contadores locais: só mudam quando unidades entram ou saem dos carrinhos e do estoque juntos
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        OrderStatus from = event.getFrom();
+        OrderStatus to = event.getTo();
+        if (from == null || from == to || to != OrderStatus.CANCELED) return;
+
+        // Carrinho descartado ou cancelado antes do preparo (o estorno já foi gravado)
+        if (from == OrderStatus.DRAFT || RESTOCK_ON_CANCEL.contains(from)) {
+            quantities(event).forEach((dishId, quantity) -> release(dishId, quantity, true));
+        }
+    }
+
+    // --- RECARGA / RECONCILIAÇÃO ---
+
+    /**
+     * Na subida e periodicamente: incorpora carrinhos, vendas e estornos feitos em outros nós.
+     *
+     * Por delta, nunca sobrescrevendo available (reserve não trava nada e pode rodar junto):
+     * cada recarga abre uma época zerando localDelta. O que foi feito neste nó antes disso já
+     * está no banco; o que for feito durante a leitura fica em localDelta para a próxima época
+     * e continua descontado. Uma transação que confirma bem no meio é corrigida na recarga seguinte.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${comanda.inventory.reconcile-interval-ms:300000}",
+               fixedDelayString = "${comanda.inventory.reconcile-interval-ms:300000}")
+    public synchronized void reload() {
+        Map<Long, Integer> epochDeltas = new HashMap<>();
+        stocks.forEach((dishId, stock) -> epochDeltas.put(dishId, stock.localDelta.getAndSet(0)));
+
+        Map<Long, Integer> inDrafts = new HashMap<>();
+        jdbcTemplate.query(DRAFT_QUANTITIES_SQL, rs -> {
+            inDrafts.put(rs.getLong(1), rs.getInt(2));
+        });
+
+        Set<Long> tracked = new HashSet<>();
+        Set<String> changedTenants = new HashSet<>();
+        jdbcTemplate.query(STOCK_SQL, rs -> {
+            long dishId = rs.getLong("id");
+            String tenantId = rs.getString("tenant_id");
+            tracked.add(dishId);
+
+            boolean wasSoldOut = isSoldOut(dishId);
+            Stock stock = stocks.computeIfAbsent(dishId, id -> new Stock(tenantId));
+            int base = rs.getInt("stock") - inDrafts.getOrDefault(dishId, 0);
+            stock.available.addAndGet(base - stock.base - epochDeltas.getOrDefault(dishId, 0));
+            stock.base = base;
+            if (wasSoldOut != isSoldOut(dishId)) changedTenants.add(tenantId);
+        });
+
+        // Pratos removidos ou sem controle de estoque
+        stocks.entrySet().removeIf(entry -> {
+            if (tracked.contains(entry.getKey())) return false;
+            if (entry.getValue().available.get() <= 0) changedTenants.add(entry.getValue().tenantId);
+            return true;
+        });
+
+        changedTenants.forEach(tenantId -> eventPublisher.publishEvent(new DishAvailabilityChangedEvent(tenantId, null)));
+    }
+
+    // Prato criado, editado (ex: nova contagem de estoque) ou removido, neste ou em outro nó
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDishChanged(EntityChangedEvent event) {
+        if (EntityChangedEvent.DISH.equals(event.getEntity())) {
+            reload();
+        }
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isRemote() && EntityChangedEvent.DISH.equals(event.getEntity())) {
+            reload();
+        }
+    }
+
+    // --- AUXILIARES ---
+
+    private void availabilityChanged(Stock stock, Long dishId) {
+        eventPublisher.publishEvent(new DishAvailabilityChangedEvent(stock.tenantId, dishId));
+    }
+
+    // Itens com controle de estoque, somados por prato e em ordem de id (mesma ordem de lock em todos os nós).
+    // Um prato que passou a ter estoque em outro nó entra na próxima recarga (invalidação remota)
+    private SortedMap<Long, Integer> quantities(OrderStatusChangedEvent event) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (OrderStatusChangedEvent.Item item : event.getItems()) {
+            if (stocks.containsKey(item.getDishId())) {
+                quantities.merge(item.getDishId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        return quantities;
+    }
+
+    // Executa a ação no fim da transação corrente, se ela terminar com o status esperado
+    private static void onCompletion(int expectedStatus, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (expectedStatus == TransactionSynchronization.STATUS_COMMITTED) action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == expectedStatus) action.run();
+            }
+        });
+    }
+
+    private static final class Stock {
+        private final String tenantId;
+        private final AtomicInteger available = new AtomicInteger();
+        private final AtomicInteger localDelta = new AtomicInteger(); // reservas (-) e devoluções (+) desde a última recarga
+        private int base; // estoque - carrinhos na última recarga; só alterado pela recarga (synchronized)
+
+        private Stock(String tenantId) {
+            this.tenantId = tenantId;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.config.TicketProperties;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.enums.PrintJobStatus;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import com.ibeus.Comanda.Digital.model.PrintJob;
+import com.ibeus.Comanda.Digital.repository.PrintJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipeline de impressão das comandas da cozinha, fora da requisição do cliente.
+ *
+ * 1. Na própria transação da finalização (-> RECEIVED), renderiza um ticket ESC/POS por impressora
+ *    (roteado pela categoria do prato) e grava no spool (tabela print_job, outbox): o pedido e
+ *    seus tickets são confirmados juntos, ou nenhum dos dois.
+ * 2. Uma thread dedicada reserva um lote do spool (UPDATE com claim_token, um nó por ticket),
+ *    agrupa por impressora e envia; falhas voltam para o spool com nova tentativa agendada.
+ *    Na subida, o que ficou pendente é retomado; reservas de um nó que caiu expiram e são retomadas.
+ */
+@Service
+public class KitchenTicketService {
+
+    private static final Logger log = LoggerFactory.getLogger(KitchenTicketService.class);
+
+    private final PrintJobRepository printJobRepository;
+    private final EscPosTicketRenderer renderer;
+    private final TicketPrinter ticketPrinter;
+    private final TicketProperties properties;
+
+    // Acorda a thread de impressão assim que um ticket entra no spool (sem esperar o próximo ciclo)
+    private final Semaphore wakeUp = new Semaphore(0);
+    // Java 17: thread de plataforma dedicada (no Java 21 pode virar Executors.newVirtualThreadPerTaskExecutor())
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "kitchen-ticket-printer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean running = true;
+
+    public KitchenTicketService(PrintJobRepository printJobRepository,
+                                EscPosTicketRenderer renderer,
+                                TicketPrinter ticketPrinter,
+                                TicketProperties properties) {
+        this.printJobRepository = printJobRepository;
+        this.renderer = renderer;
+        this.ticketPrinter = ticketPrinter;
+        this.properties = properties;
+    }
+
+    // --- 1. ENFILEIRAR NO SPOOL ---
+
+    // BEFORE_COMMIT: grava na transação do pedido; se o INSERT falhar, a finalização também é desfeita
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (!printsTicket(event)) return;
+
+        // Separa os itens por impressora (ex: bebidas no bar, o resto na cozinha)
+        Map<String, List<OrderStatusChangedEvent.Item>> itemsByPrinter = new LinkedHashMap<>();
+        for (OrderStatusChangedEvent.Item item : event.getItems()) {
+            String printer = properties.getCategoryPrinters().getOrDefault(item.getCategory(), properties.getDefaultPrinter());
+            itemsByPrinter.computeIfAbsent(printer, p -> new ArrayList<>()).add(item);
+        }
+
+        Instant now = Instant.now();
+        List<PrintJob> jobs = new ArrayList<>();
+        itemsByPrinter.forEach((printer, items) -> {
+            PrintJob job = new PrintJob();
+            job.setOrderId(event.getOrderId());
+            job.setPrinter(printer);
+            job.setPayload(renderer.render(event, printer, items));
+            job.setStatus(PrintJobStatus.PENDING);
+            job.setCreatedAt(now);
+            job.setNextAttemptAt(now);
+            jobs.add(job);
+        });
+        printJobRepository.saveAll(jobs);
+    }
+
+    // Depois do commit os tickets já estão visíveis: acorda a thread de impressão
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChangedCommitted(OrderStatusChangedEvent event) {
+        if (printsTicket(event)) {
+            wakeUp.release();
+        }
+    }
+
+    // Finalizado agora ou agendado chegando à hora de preparo
+    private static boolean printsTicket(OrderStatusChangedEvent event) {
+        OrderStatus from = event.getFrom();
+        return event.getTo() == OrderStatus.RECEIVED
+                && (from == null || from == OrderStatus.DRAFT || from == OrderStatus.SCHEDULED);
+    }
+
+    // --- 2. IMPRIMIR (thread dedicada) ---
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker.submit(this::loop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        worker.shutdownNow();
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                wakeUp.tryAcquire(properties.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+                while (running && processBatch() > 0) {
+                    // Continua enquanto houver tickets pendentes
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Falha no processamento do spool de impressão", e);
+            }
+        }
+    }
+
+    // Retorna quantos tickets foram impressos neste lote
+    private int processBatch() {
+        Instant now = Instant.now();
+        String token = UUID.randomUUID().toString();
+        int claimed = printJobRepository.claimDue(token, now.plus(properties.getClaimTimeout()), now, properties.getBatchSize());
+        if (claimed == 0) return 0;
+
+        List<PrintJob> due = printJobRepository.findByClaimTokenOrderByIdAsc(token);
+
+        Map<String, List<PrintJob>> byPrinter = new LinkedHashMap<>();
+        for (PrintJob job : due) {
+            byPrinter.computeIfAbsent(job.getPrinter(), p -> new ArrayList<>()).add(job);
+        }
+
+        int printed = 0;
+        for (Map.Entry<String, List<PrintJob>> entry : byPrinter.entrySet()) {
+            List<PrintJob> jobs = entry.getValue();
+            try {
+                List<byte[]> payloads = new ArrayList<>(jobs.size());
+                for (PrintJob job : jobs) payloads.add(job.getPayload());
+
+                ticketPrinter.print(entry.getKey(), payloads);
+
+                for (PrintJob job : jobs) {
+                    job.setStatus(PrintJobStatus.PRINTED);
+                    job.setPrintedAt(Instant.now());
+                }
+                printed += jobs.size();
+            } catch (Exception e) {
+                log.warn("Impressora {} indisponível ({} ticket(s) voltam para o spool): {}", entry.getKey(), jobs.size(), e.getMessage());
+                for (PrintJob job : jobs) {
+                    job.setAttempts(job.getAttempts() + 1);
+                    job.setLastError(e.getMessage());
+                    if (job.getAttempts() >= properties.getMaxAttempts()) {
+                        job.setStatus(PrintJobStatus.FAILED);
+                    } else {
+                        // Espera cresce linearmente a cada falha
+                        job.setNextAttemptAt(Instant.now().plus(properties.getRetryDelay().multipliedBy(job.getAttempts())));
+                    }
+                }
+            }
+            for (PrintJob job : jobs) {
+                job.setClaimToken(null); // libera a reserva (pendentes voltam a ficar disponíveis a todos os nós)
+                job.setClaimedUntil(null);
+            }
+            printJobRepository.saveAll(jobs);
+        }
+        return printed;
+    }
+}
@@ -0,0 +1,93 @@
+package com.ibeus.Comanda.Digital.service;
+
+import java.util.Arrays;
+
+/**
+ * Mapa long -> int com endereçamento aberto (sondagem linear) sobre dois arrays primitivos.
+ * Sem boxing e sem um objeto por entrada: usado nas linhas da matriz de co-ocorrência,
+ * que podem ter milhares de entradas cada. Não é thread-safe.
+ */
+class LongIntMap {
+
+    private static final long EMPTY = Long.MIN_VALUE; // chave reservada (ids nunca são negativos)
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+
+    LongIntMap() {
+        this(8);
+    }
+
+    LongIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) return values[i];
+            if (k == EMPTY) return 0;
+        }
+    }
+
+    // Soma delta ao valor da chave (0 se ausente) e retorna o novo valor
+    int add(long key, int delta) {
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (true) {
+            long k = keys[i];
+            if (k == key) {
+                return values[i] += delta;
+            }
+            if (k == EMPTY) {
+                keys[i] = key;
+                values[i] = delta;
+                if (++size >= resizeAt) grow();
+                return delta;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) visitor.visit(keys[i], values[i]);
+        }
+    }
+
+    interface Visitor {
+        void visit(long key, int value);
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) add(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    // Espalha os bits (ids sequenciais cairiam em posições vizinhas)
+    private static int index(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
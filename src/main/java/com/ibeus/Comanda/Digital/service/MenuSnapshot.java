@@ -0,0 +1,105 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.dto.DishDTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cardápio "publicado": imutável e já serializado.
+ * Montado pelo MenuSnapshotService apenas quando o cardápio muda; as leituras só copiam os bytes.
+ */
+public class MenuSnapshot {
+
+    private final long version;
+    private final List<DishDTO> dishes;
+    private final Map<Long, DishDTO> dishesById;
+    private final EncodedBody all;
+    private final EncodedBody favorites;
+    private final Map<String, EncodedBody> byCategory; // chave: categoria em minúsculas
+
+    // Os mesmos recortes como DTOs, para os formatos binários (CBOR/Smile) serializados pelo conversor
+    private final List<DishDTO> favoriteDishes;
+    private final Map<String, List<DishDTO>> dishesByCategory;
+
+    MenuSnapshot(long version, List<DishDTO> dishes, Map<Long, DishDTO> dishesById,
+                 EncodedBody all, EncodedBody favorites, Map<String, EncodedBody> byCategory,
+                 List<DishDTO> favoriteDishes, Map<String, List<DishDTO>> dishesByCategory) {
+        this.version = version;
+        this.dishes = dishes;
+        this.dishesById = dishesById;
+        this.all = all;
+        this.favorites = favorites;
+        this.byCategory = byCategory;
+        this.favoriteDishes = favoriteDishes;
+        this.dishesByCategory = dishesByCategory;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<DishDTO> getDishes() {
+        return dishes;
+    }
+
+    public DishDTO getDish(Long id) {
+        return dishesById.get(id);
+    }
+
+    public EncodedBody getAll() {
+        return all;
+    }
+
+    public EncodedBody getFavorites() {
+        return favorites;
+    }
+
+    // null quando não há pratos na categoria
+    public EncodedBody getCategory(String category) {
+        return byCategory.get(MenuSnapshotService.categoryKey(category));
+    }
+
+    public List<DishDTO> getFavoriteDishes() {
+        return favoriteDishes;
+    }
+
+    // null quando não há pratos na categoria
+    public List<DishDTO> getCategoryDishes(String category) {
+        return dishesByCategory.get(MenuSnapshotService.categoryKey(category));
+    }
+
+    /**
+     * Corpo JSON pré-codificado, em versão simples e gzip, cada uma com o seu ETag forte calculado sobre o conteúdo.
+     */
+    public static class EncodedBody {
+
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+        private final String gzipEtag;
+
+        EncodedBody(byte[] json, byte[] gzip, String etag, String gzipEtag) {
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = etag;
+            this.gzipEtag = gzipEtag;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getGzipEtag() {
+            return gzipEtag;
+        }
+    }
+}
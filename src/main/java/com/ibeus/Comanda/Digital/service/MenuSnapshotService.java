@@ -0,0 +1,172 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibeus.Comanda.Digital.config.TenantContext;
+import com.ibeus.Comanda.Digital.dto.DishDTO;
+import com.ibeus.Comanda.Digital.event.CacheInvalidationEvent;
+import com.ibeus.Comanda.Digital.event.DishAvailabilityChangedEvent;
+import com.ibeus.Comanda.Digital.event.EntityChangedEvent;
+import com.ibeus.Comanda.Digital.repository.DishRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Publica o cardápio como um snapshot imutável e versionado, com os bytes JSON (e gzip)
+ * já prontos para a lista completa, os favoritos e cada categoria.
+ * É reconstruído somente quando o DishService altera algum prato (neste ou em outro nó).
+ * Cada restaurante (tenant) com pratos cadastrados tem o seu snapshot, publicado na subida ou no primeiro acesso;
+ * um X-Tenant-Id desconhecido recebe o cardápio vazio compartilhado (nada é consultado nem guardado para ele).
+ * O "soldOut" de cada prato vem do InventoryService; quando um prato esgota (ou volta), o snapshot
+ * é remontado a partir do anterior, sem consultar o banco.
+ */
+@Service
+public class MenuSnapshotService {
+
+    private final DishRepository dishRepository;
+    private final ObjectMapper objectMapper;
+    private final InventoryService inventoryService;
+
+    private final Map<String, MenuSnapshot> snapshots = new ConcurrentHashMap<>();
+    private long nextVersion = 1;
+
+    // Restaurantes com pratos no banco (mais o "default"): só estes ganham snapshot próprio
+    private volatile Set<String> knownTenants = Set.of(TenantContext.DEFAULT);
+    private final MenuSnapshot empty;
+
+    public MenuSnapshotService(DishRepository dishRepository, ObjectMapper objectMapper, InventoryService inventoryService) {
+        this.dishRepository = dishRepository;
+        this.objectMapper = objectMapper;
+        this.inventoryService = inventoryService;
+        this.empty = build(List.of());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        refreshKnownTenants();
+        knownTenants.forEach(this::publish);
+    }
+
+    // O evento não diz de qual restaurante é o prato: atualiza a lista de restaurantes e republica os já carregados
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (EntityChangedEvent.DISH.equals(event.getEntity())) {
+            refreshKnownTenants();
+            snapshots.keySet().removeIf(tenantId -> !knownTenants.contains(tenantId));
+            new ArrayList<>(snapshots.keySet()).forEach(this::publish);
+        }
+    }
+
+    private void refreshKnownTenants() {
+        Set<String> tenants = new HashSet<>(dishRepository.findTenantIds());
+        tenants.add(TenantContext.DEFAULT);
+        this.knownTenants = Set.copyOf(tenants);
+    }
+
+    // Após o commit do carrinho que esgotou o prato (ou imediatamente, fora de transação)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onAvailabilityChanged(DishAvailabilityChangedEvent event) {
+        MenuSnapshot snapshot = snapshots.get(event.getTenantId());
+        if (snapshot == null) return; // ainda não publicado: o primeiro acesso já lê o estoque atual
+
+        // Cópias: os DTOs do snapshot anterior podem estar sendo lidos/serializados agora
+        List<DishDTO> dishes = new ArrayList<>(snapshot.getDishes().size());
+        for (DishDTO dish : snapshot.getDishes()) {
+            DishDTO copy = new DishDTO(dish.getId(), dish.getUrlImage(), dish.getName(), dish.getCategory(),
+                    dish.getDescription(), dish.getPrice(), dish.getFavorite(), dish.getStock(),
+                    inventoryService.isSoldOut(dish.getId()), dish.getPrepMinutes());
+            dishes.add(copy);
+        }
+        snapshots.put(event.getTenantId(), build(dishes));
+    }
+
+    // Cardápio do restaurante da requisição corrente
+    public MenuSnapshot current() {
+        String tenantId = TenantContext.current();
+        MenuSnapshot snapshot = snapshots.get(tenantId);
+        if (snapshot != null) return snapshot;
+        // Header com um tenant qualquer não pode gerar consultas nem crescer o mapa
+        return knownTenants.contains(tenantId) ? publish(tenantId) : empty;
+    }
+
+    // Lê o cardápio do primário (sem readOnly) para não publicar um estado atrasado da réplica
+    public synchronized MenuSnapshot publish(String tenantId) {
+        List<DishDTO> dishes = dishRepository.findByTenantId(tenantId).stream()
+                .map(DishDTO::fromModel)
+                .collect(Collectors.toList());
+        dishes.forEach(dish -> dish.setSoldOut(inventoryService.isSoldOut(dish.getId())));
+        MenuSnapshot snapshot = build(dishes);
+        snapshots.put(tenantId, snapshot);
+        return snapshot;
+    }
+
+    private MenuSnapshot build(List<DishDTO> dishes) {
+        Map<Long, DishDTO> byId = new HashMap<>();
+        Map<String, List<DishDTO>> groupedByCategory = new HashMap<>();
+        List<DishDTO> favorites = new ArrayList<>();
+        for (DishDTO dish : dishes) {
+            byId.put(dish.getId(), dish);
+            if (dish.getCategory() != null) {
+                groupedByCategory.computeIfAbsent(categoryKey(dish.getCategory()), k -> new ArrayList<>()).add(dish);
+            }
+            if (Boolean.TRUE.equals(dish.getFavorite())) {
+                favorites.add(dish);
+            }
+        }
+
+        Map<String, MenuSnapshot.EncodedBody> byCategory = new HashMap<>();
+        Map<String, List<DishDTO>> dishesByCategory = new HashMap<>();
+        groupedByCategory.forEach((category, list) -> {
+            byCategory.put(category, encode(list));
+            dishesByCategory.put(category, Collections.unmodifiableList(list));
+        });
+
+        return new MenuSnapshot(
+                nextVersion++,
+                Collections.unmodifiableList(dishes),
+                Collections.unmodifiableMap(byId),
+                encode(dishes),
+                encode(favorites),
+                Collections.unmodifiableMap(byCategory),
+                Collections.unmodifiableList(favorites),
+                Collections.unmodifiableMap(dishesByCategory));
+    }
+
+    static String categoryKey(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+
+    private MenuSnapshot.EncodedBody encode(List<DishDTO> dishes) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(dishes);
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(json);
+            // Um ETag por representação: a versão gzip não é byte a byte igual à identidade
+            String tag = "menu-" + Long.toHexString(crc.getValue()) + "-" + json.length;
+
+            return new MenuSnapshot.EncodedBody(json, compressed.toByteArray(), "\"" + tag + "\"", "\"" + tag + "-gzip\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o cardápio", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.config.TicketProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * Impressora térmica de rede (modo RAW, normalmente porta 9100): um socket por lote.
+ */
+@Component
+@ConditionalOnProperty(name = "comanda.tickets.mode", havingValue = "network")
+public class NetworkTicketPrinter implements TicketPrinter {
+
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+
+    private final TicketProperties properties;
+
+    public NetworkTicketPrinter(TicketProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void print(String printer, List<byte[]> tickets) throws IOException {
+        String address = properties.getAddresses().get(printer);
+        if (address == null) {
+            throw new IOException("Endereço não configurado para a impressora: " + printer);
+        }
+
+        String host = address.contains(":") ? address.substring(0, address.lastIndexOf(':')) : address;
+        int port = address.contains(":") ? Integer.parseInt(address.substring(address.lastIndexOf(':') + 1)) : 9100;
+
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            OutputStream out = socket.getOutputStream();
+            for (byte[] ticket : tickets) {
+                out.write(ticket);
+            }
+            out.flush();
+        }
+    }
+}
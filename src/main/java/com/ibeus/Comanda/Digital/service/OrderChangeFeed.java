@@ -0,0 +1,113 @@
+package com.ibeus.Comanda.Digital.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feed de alterações dos pedidos (GET /orders/changes): cursor (updated_at, id) sobre tb_order
+ * e order_tombstone (rascunhos apagados pela limpeza).
+ *
+ * updated_at é mantido pelo MySQL no horário do UPDATE, e a transação confirma um pouco depois:
+ * uma alteração com horário menor que o cursor ainda pode aparecer. Por isso só são entregues
+ * as alterações mais antigas que a margem de segurança (NOW(6) - safety-lag, relógio do banco),
+ * e o cursor nunca passa desse horizonte. Sem contador central: as escritas não disputam nenhuma linha.
+ */
+@Component
+public class OrderChangeFeed {
+
+    // Mesmo horizonte (NOW(6) é único por comando) para pedidos e tombstones, numa só ida ao banco.
+    // Cada parte é uma faixa de índice: idx_order_tenant_updated e idx_order_tombstone_tenant.
+    private static final String CHANGES_SQL =
+            "(SELECT o.id AS order_id, o.updated_at AS changed_at, 0 AS deleted FROM tb_order o " +
+            " WHERE o.tenant_id = ? AND o.updated_at >= ? AND (o.updated_at > ? OR o.id > ?) " +
+            "   AND o.updated_at <= NOW(6) - INTERVAL ? MICROSECOND " +
+            " ORDER BY o.updated_at, o.id LIMIT ?) " +
+            "UNION ALL " +
+            "(SELECT t.order_id, t.deleted_at, 1 FROM order_tombstone t " +
+            " WHERE t.tenant_id = ? AND t.deleted_at >= ? AND (t.deleted_at > ? OR t.order_id > ?) " +
+            "   AND t.deleted_at <= NOW(6) - INTERVAL ? MICROSECOND " +
+            " ORDER BY t.deleted_at, t.order_id LIMIT ?) " +
+            "ORDER BY changed_at, order_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long safetyLagMicros;
+    private final Duration tombstoneRetention;
+
+    public OrderChangeFeed(JdbcTemplate jdbcTemplate,
+                           @Value("${comanda.order-changes.safety-lag:3s}") Duration safetyLag,
+                           @Value("${comanda.order-changes.tombstone-retention:7d}") Duration tombstoneRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.safetyLagMicros = safetyLag.toNanos() / 1000;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * Próxima página de alterações depois do cursor (null ou vazio: desde o início).
+     * 400 para cursor inválido; 410 quando os tombstones daquele período já foram descartados
+     * (a tela deve recarregar o quadro completo).
+     */
+    public Page read(String tenantId, String since, int limit) {
+        Cursor from = Cursor.parse(since);
+        if (from.at().isAfter(Instant.EPOCH) && from.at().isBefore(Instant.now().minus(tombstoneRetention))) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Cursor expirado: recarregue o quadro completo.");
+        }
+        Timestamp at = Timestamp.from(from.at());
+
+        List<Long> changedIds = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        Cursor[] last = {from};
+        jdbcTemplate.query(CHANGES_SQL, rs -> {
+            long orderId = rs.getLong(1);
+            (rs.getBoolean(3) ? deletedIds : changedIds).add(orderId);
+            last[0] = new Cursor(rs.getTimestamp(2).toInstant(), orderId);
+        }, tenantId, at, at, from.id(), safetyLagMicros, limit,
+           tenantId, at, at, from.id(), safetyLagMicros, limit,
+           limit);
+
+        boolean hasMore = changedIds.size() + deletedIds.size() == limit;
+        return new Page(last[0].format(), hasMore, changedIds, deletedIds);
+    }
+
+    // Tombstones mais antigos que a retenção (chamado pela limpeza de rascunhos)
+    public int purgeTombstones() {
+        return jdbcTemplate.update("DELETE FROM order_tombstone WHERE deleted_at < ?",
+                Timestamp.from(Instant.now().minus(tombstoneRetention)));
+    }
+
+    public record Page(String cursor, boolean hasMore, List<Long> changedIds, List<Long> deletedIds) {
+    }
+
+    // "<microssegundos desde a época>_<id>": opaco para os clientes
+    record Cursor(Instant at, long id) {
+
+        static final Cursor START = new Cursor(Instant.EPOCH, 0);
+
+        static Cursor parse(String value) {
+            if (value == null || value.isBlank()) return START;
+            int separator = value.indexOf('_');
+            try {
+                if (separator < 0) throw new NumberFormatException(value);
+                long micros = Long.parseLong(value.substring(0, separator));
+                long id = Long.parseLong(value.substring(separator + 1));
+                if (micros < 0 || id < 0) throw new NumberFormatException(value);
+                return new Cursor(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), id);
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido: " + value);
+            }
+        }
+
+        String format() {
+            return ChronoUnit.MICROS.between(Instant.EPOCH, at) + "_" + id;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Exportação do histórico de pedidos (DELIVERED e CANCELED) de um período, para a contabilidade.
+ *
+ * As linhas vão do result set direto para a resposta, sem montar entidades nem listas: a memória
+ * usada não depende do tamanho do período. A leitura é feita na réplica, quando configurada, e
+ * sempre fora de transação (autocommit), em páginas por (moment, id): cada SELECT é curto e
+ * nenhum snapshot de leitura fica aberto no primário durante o download inteiro.
+ */
+@Service
+public class OrderHistoryExportService {
+
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+
+    private static final String[] CSV_COLUMNS = {
+            "orderId", "moment", "status", "client", "address", "dishId", "dishName", "quantity", "price", "subTotal"};
+
+    // Página de pedidos (keyset em moment, id) e seus itens; percorre o índice idx_order_tenant_moment
+    private static final String PAGE_SQL =
+            "SELECT o.id, o.moment, o.status, o.client_snapshot_name, o.address_snapshot, " +
+            "       i.dish_id, d.name AS dish_name, i.quantity, i.price " +
+            "FROM tb_order o " +
+            "JOIN (SELECT id FROM tb_order " +
+            "      WHERE tenant_id = ? AND status IN ('DELIVERED', 'CANCELED') AND moment < ? " +
+            "        AND (moment > ? OR (moment = ? AND id > ?)) " +
+            "      ORDER BY moment, id LIMIT ?) page ON page.id = o.id " +
+            "LEFT JOIN order_item i ON i.order_id = o.id " +
+            "LEFT JOIN dishes d ON d.id = i.dish_id " +
+            "ORDER BY o.moment, o.id, i.id";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+
+    public OrderHistoryExportService(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                     @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                     ObjectMapper objectMapper,
+                                     @Value("${comanda.history-export.page-size:1000}") int pageSize) {
+        // Pool direto (sem o roteamento por transação): a exportação não participa de transações
+        DataSource replica = replicaDataSource.getIfAvailable();
+        this.streamingJdbcTemplate = new JdbcTemplate(replica != null ? replica : primaryDataSource);
+        // Integer.MIN_VALUE: o driver do MySQL entrega as linhas uma a uma (result set forward-only)
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Escreve os pedidos finalizados do restaurante com moment em [from, to).
+     * CSV: uma linha por item. NDJSON: um objeto por pedido, com os itens agrupados.
+     */
+    public void export(OutputStream output, Instant from, Instant to, String format, String tenantId) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        RowSink sink = CSV.equals(format) ? new CsvSink(writer) : new NdjsonSink(writer, objectMapper);
+
+        Timestamp end = Timestamp.from(to);
+        Timestamp lastMoment = Timestamp.from(from.minusNanos(1000)); // moment >= from
+        long lastId = Long.MAX_VALUE;
+
+        while (true) {
+            PageCursor cursor = new PageCursor();
+            streamingJdbcTemplate.query(PAGE_SQL, rs -> {
+                try {
+                    cursor.track(rs);
+                    sink.row(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, tenantId, end, lastMoment, lastMoment, lastId, pageSize);
+
+            sink.endOrder(); // o último pedido da página está completo
+            writer.flush();  // entrega a página ao cliente
+
+            if (cursor.orders < pageSize) break;
+            lastMoment = cursor.lastMoment;
+            lastId = cursor.lastId;
+        }
+
+        sink.close();
+        writer.flush();
+    }
+
+    // Acompanha o último pedido lido, que vira o ponto de partida da próxima página
+    private static final class PageCursor {
+        private int orders;
+        private long lastId = -1;
+        private Timestamp lastMoment;
+
+        private void track(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (id != lastId) {
+                orders++;
+                lastId = id;
+                lastMoment = rs.getTimestamp("moment");
+            }
+        }
+    }
+
+    // --- FORMATOS ---
+
+    private interface RowSink {
+        void row(ResultSet rs) throws SQLException, IOException;
+
+        void endOrder() throws IOException;
+
+        void close() throws IOException;
+    }
+
+    private static final class CsvSink implements RowSink {
+        private final Writer writer;
+
+        private CsvSink(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write('\n');
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            writer.write(String.valueOf(rs.getLong("id")));
+            writer.write(',');
+            Timestamp moment = rs.getTimestamp("moment");
+            writer.write(moment != null ? moment.toInstant().toString() : "");
+            writer.write(',');
+            writer.write(DishImportExportService.csv(rs.getString("status")));
+            writer.write(',');
+            writer.write(DishImportExportService.csv(rs.getString("client_snapshot_name")));
+            writer.write(',');
+            writer.write(DishImportExportService.csv(rs.getString("address_snapshot")));
+            writer.write(',');
+
+            long dishId = rs.getLong("dish_id");
+            if (rs.wasNull()) {
+                writer.write(",,,,"); // pedido sem itens
+            } else {
+                int quantity = rs.getInt("quantity");
+                double price = rs.getDouble("price");
+                writer.write(String.valueOf(dishId));
+                writer.write(',');
+                writer.write(DishImportExportService.csv(rs.getString("dish_name")));
+                writer.write(',');
+                writer.write(String.valueOf(quantity));
+                writer.write(',');
+                writer.write(String.valueOf(price));
+                writer.write(',');
+                writer.write(String.valueOf(price * quantity));
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void endOrder() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // Mantém só o pedido corrente aberto no gerador JSON; fecha o objeto quando o id muda
+    private static final class NdjsonSink implements RowSink {
+        private final Writer writer;
+        private final ObjectMapper objectMapper;
+        private JsonGenerator generator;
+        private long currentId = -1;
+        private double total;
+
+        private NdjsonSink(Writer writer, ObjectMapper objectMapper) {
+            this.writer = writer;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            long id = rs.getLong("id");
+            if (id != currentId) {
+                endOrder();
+                currentId = id;
+                total = 0;
+
+                generator = objectMapper.getFactory().createGenerator(writer);
+                generator.writeStartObject();
+                generator.writeNumberField("id", id);
+                Timestamp moment = rs.getTimestamp("moment");
+                generator.writeStringField("moment", moment != null ? moment.toInstant().toString() : null);
+                generator.writeStringField("status", rs.getString("status"));
+                generator.writeStringField("client", rs.getString("client_snapshot_name"));
+                generator.writeStringField("address", rs.getString("address_snapshot"));
+                generator.writeArrayFieldStart("items");
+            }
+
+            long dishId = rs.getLong("dish_id");
+            if (!rs.wasNull()) {
+                int quantity = rs.getInt("quantity");
+                double price = rs.getDouble("price");
+                total += price * quantity;
+
+                generator.writeStartObject();
+                generator.writeNumberField("dishId", dishId);
+                generator.writeStringField("dishName", rs.getString("dish_name"));
+                generator.writeNumberField("quantity", quantity);
+                generator.writeNumberField("price", price);
+                generator.writeEndObject();
+            }
+        }
+
+        @Override
+        public void endOrder() throws IOException {
+            if (generator == null) return;
+            generator.writeEndArray();
+            generator.writeNumberField("total", total);
+            generator.writeEndObject();
+            generator.flush(); // o Writer de baixo continua aberto
+            writer.write('\n');
+            generator = null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            endOrder();
+        }
+    }
+}
@@ -1,51 +1,72 @@
 package com.ibeus.Comanda.Digital.service;
 
+import com.ibeus.Comanda.Digital.config.RetryConfig;
+import com.ibeus.Comanda.Digital.config.TenantContext;
+import com.ibeus.Comanda.Digital.dto.OrderChangesDTO;
 import com.ibeus.Comanda.Digital.dto.OrderDTO;
 import com.ibeus.Comanda.Digital.dto.OrderItemDTO;
 import com.ibeus.Comanda.Digital.dto.OrderItemInputDTO;
 import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.event.EntityChangedEvent;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
 import com.ibeus.Comanda.Digital.model.*;
 import com.ibeus.Comanda.Digital.repository.ClientRepository;
 import com.ibeus.Comanda.Digital.repository.DishRepository;
 import com.ibeus.Comanda.Digital.repository.OrderRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
+    // Colunas do quadro: tudo que não é rascunho nem estado final
+    private static final Set<OrderStatus> BOARD_STATUSES =
+            EnumSet.complementOf(EnumSet.of(OrderStatus.DRAFT, OrderStatus.DELIVERED, OrderStatus.CANCELED));
+
     private final OrderRepository repository;
     private final ClientRepository clientRepository;
     private final DishRepository dishRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderChangeFeed changeFeed;
+    private final InventoryService inventoryService;
+    private final SlotAllocator slotAllocator;
 
     public OrderService(OrderRepository repository,
                         ClientRepository clientRepository,
-                        DishRepository dishRepository) {
+                        DishRepository dishRepository,
+                        ApplicationEventPublisher eventPublisher,
+                        OrderChangeFeed changeFeed,
+                        InventoryService inventoryService,
+                        SlotAllocator slotAllocator) {
         this.repository = repository;
         this.clientRepository = clientRepository;
         this.dishRepository = dishRepository;
+        this.eventPublisher = eventPublisher;
+        this.changeFeed = changeFeed;
+        this.inventoryService = inventoryService;
+        this.slotAllocator = slotAllocator;
     }
 
     // --- MÉTODOS DE BUSCA (Buscam o pedido completo) ---
     @Transactional(readOnly = true)
     public List<OrderDTO> findAll() {
-        List<Order> entities = repository.findAll();
+        List<Order> entities = repository.findByTenantId(TenantContext.current());
         return entities.stream().map(OrderDTO::new).collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public OrderDTO findById(Long id) {
-        Order order = repository.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pedido não encontrado: " + id));
-        return new OrderDTO(order);
+        return new OrderDTO(findOrder(id));
     }
 
     /**
@@ -60,7 +81,7 @@ public class OrderService {
                 OrderStatus.CANCELED
         );
 
-        List<Order> entities = repository.findByStatusIn(finalStatuses);
+        List<Order> entities = repository.findByTenantIdAndStatusIn(TenantContext.current(), finalStatuses);
 
         if (entities.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Nenhum pedido finalizado ou cancelado encontrado.");
@@ -69,9 +90,61 @@ public class OrderService {
         return entities.stream().map(OrderDTO::new).collect(Collectors.toList());
     }
 
+    // Pedidos ativos que o monitor de SLA marcou como atrasados
+    @Transactional(readOnly = true)
+    public List<OrderDTO> findLate() {
+        List<OrderStatus> activeStatuses = Arrays.asList(
+                OrderStatus.RECEIVED,
+                OrderStatus.IN_PREPARATION,
+                OrderStatus.READY,
+                OrderStatus.ON_THE_WAY
+        );
+        return repository.findByTenantIdAndStatusInAndLateTrue(TenantContext.current(), activeStatuses).stream()
+                .map(OrderDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    // Pedidos alterados (e rascunhos apagados) depois do cursor, na ordem das alterações (até "limit" por chamada).
+    // Sem readOnly: lê no primário, porque o atraso da réplica poderia ultrapassar a margem de segurança do cursor.
+    @Transactional
+    public OrderChangesDTO findChanges(String since, int limit) {
+        String tenantId = TenantContext.current();
+        OrderChangeFeed.Page page = changeFeed.read(tenantId, since, limit);
+        if (page.changedIds().isEmpty()) {
+            return new OrderChangesDTO(page.cursor(), page.hasMore(), List.of(), page.deletedIds());
+        }
+
+        Map<Long, Order> byId = new HashMap<>();
+        for (Order order : repository.findByTenantIdAndIdIn(tenantId, page.changedIds())) {
+            byId.put(order.getId(), order);
+        }
+        List<OrderDTO> orders = page.changedIds().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull) // apagado entre as duas leituras: o tombstone vem na próxima consulta
+                .map(OrderDTO::new)
+                .collect(Collectors.toList());
+        return new OrderChangesDTO(page.cursor(), page.hasMore(), orders, page.deletedIds());
+    }
+
+    /**
+     * Quadro completo numa só consulta, agrupado por status (na ordem do enum).
+     * Toda coluna aparece, mesmo vazia, em vez do 404 de findByStatus.
+     */
+    @Transactional(readOnly = true)
+    public Map<OrderStatus, List<OrderDTO>> findBoard() {
+        Map<OrderStatus, List<OrderDTO>> board = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : BOARD_STATUSES) {
+            board.put(status, new ArrayList<>());
+        }
+        for (Order order : repository.findBoard(TenantContext.current(), BOARD_STATUSES)) {
+            board.get(order.getStatus()).add(new OrderDTO(order));
+        }
+        return board;
+    }
+
     @Transactional(readOnly = true)
     public List<OrderDTO> findByStatus(OrderStatus status) {
-        List<Order> entities = repository.findByStatus(status);
+        List<Order> entities = repository.findByTenantIdAndStatus(TenantContext.current(), status);
         if (entities.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Nenhum pedido encontrado com status: " + status);
         }
@@ -82,34 +155,48 @@ public class OrderService {
     @Transactional
     public OrderDTO create(OrderDTO dto) {
 
-        // 🚨 BUSCA O CLIENTE PADRÃO
-        List<Client> allClients = clientRepository.findAll();
-        if (allClients.isEmpty()) {
-            throw new EntityNotFoundException("O cliente não foi encontrado. Crie o registro inicial do cliente.");
-        }
-        Client defaultClient = allClients.get(0);
+        // 🚨 BUSCA O CLIENTE PADRÃO (do restaurante da requisição)
+        Client defaultClient = clientRepository.findFirstByTenantIdOrderByIdAsc(TenantContext.current())
+                .orElseThrow(() -> new EntityNotFoundException("O cliente não foi encontrado. Crie o registro inicial do cliente."));
 
         Order order = new Order();
+        order.setTenantId(defaultClient.getTenantId());
         order.setClient(defaultClient);
         order.setMoment(Instant.now());
         order.setStatus(OrderStatus.DRAFT); // Status inicial como RASCUNHO
+        if (dto.getRequestedSlot() != null) {
+            order.setRequestedSlot(slotAllocator.normalize(dto.getRequestedSlot())); // Agendado (revalidado na finalização)
+        }
+        order.setStatusEnteredAt(order.getMoment());
+        order.setLastActivityAt(order.getMoment());
 
         Order saved = repository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(saved, null, OrderStatus.DRAFT));
         return new OrderDTO(saved);
     }
 
     // --- 🆕 ADICIONAR ITEM AO RASCUNHO (CARRINHO) ---
     @Transactional
+    @Retryable(interceptor = RetryConfig.ORDER_CONFLICT_RETRY)
     public OrderItemDTO addItemToOrder(Long orderId, OrderItemInputDTO itemDTO) {
-        Order order = repository.findById(orderId)
-                .orElseThrow(() -> new EntityNotFoundException("Pedido não encontrado: " + orderId));
+        Order order = repository.findByIdForceIncrement(orderId, TenantContext.current())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pedido não encontrado: " + orderId));
 
         if (order.getStatus() != OrderStatus.DRAFT) {
             throw new IllegalStateException("Só é possível adicionar itens a pedidos no status DRAFT.");
         }
 
-        Dish dish = dishRepository.findById(itemDTO.getDishId())
-                .orElseThrow(() -> new EntityNotFoundException("Prato não encontrado: " + itemDTO.getDishId()));
+        // Só pratos do cardápio do mesmo restaurante
+        Dish dish = dishRepository.findByIdAndTenantId(itemDTO.getDishId(), order.getTenantId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Prato não encontrado: " + itemDTO.getDishId()));
+
+        if (itemDTO.getQuantity() == null || itemDTO.getQuantity() <= 0) {
+            throw new IllegalArgumentException("A quantidade a ser adicionada deve ser positiva.");
+        }
+        // Reserva no estoque em memória (409 se esgotado); desfeita se esta transação não confirmar
+        inventoryService.reserve(dish.getId(), itemDTO.getQuantity());
+
+        order.setLastActivityAt(Instant.now()); // Carrinho em uso: não é um rascunho abandonado
 
         // Tenta encontrar item existente para atualizar a quantidade
         OrderItem existingItem = order.getItems().stream()
@@ -141,8 +228,9 @@ public class OrderService {
 
     // --- 🔹 REMOVER OU DIMINUIR ITEM DO RASCUNHO (CARRINHO) 🔄 ---
     @Transactional
+    @Retryable(interceptor = RetryConfig.ORDER_CONFLICT_RETRY)
     public OrderDTO removeItemFromOrder(Long orderId, OrderItemInputDTO itemDTO) {
-        Order order = repository.findById(orderId)
+        Order order = repository.findByIdForceIncrement(orderId, TenantContext.current())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pedido não encontrado: " + orderId));
 
         // 1. Verifica se o pedido está no status DRAFT
@@ -164,6 +252,8 @@ public class OrderService {
         }
 
         int currentQuantity = existingItem.getQuantity();
+        // Devolve ao estoque o que de fato sai do carrinho, após o commit
+        inventoryService.releaseAfterCommit(existingItem.getDish().getId(), Math.min(quantityToRemove, currentQuantity));
 
         if (quantityToRemove >= currentQuantity) {
             // 4A. Remover o item completamente (Quantidade a remover é maior ou igual à atual)
@@ -178,17 +268,19 @@ public class OrderService {
             // O subtotal será recalculado automaticamente ao salvar
         }
 
+        order.setLastActivityAt(Instant.now());
+
         // 5. Salva o pedido atualizado (com item removido ou quantidade alterada)
         Order saved = repository.save(order);
         return new OrderDTO(saved);
     }
 
 
-    // --- 🆕 FINALIZAR PEDIDO (Mudar de DRAFT para RECEIVED) ---
+    // --- 🆕 FINALIZAR PEDIDO (Mudar de DRAFT para RECEIVED, ou SCHEDULED se tiver horário) ---
     @Transactional
-    public OrderDTO finalizeOrder(Long orderId) {
-        Order order = repository.findById(orderId)
-                .orElseThrow(() -> new EntityNotFoundException("Pedido não encontrado: " + orderId));
+    @Retryable(interceptor = RetryConfig.ORDER_CONFLICT_RETRY)
+    public OrderDTO finalizeOrder(Long orderId, Instant requestedSlot) {
+        Order order = findOrder(orderId);
 
         if (order.getStatus() != OrderStatus.DRAFT) {
             throw new IllegalStateException("Apenas pedidos no status DRAFT podem ser finalizados.");
@@ -218,10 +310,23 @@ public class OrderService {
                 client.getComplement() != null ? client.getComplement() : ""
         );
         order.setAddressSnapshot(fullAddress);
+        order.setSnapshotCep(address.getCep());
+        order.setSnapshotBairro(address.getBairro());
+        order.setSnapshotLocalidade(address.getLocalidade());
         // -----------------------------------------------------------------------------------------
 
-        // 2. Altera o status e salva.
-        order.setStatus(OrderStatus.RECEIVED);
+        // 2. Altera o status e salva. Com horário: reserva a capacidade do slot (409 se lotado)
+        //    e o pedido espera em SCHEDULED até a hora de ir para a cozinha.
+        if (requestedSlot != null) {
+            order.setRequestedSlot(requestedSlot);
+        }
+        if (order.getRequestedSlot() != null) {
+            order.setRequestedSlot(slotAllocator.normalize(order.getRequestedSlot()));
+            order.setReleaseAt(slotAllocator.releaseAt(order));
+            changeStatus(order, OrderStatus.SCHEDULED);
+        } else {
+            changeStatus(order, OrderStatus.RECEIVED);
+        }
         Order updated = repository.save(order);
 
         // O DTO de resposta (OrderDTO) precisará ser atualizado para exibir esses novos campos.
@@ -235,9 +340,9 @@ public class OrderService {
      * @return O DTO do pedido atualizado.
      */
     @Transactional
+    @Retryable(interceptor = RetryConfig.ORDER_CONFLICT_RETRY)
     public OrderDTO cancelOrder(Long id) {
-        Order order = repository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Pedido não encontrado: " + id));
+        Order order = findOrder(id);
 
         OrderStatus currentStatus = order.getStatus();
 
@@ -258,7 +363,7 @@ public class OrderService {
         }
 
         // 4. Se o status for: RECEIVED, IN_PREPARATION, READY ou ON_THE_WAY, ele será cancelado.
-        order.setStatus(OrderStatus.CANCELED);
+        changeStatus(order, OrderStatus.CANCELED);
         Order updated = repository.save(order);
 
         return new OrderDTO(updated);
@@ -266,17 +371,30 @@ public class OrderService {
 
     // 🔹 Atualiza para um status específico (Drag & Drop)
     @Transactional
+    @Retryable(interceptor = RetryConfig.ORDER_CONFLICT_RETRY)
     public OrderDTO updateStatus(Long id, OrderStatus newStatus) {
-        Order order = repository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Pedido não encontrado: " + id));
+        Order order = findOrder(id);
 
         OrderStatus currentStatus = order.getStatus();
 
-        // 1. Regra: Bloqueia qualquer alteração se o pedido já foi ENTREGUE.
+        // 1. Regra: Bloqueia qualquer alteração se o pedido já foi ENTREGUE ou CANCELADO (estados finais,
+        //    cujas respostas ficam em cache com ETag permanente).
         if (currentStatus == OrderStatus.DELIVERED) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Pedido já foi entregue e não pode ter seu status alterado.");
         }
+        if (currentStatus == OrderStatus.CANCELED) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Pedido cancelado não pode ter seu status alterado.");
+        }
         
+        // Agendamento só pela finalização (valida o horário e reserva a capacidade)
+        if (newStatus == OrderStatus.SCHEDULED) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Use a finalização com horário para agendar um pedido.");
+        }
+        // Rascunho com horário: sair do DRAFT por aqui pularia a validação do horário e o release_at
+        if (currentStatus == OrderStatus.DRAFT && newStatus != OrderStatus.CANCELED && order.getRequestedSlot() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Pedido com horário agendado: use a finalização.");
+        }
+
         // 2. Regra: Bloquear retrocesso a partir de ON_THE_WAY.
         // Se o status atual for ON_THE_WAY, o novo status só pode ser DELIVERED ou CANCELLED.
         if (currentStatus == OrderStatus.ON_THE_WAY) {
@@ -286,24 +404,56 @@ public class OrderService {
             }
         }
         
-        order.setStatus(newStatus);
+        changeStatus(order, newStatus);
         Order updated = repository.save(order);
 
         return new OrderDTO(updated);
     }
 
+    // 🔹 Despacha um grupo de pedidos PRONTOS (mesma região) de uma vez: READY -> ON_THE_WAY
+    @Transactional
+    @Retryable(interceptor = RetryConfig.ORDER_CONFLICT_RETRY)
+    public List<OrderDTO> dispatch(List<Long> orderIds) {
+        // IDs repetidos no corpo (toque duplo no tablet) não devem virar "pedido não encontrado"
+        List<Long> ids = orderIds.stream().distinct().toList();
+        List<Order> orders = repository.findByTenantIdAndIdIn(TenantContext.current(), ids);
+
+        if (orders.size() != ids.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Um ou mais pedidos do lote não foram encontrados.");
+        }
+
+        for (Order order : orders) {
+            if (order.getStatus() != OrderStatus.READY) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Apenas pedidos no status READY podem ser despachados. Pedido " + order.getId() + " está em " + order.getStatus());
+            }
+            changeStatus(order, OrderStatus.ON_THE_WAY);
+        }
+
+        return repository.saveAll(orders).stream().map(OrderDTO::new).collect(Collectors.toList());
+    }
+
     // 🔹 Avançar automaticamente por etapas
     @Transactional
+    @Retryable(interceptor = RetryConfig.ORDER_CONFLICT_RETRY)
     public OrderDTO nextStep(Long id) {
-        Order order = repository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Pedido não encontrado"));
+        Order order = findOrder(id);
 
         switch (order.getStatus()) {
-            case DRAFT -> order.setStatus(OrderStatus.RECEIVED); // Permite pular direto do DRAFT
-            case RECEIVED -> order.setStatus(OrderStatus.IN_PREPARATION);
-            case IN_PREPARATION -> order.setStatus(OrderStatus.READY);
-            case READY -> order.setStatus(OrderStatus.ON_THE_WAY);
-            case ON_THE_WAY -> order.setStatus(OrderStatus.DELIVERED);
+            case DRAFT -> { // Permite pular direto do DRAFT (agendado, se tiver horário)
+                if (order.getRequestedSlot() != null) {
+                    order.setRequestedSlot(slotAllocator.normalize(order.getRequestedSlot()));
+                    order.setReleaseAt(slotAllocator.releaseAt(order));
+                    changeStatus(order, OrderStatus.SCHEDULED);
+                } else {
+                    changeStatus(order, OrderStatus.RECEIVED);
+                }
+            }
+            case SCHEDULED -> changeStatus(order, OrderStatus.RECEIVED); // Libera o agendado antes da hora
+            case RECEIVED -> changeStatus(order, OrderStatus.IN_PREPARATION);
+            case IN_PREPARATION -> changeStatus(order, OrderStatus.READY);
+            case READY -> changeStatus(order, OrderStatus.ON_THE_WAY);
+            case ON_THE_WAY -> changeStatus(order, OrderStatus.DELIVERED);
             case DELIVERED -> throw new IllegalStateException("Pedido já foi entregue!");
         }
 
@@ -313,20 +463,67 @@ public class OrderService {
 
     // 🔹 Retroceder automaticamente
     @Transactional
+    @Retryable(interceptor = RetryConfig.ORDER_CONFLICT_RETRY)
     public OrderDTO previousStep(Long id) {
-        Order order = repository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Pedido não encontrado"));
+        Order order = findOrder(id);
 
         switch (order.getStatus()) {
             case DELIVERED -> throw new IllegalStateException("Pedido já foi entregue!");
             case ON_THE_WAY -> throw new IllegalStateException("Pedido está a caminho e não pode ser revertido!");
-            case READY -> order.setStatus(OrderStatus.IN_PREPARATION);
-            case IN_PREPARATION -> order.setStatus(OrderStatus.RECEIVED);
-            case RECEIVED -> order.setStatus(OrderStatus.DRAFT); // Permite voltar para o DRAFT
+            case READY -> changeStatus(order, OrderStatus.IN_PREPARATION);
+            case IN_PREPARATION -> changeStatus(order, OrderStatus.RECEIVED);
+            case RECEIVED -> changeStatus(order, OrderStatus.DRAFT); // Permite voltar para o DRAFT
+            case SCHEDULED -> changeStatus(order, OrderStatus.DRAFT); // Desfaz o agendamento (libera o slot)
             case DRAFT -> throw new IllegalStateException("Pedido já está no início!");
         }
 
         Order updated = repository.save(order);
         return new OrderDTO(updated);
     }
+
+    /**
+     * Envia para a cozinha (RECEIVED) os pedidos agendados cujo release_at já passou, até "limit" por chamada.
+     * Tarefa de fundo: atende todos os restaurantes. Retorna quantos pedidos foram liberados.
+     */
+    @Transactional
+    @Retryable(interceptor = RetryConfig.ORDER_CONFLICT_RETRY)
+    public int releaseDueScheduled(Instant now, int limit) {
+        List<Order> due = repository.findByStatusAndReleaseAtLessThanEqualOrderByReleaseAtAsc(
+                OrderStatus.SCHEDULED, now, PageRequest.of(0, limit));
+        for (Order order : due) {
+            changeStatus(order, OrderStatus.RECEIVED);
+        }
+        repository.saveAll(due);
+        return due.size();
+    }
+
+    // Pedido de outro restaurante é tratado como inexistente (404)
+    private Order findOrder(Long id) {
+        return repository.findByIdAndTenantId(id, TenantContext.current())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pedido não encontrado: " + id));
+    }
+
+    // --- 🔹 MUDANÇA DE STATUS CENTRALIZADA ---
+    // Toda transição passa por aqui para que os ouvintes (lista de preparo, etc.) sejam notificados.
+    private void changeStatus(Order order, OrderStatus newStatus) {
+        // O evento é montado antes da troca para carregar o horário de entrada no status anterior
+        OrderStatusChangedEvent event = OrderStatusChangedEvent.of(order, order.getStatus(), newStatus);
+
+        // Capacidade da cozinha no horário agendado: reserva ao entrar, libera ao sair (cancelado/rascunho)
+        boolean heldSlot = SlotAllocator.holdsSlot(order, order.getStatus());
+        boolean holdsSlot = SlotAllocator.holdsSlot(order, newStatus);
+        if (!heldSlot && holdsSlot) {
+            slotAllocator.reserve(order);
+        } else if (heldSlot && !holdsSlot) {
+            slotAllocator.release(order);
+        }
+
+        order.setStatus(newStatus);
+        order.setStatusEnteredAt(event.getAt());
+        order.setLastActivityAt(event.getAt());
+        order.setLate(false); // O SLA passa a ser contado para o novo status
+
+        eventPublisher.publishEvent(event);
+        eventPublisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.ORDER));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.config.TenantContext;
+import com.ibeus.Comanda.Digital.dto.DwellTimeDTO;
+import com.ibeus.Comanda.Digital.dto.OrderStatusEventDTO;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Log de eventos de status (tabela order_status_event).
+ * As transições são enfileiradas após o commit e gravadas em lote via JDBC batch,
+ * sem nunca reescrever as linhas de tb_order.
+ * O buffer é limitado: se o banco ficar fora por muito tempo, os eventos excedentes são descartados
+ * e contados em comanda.status-events.dropped (o status do pedido em si nunca se perde).
+ */
+@Service
+public class OrderStatusEventService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO order_status_event (order_id, from_status, to_status, moment) VALUES (?, ?, ?, ?)";
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusEventService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final Counter droppedCounter;
+
+    // Buffer de eventos confirmados (commit) aguardando gravação
+    private final LinkedBlockingDeque<OrderStatusChangedEvent> buffer;
+
+    public OrderStatusEventService(JdbcTemplate jdbcTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${comanda.status-events.batch-size:200}") int batchSize,
+                                   @Value("${comanda.status-events.max-buffered:50000}") int maxBuffered) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.buffer = new LinkedBlockingDeque<>(maxBuffered);
+        this.droppedCounter = Counter.builder("comanda.status-events.dropped")
+                .description("Eventos de status descartados com o buffer cheio")
+                .register(meterRegistry);
+        meterRegistry.gaugeCollectionSize("comanda.status-events.buffered", Tags.empty(), buffer);
+    }
+
+    // --- ESCRITA ---
+
+    // Só enfileira: a requisição do usuário não paga o custo do INSERT
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (!buffer.offer(event)) {
+            droppedCounter.increment();
+        }
+        // Volume de pedidos por restaurante e status de destino
+        meterRegistry.counter("comanda.orders.transitions",
+                "tenant", event.getTenantId(), "to", event.getTo().name()).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${comanda.status-events.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        List<OrderStatusChangedEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                insertBatch(batch);
+            } catch (DataAccessException e) {
+                // Devolve o lote à frente do buffer, na ordem original: vai na próxima rodada
+                requeue(batch);
+                log.warn("Falha ao gravar {} evento(s) de status; nova tentativa na próxima rodada", batch.size(), e);
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    private void requeue(List<OrderStatusChangedEvent> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (!buffer.offerFirst(batch.get(i))) {
+                droppedCounter.increment();
+            }
+        }
+    }
+
+    private void insertBatch(List<OrderStatusChangedEvent> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, e) -> {
+            ps.setLong(1, e.getOrderId());
+            ps.setString(2, e.getFrom() != null ? e.getFrom().name() : null);
+            ps.setString(3, e.getTo().name());
+            ps.setTimestamp(4, Timestamp.from(e.getAt()));
+        });
+    }
+
+    // Garante que nada fique no buffer ao desligar a aplicação
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // --- CONSULTAS ---
+
+    public List<OrderStatusEventDTO> findTimeline(Long orderId) {
+        return jdbcTemplate.query(
+                "SELECT e.from_status, e.to_status, e.moment FROM order_status_event e " +
+                "JOIN tb_order o ON o.id = e.order_id " +
+                "WHERE e.order_id = ? AND o.tenant_id = ? ORDER BY e.moment, e.id",
+                (rs, rowNum) -> new OrderStatusEventDTO(
+                        rs.getString("from_status") != null ? OrderStatus.valueOf(rs.getString("from_status")) : null,
+                        OrderStatus.valueOf(rs.getString("to_status")),
+                        rs.getTimestamp("moment").toInstant()),
+                orderId, TenantContext.current());
+    }
+
+    /**
+     * Distribuição do tempo de permanência em um status, considerando as entradas nesse status
+     * dentro da janela informada. O tempo é a diferença até o próximo evento do mesmo pedido
+     * (pedidos que ainda estão no status não entram na conta). Só os pedidos do restaurante da requisição.
+     */
+    public DwellTimeDTO findDwellTime(OrderStatus status, Duration window) {
+        Timestamp since = Timestamp.from(Instant.now().minus(window));
+
+        List<Long> durationsMillis = jdbcTemplate.query(
+                "SELECT t.moment, t.next_moment FROM (" +
+                "  SELECT e.to_status, e.moment, " +
+                "         LEAD(e.moment) OVER (PARTITION BY e.order_id ORDER BY e.moment, e.id) AS next_moment " +
+                "  FROM order_status_event e " +
+                "  WHERE e.order_id IN (SELECT DISTINCT s.order_id FROM order_status_event s " +
+                "                       JOIN tb_order o ON o.id = s.order_id " +
+                "                       WHERE s.moment >= ? AND o.tenant_id = ?)" +
+                ") t WHERE t.to_status = ? AND t.moment >= ? AND t.next_moment IS NOT NULL",
+                (rs, rowNum) -> rs.getTimestamp("next_moment").getTime() - rs.getTimestamp("moment").getTime(),
+                since, TenantContext.current(), status.name(), since);
+
+        Collections.sort(durationsMillis);
+        int count = durationsMillis.size();
+        if (count == 0) {
+            return new DwellTimeDTO(status, 0, null, null, null, null, null);
+        }
+
+        double sum = 0;
+        for (Long d : durationsMillis) sum += d;
+
+        return new DwellTimeDTO(
+                status,
+                count,
+                sum / count / 1000.0,
+                percentile(durationsMillis, 0.50),
+                percentile(durationsMillis, 0.90),
+                percentile(durationsMillis, 0.99),
+                durationsMillis.get(count - 1) / 1000.0);
+    }
+
+    // Percentil pelo método "nearest rank" sobre a lista já ordenada (em ms), retornado em segundos
+    private static double percentile(List<Long> sortedMillis, double p) {
+        int index = (int) Math.ceil(p * sortedMillis.size()) - 1;
+        return sortedMillis.get(Math.max(index, 0)) / 1000.0;
+    }
+}
@@ -0,0 +1,148 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.config.TenantContext;
+import com.ibeus.Comanda.Digital.dto.PrepItemDTO;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.event.CacheInvalidationEvent;
+import com.ibeus.Comanda.Digital.event.EntityChangedEvent;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import com.ibeus.Comanda.Digital.repository.OrderRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lista de preparo da cozinha ("o que cozinhar agora"): soma das quantidades por prato
+ * em todos os pedidos RECEIVED e IN_PREPARATION.
+ * O agregado fica em memória e é atualizado incrementalmente a cada mudança de status,
+ * então a leitura não toca no banco. Cada entrada guarda o restaurante do prato (os ids
+ * são globais) e a leitura devolve só as do restaurante da requisição.
+ */
+@Service
+public class PrepListService {
+
+    // Status que contam como "trabalho pendente" para a cozinha
+    private static final Set<OrderStatus> ACTIVE_STATUSES = EnumSet.of(OrderStatus.RECEIVED, OrderStatus.IN_PREPARATION);
+
+    private final OrderRepository orderRepository;
+
+    // dishId -> quantidade pendente (contadores atômicos, sem lock global).
+    // O mapa nunca é trocado: a recarga corrige cada contador por delta (ver rebuild)
+    private final ConcurrentHashMap<Long, PrepEntry> entries = new ConcurrentHashMap<>();
+
+    // Outro nó alterou pedidos desde a última recarga
+    private volatile boolean stale;
+
+    public PrepListService(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    // --- RECONSTRUÇÃO (na subida e quando outro nó alterou pedidos) ---
+
+    /**
+     * Mesma reconciliação por época do InventoryService.reload: onStatusChanged não trava nada e pode
+     * rodar junto, então a recarga não sobrescreve quantity. Zera localDelta de cada prato antes da
+     * consulta (o que veio antes já está no banco), soma à quantidade a diferença entre o banco e a
+     * última recarga e desconta o delta da época; o que chegar durante a consulta continua contado.
+     * Um pedido que confirma bem no meio é corrigido na recarga seguinte.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Map<Long, Integer> epochDeltas = new HashMap<>();
+        entries.forEach((dishId, entry) -> epochDeltas.put(dishId, entry.localDelta.getAndSet(0)));
+
+        Set<Long> seen = new HashSet<>();
+        for (Object[] row : orderRepository.sumQuantityByDishForStatuses(List.copyOf(ACTIVE_STATUSES))) {
+            Long dishId = (Long) row[1];
+            seen.add(dishId);
+            reconcile(entries.computeIfAbsent(dishId, id -> new PrepEntry((String) row[0], (String) row[2])),
+                    ((Number) row[3]).intValue(), epochDeltas.getOrDefault(dishId, 0));
+        }
+
+        // Pratos que saíram da lista: no banco a quantidade é zero. A entrada fica (zerada, não aparece
+        // na leitura); removê-la perderia um delta somado a ela por um onStatusChanged concorrente
+        entries.forEach((dishId, entry) -> {
+            if (!seen.contains(dishId)) reconcile(entry, 0, epochDeltas.getOrDefault(dishId, 0));
+        });
+    }
+
+    private static void reconcile(PrepEntry entry, int base, int epochDelta) {
+        entry.quantity.addAndGet(base - entry.base - epochDelta);
+        entry.base = base;
+    }
+
+    // --- ATUALIZAÇÃO INCREMENTAL (somente após o commit da transação) ---
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        boolean wasActive = event.getFrom() != null && ACTIVE_STATUSES.contains(event.getFrom());
+        boolean isActive = ACTIVE_STATUSES.contains(event.getTo());
+
+        // Só entra/sai da lista quando cruza a fronteira "ativo" (ex: RECEIVED -> IN_PREPARATION não muda nada)
+        if (wasActive == isActive) return;
+
+        int sign = isActive ? 1 : -1;
+        for (OrderStatusChangedEvent.Item item : event.getItems()) {
+            PrepEntry entry = entries.computeIfAbsent(item.getDishId(),
+                    id -> new PrepEntry(event.getTenantId(), item.getDishName()));
+            entry.quantity.addAndGet(sign * item.getQuantity());
+            entry.localDelta.addAndGet(sign * item.getQuantity());
+        }
+    }
+
+    // Outro nó alterou pedidos: este agregado não viu os deltas e precisa recarregar do banco.
+    // Em horário de pico os avisos chegam a cada ciclo do ClusterInvalidationService; a recarga
+    // (agregação sobre todos os pedidos ativos) roda no máximo uma vez por refresh-interval.
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isRemote() && EntityChangedEvent.ORDER.equals(event.getEntity())) {
+            stale = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${comanda.prep-list.refresh-interval-ms:5000}")
+    public void refreshIfStale() {
+        if (stale) {
+            stale = false;
+            rebuild();
+        }
+    }
+
+    // --- LEITURA ---
+    public List<PrepItemDTO> getPrepList() {
+        String tenantId = TenantContext.current();
+        List<PrepItemDTO> list = new ArrayList<>();
+        entries.forEach((dishId, entry) -> {
+            int quantity = entry.quantity.get();
+            if (quantity > 0 && tenantId.equals(entry.tenantId)) {
+                list.add(new PrepItemDTO(dishId, entry.dishName, quantity));
+            }
+        });
+        return list;
+    }
+
+    private static class PrepEntry {
+        private final String tenantId;
+        private final String dishName;
+        private final AtomicInteger quantity = new AtomicInteger();
+        private final AtomicInteger localDelta = new AtomicInteger(); // entradas (+) e saídas (-) desde a última recarga
+        private int base; // quantidade no banco na última recarga; só alterado pela recarga (synchronized)
+
+        private PrepEntry(String tenantId, String dishName) {
+            this.tenantId = tenantId;
+            this.dishName = dishName;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.config.SlaProperties;
+import com.ibeus.Comanda.Digital.dto.PrepTimeStatsDTO;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estatísticas móveis do tempo de preparo por categoria de prato.
+ * Cada categoria guarda as últimas N amostras em um buffer circular (N = comanda.sla.stats-window-size).
+ */
+@Service
+public class PrepTimeStatsService {
+
+    private final int windowSize;
+    private final Map<String, RollingWindow> windows = new ConcurrentHashMap<>();
+
+    public PrepTimeStatsService(SlaProperties slaProperties) {
+        this.windowSize = slaProperties.getStatsWindowSize();
+    }
+
+    // Amostra o tempo entre a entrada em IN_PREPARATION e a chegada em READY
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getFrom() != OrderStatus.IN_PREPARATION || event.getTo() != OrderStatus.READY
+                || event.getPreviousStatusEnteredAt() == null) {
+            return;
+        }
+
+        long millis = Duration.between(event.getPreviousStatusEnteredAt(), event.getAt()).toMillis();
+
+        // Um pedido conta uma vez por categoria, mesmo com vários pratos da mesma categoria
+        Set<String> categories = new HashSet<>();
+        for (OrderStatusChangedEvent.Item item : event.getItems()) {
+            if (item.getCategory() != null) categories.add(item.getCategory());
+        }
+        for (String category : categories) {
+            windows.computeIfAbsent(category, c -> new RollingWindow(windowSize)).add(millis);
+        }
+    }
+
+    public List<PrepTimeStatsDTO> getStats() {
+        List<PrepTimeStatsDTO> list = new ArrayList<>();
+        windows.forEach((category, window) -> {
+            long[] sorted = window.sortedSnapshot();
+            if (sorted.length == 0) return;
+            list.add(new PrepTimeStatsDTO(category, sorted.length,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.95)));
+        });
+        return list;
+    }
+
+    private static double percentile(long[] sortedMillis, double p) {
+        int index = (int) Math.ceil(p * sortedMillis.length) - 1;
+        return sortedMillis[Math.max(index, 0)] / 1000.0;
+    }
+
+    // Buffer circular de tamanho fixo: memória constante por categoria
+    private static class RollingWindow {
+        private final long[] samples;
+        private int next;
+        private int size;
+
+        private RollingWindow(int capacity) {
+            this.samples = new long[capacity];
+        }
+
+        private synchronized void add(long value) {
+            samples[next] = value;
+            next = (next + 1) % samples.length;
+            if (size < samples.length) size++;
+        }
+
+        private synchronized long[] sortedSnapshot() {
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
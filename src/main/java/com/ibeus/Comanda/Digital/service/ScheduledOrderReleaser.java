@@ -0,0 +1,52 @@
+package com.ibeus.Comanda.Digital.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Libera os pedidos agendados (SCHEDULED) para a cozinha quando chega o release_at
+ * (horário pedido - tempo de preparo - margem). Cada lote é uma transação curta; em vários
+ * nós, o conflito de versão faz o nó que perdeu reler e não encontrar mais o pedido.
+ */
+@Service
+public class ScheduledOrderReleaser {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledOrderReleaser.class);
+
+    private final OrderService orderService;
+    private final int batchSize;
+    private final Counter released;
+
+    public ScheduledOrderReleaser(OrderService orderService,
+                                  @Value("${comanda.slots.release-batch-size:200}") int batchSize,
+                                  MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.batchSize = batchSize;
+        this.released = Counter.builder("comanda.slots.released")
+                .description("Pedidos agendados liberados para a cozinha")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${comanda.slots.release-interval-ms:30000}")
+    public void release() {
+        Instant now = Instant.now();
+        int total = 0;
+        int count;
+        do {
+            count = orderService.releaseDueScheduled(now, batchSize);
+            total += count;
+        } while (count == batchSize);
+
+        if (total > 0) {
+            released.increment(total);
+            log.info("{} pedido(s) agendado(s) liberado(s) para a cozinha", total);
+        }
+    }
+}
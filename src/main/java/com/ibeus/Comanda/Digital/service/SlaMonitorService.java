@@ -0,0 +1,45 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.config.SlaProperties;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Monitor de SLA: de tempos em tempos marca como "late" os pedidos que estão há mais tempo
+ * do que o permitido no status atual. Cada status configurado custa um único UPDATE guiado
+ * pelo índice (status, late, status_entered_at), então o custo não cresce com o histórico.
+ */
+@Service
+public class SlaMonitorService {
+
+    private static final Logger log = LoggerFactory.getLogger(SlaMonitorService.class);
+
+    private final OrderRepository orderRepository;
+    private final SlaProperties slaProperties;
+
+    public SlaMonitorService(OrderRepository orderRepository, SlaProperties slaProperties) {
+        this.orderRepository = orderRepository;
+        this.slaProperties = slaProperties;
+    }
+
+    @Scheduled(fixedDelayString = "${comanda.sla.scan-interval-ms:30000}")
+    @Transactional
+    public void scan() {
+        Instant now = Instant.now();
+        for (Map.Entry<OrderStatus, Duration> entry : slaProperties.getThresholds().entrySet()) {
+            int flagged = orderRepository.flagLate(entry.getKey(), now.minus(entry.getValue()));
+            if (flagged > 0) {
+                log.warn("{} pedido(s) excederam o SLA de {} no status {}", flagged, entry.getValue(), entry.getKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.model.Dish;
+import com.ibeus.Comanda.Digital.model.Order;
+import com.ibeus.Comanda.Digital.model.OrderItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Capacidade da cozinha por horário (slot) para os pedidos agendados.
+ *
+ * O tempo é dividido em slots de tamanho fixo; cada slot de cada restaurante tem um contador
+ * atômico com os minutos de preparo já comprometidos (quantidade x tempo de preparo do prato).
+ * Verificar e reservar é um CAS nesse contador: O(1) e sem lock, e recusa cedo um horário lotado.
+ * O valor reservado fica gravado no pedido (slot_minutes) e é o que volta na liberação.
+ *
+ * Os contadores são deste nó; quem garante a capacidade com vários nós é a tabela slot_load,
+ * incrementada antes do commit com "used_minutes + n <= capacidade" (409 se outro nó lotou o slot).
+ * A recarga periódica reconcilia os contadores com slot_load por delta, sem perder as reservas
+ * feitas durante a leitura, e descarta os slots que já passaram.
+ */
+@Service
+public class SlotAllocator {
+
+    private static final String LOAD_SQL =
+            "SELECT tenant_id, slot_start, used_minutes FROM slot_load WHERE slot_start >= ?";
+
+    // Cria a linha do slot já com lock exclusivo (um INSERT IGNORE pegaria lock compartilhado
+    // e duas reservas simultâneas travariam uma à outra no UPDATE seguinte)
+    private static final String ENSURE_SLOT_SQL =
+            "INSERT INTO slot_load (tenant_id, slot_start, used_minutes) VALUES (?, ?, 0) " +
+            "ON DUPLICATE KEY UPDATE used_minutes = used_minutes";
+
+    // 0 linhas = a reserva estouraria a capacidade do slot
+    private static final String RESERVE_SQL =
+            "UPDATE slot_load SET used_minutes = used_minutes + ? " +
+            "WHERE tenant_id = ? AND slot_start = ? AND used_minutes + ? <= ?";
+
+    private static final String RELEASE_SQL =
+            "UPDATE slot_load SET used_minutes = GREATEST(used_minutes - ?, 0) WHERE tenant_id = ? AND slot_start = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long slotSeconds;
+    private final int capacityMinutes;
+    private final int defaultPrepMinutes;
+    private final Duration minLeadTime;
+    private final Duration horizon;
+    private final Duration releaseMargin;
+    private final Counter rejected;
+
+    // (restaurante, slot) -> minutos de preparo comprometidos
+    private final ConcurrentHashMap<SlotKey, Slot> load = new ConcurrentHashMap<>();
+
+    public SlotAllocator(JdbcTemplate jdbcTemplate,
+                         @Value("${comanda.slots.length:15m}") Duration slotLength,
+                         @Value("${comanda.slots.capacity-minutes:120}") int capacityMinutes,
+                         @Value("${comanda.slots.default-prep-minutes:15}") int defaultPrepMinutes,
+                         @Value("${comanda.slots.min-lead-time:30m}") Duration minLeadTime,
+                         @Value("${comanda.slots.horizon:7d}") Duration horizon,
+                         @Value("${comanda.slots.release-margin:10m}") Duration releaseMargin,
+                         MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.slotSeconds = slotLength.getSeconds();
+        this.capacityMinutes = capacityMinutes;
+        this.defaultPrepMinutes = defaultPrepMinutes;
+        this.minLeadTime = minLeadTime;
+        this.horizon = horizon;
+        this.releaseMargin = releaseMargin;
+        this.rejected = Counter.builder("comanda.slots.rejected")
+                .description("Agendamentos recusados por falta de capacidade no horário")
+                .register(meterRegistry);
+    }
+
+    // --- VALIDAÇÃO E CÁLCULOS ---
+
+    // Alinha o horário pedido ao início do slot e verifica se está dentro da janela de agendamento
+    public Instant normalize(Instant requested) {
+        Instant slot = Instant.ofEpochSecond(Math.floorDiv(requested.getEpochSecond(), slotSeconds) * slotSeconds);
+        Instant now = Instant.now();
+        if (slot.isBefore(now.plus(minLeadTime))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "O horário agendado deve ser pelo menos " + minLeadTime.toMinutes() + " minutos no futuro.");
+        }
+        if (slot.isAfter(now.plus(horizon))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "O horário agendado deve estar nos próximos " + horizon.toDays() + " dias.");
+        }
+        return slot;
+    }
+
+    // O pedido ocupa capacidade do slot enquanto não for rascunho nem cancelado
+    public static boolean holdsSlot(Order order, OrderStatus status) {
+        return order.getRequestedSlot() != null && status != null
+                && status != OrderStatus.DRAFT && status != OrderStatus.CANCELED;
+    }
+
+    // Os pratos são preparados em paralelo: o pedido vai para a cozinha a tempo do mais demorado
+    public Instant releaseAt(Order order) {
+        int longest = 0;
+        for (OrderItem item : order.getItems()) {
+            longest = Math.max(longest, prepMinutes(item.getDish()));
+        }
+        return order.getRequestedSlot().minus(Duration.ofMinutes(longest)).minus(releaseMargin);
+    }
+
+    private int weight(Order order) {
+        int minutes = 0;
+        for (OrderItem item : order.getItems()) {
+            minutes += item.getQuantity() * prepMinutes(item.getDish());
+        }
+        return minutes;
+    }
+
+    private int prepMinutes(Dish dish) {
+        return dish.getPrepMinutes() != null ? dish.getPrepMinutes() : defaultPrepMinutes;
+    }
+
+    // --- RESERVA ---
+
+    // Chamado dentro da transação do OrderService; 409 se o slot não comporta o pedido
+    public void reserve(Order order) {
+        int weight = weight(order);
+        SlotKey key = key(order);
+        Slot slot = load.computeIfAbsent(key, k -> new Slot());
+
+        int before;
+        do {
+            before = slot.used.get();
+            if (before + weight > capacityMinutes) {
+                throw full(order);
+            }
+        } while (!slot.used.compareAndSet(before, before + weight));
+        slot.localDelta.addAndGet(weight);
+        order.setSlotMinutes(weight);
+
+        String tenantId = order.getTenantId();
+        Timestamp start = Timestamp.from(order.getRequestedSlot());
+        onCompletion(TransactionSynchronization.STATUS_ROLLED_BACK, () -> slot.add(-weight));
+        beforeCommit(() -> {
+            jdbcTemplate.update(ENSURE_SLOT_SQL, tenantId, start);
+            if (jdbcTemplate.update(RESERVE_SQL, weight, tenantId, start, weight, capacityMinutes) == 0) {
+                throw full(order);
+            }
+        });
+    }
+
+    // Pedido saiu do slot (cancelado ou voltou a ser rascunho): devolve os minutos reservados
+    public void release(Order order) {
+        Integer weight = order.getSlotMinutes();
+        if (weight == null) return;
+        SlotKey key = key(order);
+        String tenantId = order.getTenantId();
+        Timestamp start = Timestamp.from(order.getRequestedSlot());
+        order.setSlotMinutes(null);
+
+        beforeCommit(() -> jdbcTemplate.update(RELEASE_SQL, weight, tenantId, start));
+        onCompletion(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            Slot slot = load.get(key);
+            if (slot != null) slot.add(-weight);
+        });
+    }
+
+    private ResponseStatusException full(Order order) {
+        rejected.increment();
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "Cozinha sem capacidade para o horário " + order.getRequestedSlot() + ". Escolha outro horário.");
+    }
+
+    // --- RECARGA ---
+
+    /**
+     * Na subida e periodicamente: incorpora as reservas de outros nós e descarta os slots passados.
+     * Por delta, como no InventoryService: localDelta abre a época; o que for reservado durante
+     * a leitura continua contado.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${comanda.slots.reconcile-interval-ms:300000}",
+               fixedDelayString = "${comanda.slots.reconcile-interval-ms:300000}")
+    public synchronized void reload() {
+        // Só slots a partir do atual
+        long currentBucket = Math.floorDiv(Instant.now().getEpochSecond(), slotSeconds);
+        Timestamp from = Timestamp.from(Instant.ofEpochSecond(currentBucket * slotSeconds));
+
+        Map<SlotKey, Integer> epochDeltas = new HashMap<>();
+        load.forEach((key, slot) -> epochDeltas.put(key, slot.localDelta.getAndSet(0)));
+
+        Map<SlotKey, Integer> stored = new HashMap<>();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            Instant start = rs.getTimestamp(2).toInstant();
+            SlotKey key = new SlotKey(rs.getString(1), Math.floorDiv(start.getEpochSecond(), slotSeconds));
+            stored.merge(key, rs.getInt(3), Integer::sum);
+        }, from);
+
+        load.keySet().removeIf(key -> key.bucket < currentBucket);
+        stored.keySet().forEach(key -> load.computeIfAbsent(key, k -> new Slot()));
+        load.forEach((key, slot) -> {
+            int base = stored.getOrDefault(key, 0);
+            slot.used.addAndGet(base - slot.base - epochDeltas.getOrDefault(key, 0));
+            slot.base = base;
+        });
+
+        jdbcTemplate.update("DELETE FROM slot_load WHERE slot_start < ?", from);
+    }
+
+    // --- AUXILIARES ---
+
+    private SlotKey key(Order order) {
+        return new SlotKey(order.getTenantId(), Math.floorDiv(order.getRequestedSlot().getEpochSecond(), slotSeconds));
+    }
+
+    // Executa a ação no fim da transação corrente, se ela terminar com o status esperado
+    private static void onCompletion(int expectedStatus, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (expectedStatus == TransactionSynchronization.STATUS_COMMITTED) action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == expectedStatus) action.run();
+            }
+        });
+    }
+
+    // Executa a ação antes do commit da transação corrente (uma exceção desfaz a transação)
+    private static void beforeCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Slot {
+        private final AtomicInteger used = new AtomicInteger();
+        private final AtomicInteger localDelta = new AtomicInteger(); // reservas (+) e liberações (-) desde a última recarga
+        private int base; // slot_load na última recarga; só alterado pela recarga (synchronized)
+
+        private void add(int minutes) {
+            used.addAndGet(minutes);
+            localDelta.addAndGet(minutes);
+        }
+    }
+
+    private static final class SlotKey {
+        private final String tenantId;
+        private final long bucket;
+
+        private SlotKey(String tenantId, long bucket) {
+            this.tenantId = tenantId;
+            this.bucket = bucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SlotKey other)) return false;
+            return bucket == other.bucket && Objects.equals(tenantId, other.tenantId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(tenantId) + Long.hashCode(bucket);
+        }
+    }
+}
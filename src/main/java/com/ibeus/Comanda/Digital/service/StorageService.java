@@ -1,5 +1,6 @@
 package com.ibeus.Comanda.Digital.service;
 
+import com.ibeus.Comanda.Digital.event.StorageWriteJfrEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.HttpStatus;
@@ -23,6 +24,9 @@ public class StorageService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O arquivo está vazio.");
         }
 
+        // Evento do Flight Recorder: quanto tempo a requisição passou gravando no disco
+        StorageWriteJfrEvent event = new StorageWriteJfrEvent();
+        event.begin();
         try {
             if (!Files.exists(UPLOAD_PATH)) {
                 Files.createDirectories(UPLOAD_PATH);
@@ -37,12 +41,16 @@ public class StorageService {
 
             String uniqueFilename = UUID.randomUUID().toString() + extension;
             Path filePath = UPLOAD_PATH.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            event.path = filePath.toString();
+            event.bytes = Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            event.succeeded = true;
 
             return "/images/" + uniqueFilename;
 
         } catch (IOException e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Falha ao salvar arquivo", e);
+        } finally {
+            event.commit();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.ibeus.Comanda.Digital.service;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destino dos tickets ESC/POS. Recebe um lote de tickets já renderizados para uma impressora;
+ * qualquer IOException faz o lote voltar para o spool e ser tentado de novo.
+ */
+public interface TicketPrinter {
+
+    void print(String printer, List<byte[]> tickets) throws IOException;
+}
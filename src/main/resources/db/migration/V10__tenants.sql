@@ -0,0 +1,16 @@
+-- Vários restaurantes (tenants) na mesma base. Os dados existentes pertencem ao restaurante "default".
+
+alter table address add column tenant_id varchar(64) default 'default' not null;
+alter table client add column tenant_id varchar(64) default 'default' not null;
+alter table dishes add column tenant_id varchar(64) default 'default' not null;
+alter table tb_order add column tenant_id varchar(64) default 'default' not null;
+
+create index idx_address_tenant on address (tenant_id);
+create index idx_client_tenant on client (tenant_id);
+
+create index idx_dish_tenant_category on dishes (tenant_id, category);
+create index idx_dish_tenant_favorite on dishes (tenant_id, favorite);
+create index idx_dish_tenant_name on dishes (tenant_id, name);
+
+create index idx_order_tenant_status on tb_order (tenant_id, status, status_entered_at);
+create index idx_order_tenant_moment on tb_order (tenant_id, moment);
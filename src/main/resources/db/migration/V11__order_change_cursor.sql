@@ -0,0 +1,19 @@
+-- Cursor de GET /orders/changes: (updated_at, id) mantido pelo próprio MySQL em qualquer UPDATE do pedido
+-- (inclusive os em massa, como o flagLate do monitor de SLA).
+
+alter table tb_order
+    add column updated_at timestamp(6) not null default current_timestamp(6) on update current_timestamp(6);
+-- Pedidos existentes: última atividade conhecida, em vez de todos com o horário desta migração
+update tb_order set updated_at = coalesce(last_activity_at, status_entered_at, moment, updated_at);
+
+create index idx_order_tenant_updated on tb_order (tenant_id, updated_at, id);
+
+-- Rascunhos apagados pela limpeza: as telas precisam saber que o pedido sumiu
+create table order_tombstone (
+    order_id bigint not null,
+    tenant_id varchar(64) not null,
+    deleted_at timestamp(6) not null default current_timestamp(6),
+    primary key (order_id)
+) engine=InnoDB;
+
+create index idx_order_tombstone_tenant on order_tombstone (tenant_id, deleted_at, order_id);
@@ -0,0 +1,3 @@
+-- Estoque dos pratos; null = sem controle de estoque (pratos existentes)
+
+alter table dishes add column stock integer;
@@ -0,0 +1,31 @@
+-- Pedidos agendados por slot, com a capacidade de cada (restaurante, slot) garantida no banco:
+-- os contadores em memória são de cada nó, e sozinhos deixariam N nós lotarem o mesmo horário N vezes.
+-- Nenhum pedido existente é agendado, então não há reservas a migrar.
+
+alter table tb_order modify column status
+    enum ('DRAFT','SCHEDULED','RECEIVED','IN_PREPARATION','READY','ON_THE_WAY','DELIVERED','CANCELED');
+alter table order_status_event
+    modify column from_status
+        enum ('DRAFT','SCHEDULED','RECEIVED','IN_PREPARATION','READY','ON_THE_WAY','DELIVERED','CANCELED'),
+    modify column to_status
+        enum ('DRAFT','SCHEDULED','RECEIVED','IN_PREPARATION','READY','ON_THE_WAY','DELIVERED','CANCELED') not null;
+
+-- Tempo de preparo do prato; null = comanda.slots.default-prep-minutes
+alter table dishes add column prep_minutes integer;
+
+-- Horário pedido (início do slot), liberação para a cozinha e minutos reservados no slot
+-- (gravados na reserva: a liberação devolve exatamente esse valor). null = não ocupa slot.
+alter table tb_order
+    add column requested_slot timestamp(6) null,
+    add column release_at timestamp(6) null,
+    add column slot_minutes int null;
+
+create index idx_order_status_release on tb_order (status, release_at);
+
+-- Minutos comprometidos por (restaurante, slot); incrementado com "used_minutes + n <= capacidade"
+create table slot_load (
+    tenant_id varchar(64) not null,
+    slot_start timestamp(6) not null,
+    used_minutes int not null,
+    primary key (tenant_id, slot_start)
+) engine=InnoDB;
@@ -0,0 +1,61 @@
+-- Schema da versão publicada antes do Flyway: o que o ddl-auto=update criava para Address, Client,
+-- Dish, Order e OrderItem (ids IDENTITY, sem restaurante, sem versão). Não mudar este arquivo:
+-- bancos que já existiam recebem esta versão como baseline (spring.flyway.baseline-on-migrate)
+-- e só executam as migrações seguintes, que por isso não dependem dos nomes das constraints
+-- (o Hibernate gerava nomes próprios, diferentes dos daqui).
+
+create table address (
+    id bigint not null auto_increment,
+    cep varchar(255),
+    logradouro varchar(255),
+    bairro varchar(255),
+    localidade varchar(255),
+    uf varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table client (
+    id bigint not null auto_increment,
+    cpf varchar(255),
+    name varchar(255),
+    mid_name varchar(255),
+    address_id bigint,
+    address_number integer not null,
+    complement varchar(255),
+    primary key (id),
+    constraint uk_client_address unique (address_id),
+    constraint fk_client_address foreign key (address_id) references address (id)
+) engine=InnoDB;
+
+create table dishes (
+    id bigint not null auto_increment,
+    url_image varchar(255),
+    name varchar(255),
+    category varchar(255),
+    description varchar(255),
+    price float(53),
+    favorite bit not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table tb_order (
+    id bigint not null auto_increment,
+    moment timestamp(6) null,
+    status enum ('DRAFT','RECEIVED','IN_PREPARATION','READY','ON_THE_WAY','DELIVERED','CANCELED'),
+    client_id bigint,
+    client_snapshot_name varchar(255),
+    address_snapshot varchar(255),
+    primary key (id),
+    constraint fk_order_client foreign key (client_id) references client (id)
+) engine=InnoDB;
+
+create table order_item (
+    id bigint not null auto_increment,
+    quantity integer,
+    price float(53),
+    order_id bigint,
+    dish_id bigint,
+    primary key (id),
+    constraint fk_order_item_order foreign key (order_id) references tb_order (id),
+    constraint fk_order_item_dish foreign key (dish_id) references dishes (id)
+) engine=InnoDB;
@@ -0,0 +1,13 @@
+-- Histórico de mudanças de status dos pedidos (só inclusão, gravado em lote)
+
+create table order_status_event (
+    id bigint not null auto_increment,
+    order_id bigint not null,
+    from_status enum ('DRAFT','RECEIVED','IN_PREPARATION','READY','ON_THE_WAY','DELIVERED','CANCELED'),
+    to_status enum ('DRAFT','RECEIVED','IN_PREPARATION','READY','ON_THE_WAY','DELIVERED','CANCELED') not null,
+    moment timestamp(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_status_event_order on order_status_event (order_id, moment);
+create index idx_status_event_moment on order_status_event (moment);
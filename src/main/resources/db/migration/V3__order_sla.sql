@@ -0,0 +1,8 @@
+-- Monitor de SLA: entrada no status atual e marcação de atraso.
+-- Pedidos antigos ficam com status_entered_at nulo e não são marcados como atrasados.
+
+alter table tb_order
+    add column status_entered_at timestamp(6) null,
+    add column late bit not null default 0;
+
+create index idx_order_status_late_entered on tb_order (status, late, status_entered_at);
@@ -0,0 +1,6 @@
+-- Endereço congelado em campos (agrupamento das entregas por bairro). Pedidos antigos só têm o address_snapshot.
+
+alter table tb_order
+    add column snapshot_cep varchar(255),
+    add column snapshot_bairro varchar(255),
+    add column snapshot_localidade varchar(255);
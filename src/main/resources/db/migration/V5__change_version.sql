@@ -0,0 +1,7 @@
+-- Versões por entidade alterada: os outros nós consultam para invalidar os caches em memória
+
+create table change_version (
+    entity varchar(64) not null,
+    version bigint not null,
+    primary key (entity)
+) engine=InnoDB;
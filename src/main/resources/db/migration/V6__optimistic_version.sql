@@ -0,0 +1,4 @@
+-- Controle de concorrência otimista (@Version) em pedidos e itens; linhas existentes começam na versão 0
+
+alter table tb_order add column version bigint not null default 0;
+alter table order_item add column version bigint not null default 0;
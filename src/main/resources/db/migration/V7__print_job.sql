@@ -0,0 +1,20 @@
+-- Spool das comandas da cozinha, gravado na mesma transação do pedido
+
+create table print_job (
+    id bigint not null auto_increment,
+    order_id bigint,
+    printer varchar(255),
+    payload longblob,
+    status enum ('PENDING','PRINTED','FAILED'),
+    attempts integer not null,
+    created_at timestamp(6) null,
+    next_attempt_at timestamp(6) null,
+    printed_at timestamp(6) null,
+    last_error varchar(255),
+    claim_token varchar(36),
+    claimed_until timestamp(6) null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_print_job_status_next on print_job (status, next_attempt_at);
+create index idx_print_job_claim on print_job (claim_token);
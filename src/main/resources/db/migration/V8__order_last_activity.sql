@@ -0,0 +1,6 @@
+-- Limpeza de rascunhos abandonados. Rascunhos antigos ficam com last_activity_at nulo:
+-- a limpeza usa o moment deles.
+
+alter table tb_order add column last_activity_at timestamp(6) null;
+
+create index idx_order_status_activity on tb_order (status, last_activity_at);
@@ -0,0 +1,14 @@
+-- Sequências "pooled" de Order, OrderItem e Dish (allocationSize = 50), emuladas em tabelas de uma linha.
+-- Em bancos que já tinham ids (IDENTITY) o valor é empurrado para além do maior id existente:
+-- o otimizador pooled usa next_val como topo do bloco, então MAX(id) + 50 + 1 nunca colide.
+-- As colunas id continuam auto_increment (mudar exigiria desligar as chaves estrangeiras); o Hibernate
+-- sempre informa o id no INSERT, e o MySQL só acompanha o maior valor.
+
+create table tb_order_seq (next_val bigint) engine=InnoDB;
+insert into tb_order_seq (next_val) select coalesce(max(id), 0) + 51 from tb_order;
+
+create table order_item_seq (next_val bigint) engine=InnoDB;
+insert into order_item_seq (next_val) select coalesce(max(id), 0) + 51 from order_item;
+
+create table dishes_seq (next_val bigint) engine=InnoDB;
+insert into dishes_seq (next_val) select coalesce(max(id), 0) + 51 from dishes;
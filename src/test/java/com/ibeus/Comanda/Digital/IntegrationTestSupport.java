@@ -0,0 +1,85 @@
+package com.ibeus.Comanda.Digital;
+
+import com.ibeus.Comanda.Digital.config.TenantContext;
+import com.ibeus.Comanda.Digital.model.Address;
+import com.ibeus.Comanda.Digital.model.Client;
+import com.ibeus.Comanda.Digital.repository.ClientRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base dos testes de integração (*IT): um MySQL em container, compartilhado por toda a JVM,
+ * e "nós" da aplicação apontando para ele, como numa instalação com vários servidores.
+ * Os testes usam dados próprios (nomes únicos), então podem rodar na mesma base.
+ */
+public final class IntegrationTestSupport {
+
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>(DockerImageName.parse("mysql:8.0"))
+            .withDatabaseName("comanda_digital")
+            .withUrlParam("rewriteBatchedStatements", "true");
+
+    private IntegrationTestSupport() {
+    }
+
+    public static synchronized MySQLContainer<?> mysql() {
+        if (!MYSQL.isRunning()) {
+            MYSQL.start();
+        }
+        return MYSQL;
+    }
+
+    /**
+     * Sobe um nó completo (porta aleatória) sobre o MySQL do container.
+     * Propriedades extras no formato "chave=valor" substituem as padrão daqui (inclusive a URL do banco)
+     * e têm precedência sobre o application.properties.
+     */
+    public static ConfigurableApplicationContext startNode(String... properties) {
+        MySQLContainer<?> mysql = mysql();
+
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("spring.datasource.url", mysql.getJdbcUrl());
+        values.put("spring.datasource.username", mysql.getUsername());
+        values.put("spring.datasource.password", mysql.getPassword());
+        values.put("server.port", "0");
+        values.put("spring.jpa.show-sql", "false");
+        values.put("spring.devtools.restart.enabled", "false");
+        values.put("comanda.flight-recorder.enabled", "false");
+        values.put("comanda.tickets.directory", "target/it-tickets");
+        // A mesma chave repetida na linha de comando viraria "a,b": cada uma aparece uma vez só
+        for (String property : properties) {
+            int separator = property.indexOf('=');
+            values.put(property.substring(0, separator), property.substring(separator + 1));
+        }
+
+        List<String> args = new ArrayList<>();
+        values.forEach((key, value) -> args.add("--" + key + "=" + value));
+        return new SpringApplicationBuilder(ComandaDigitalApplication.class).run(args.toArray(String[]::new));
+    }
+
+    // Cliente padrão do restaurante "default" (com endereço), exigido para criar e finalizar pedidos
+    public static Client ensureDefaultClient(ConfigurableApplicationContext node) {
+        ClientRepository clientRepository = node.getBean(ClientRepository.class);
+        return clientRepository.findFirstByTenantIdOrderByIdAsc(TenantContext.DEFAULT).orElseGet(() -> {
+            Address address = new Address();
+            address.setCep("01001-000");
+            address.setLogradouro("Praça da Sé");
+            address.setBairro("Sé");
+            address.setLocalidade("São Paulo");
+            address.setUf("SP");
+
+            Client client = new Client();
+            client.setName("Cliente de Teste");
+            client.setCpf("00000000000");
+            client.setAddress(address);
+            client.setAddressNumber(100);
+            return clientRepository.save(client);
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package com.ibeus.Comanda.Digital;
+
+import com.ibeus.Comanda.Digital.dto.OrderDTO;
+import com.ibeus.Comanda.Digital.dto.OrderItemInputDTO;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.model.Dish;
+import com.ibeus.Comanda.Digital.repository.DishRepository;
+import com.ibeus.Comanda.Digital.service.MenuSnapshotService;
+import com.ibeus.Comanda.Digital.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Atualização de uma instalação anterior ao Flyway: um banco criado pelo ddl-auto=update da versão
+ * publicada (db/pre-flyway-baseline.sql, com dados) recebe a V1 como baseline e executa as migrações
+ * seguintes. A aplicação sobe com ddl-auto=validate sobre o resultado e continua usando os dados antigos.
+ * Roda numa base própria do container, separada da que os outros *IT criam do zero.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SchemaUpgradeIT {
+
+    private static final String DATABASE = "comanda_upgrade";
+
+    @Test
+    void baselineDatabaseIsMigratedAndKeepsItsData() throws Exception {
+        MySQLContainer<?> mysql = IntegrationTestSupport.mysql();
+        String url = mysql.getJdbcUrl().replace("/" + mysql.getDatabaseName(), "/" + DATABASE);
+
+        // O usuário do container só tem acesso à base padrão: cria a da versão antiga como root
+        try (Connection root = DriverManager.getConnection(mysql.getJdbcUrl(), "root", mysql.getPassword());
+             Statement statement = root.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + DATABASE);
+            statement.execute("CREATE DATABASE " + DATABASE);
+        }
+        try (Connection connection = DriverManager.getConnection(url, "root", mysql.getPassword())) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/pre-flyway-baseline.sql"));
+        }
+
+        try (ConfigurableApplicationContext node = IntegrationTestSupport.startNode(
+                "spring.datasource.url=" + url,
+                "spring.datasource.username=root")) {
+            JdbcTemplate jdbc = node.getBean(JdbcTemplate.class);
+
+            // Baseline na V1 (não executada) e todas as demais aplicadas sem falha
+            assertThat(jdbc.queryForObject("SELECT type FROM flyway_schema_history WHERE version = '1'", String.class))
+                    .isEqualTo("BASELINE");
+            assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM flyway_schema_history WHERE type = 'SQL'", Integer.class))
+                    .isGreaterThan(0);
+            assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM flyway_schema_history WHERE NOT success", Integer.class))
+                    .isZero();
+
+            // Dados antigos ficam no restaurante "default"
+            OrderService orderService = node.getBean(OrderService.class);
+            OrderDTO delivered = orderService.findById(7L);
+            assertThat(delivered.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+            assertThat(delivered.getItems()).hasSize(2);
+            assertThat(delivered.getTotal()).isEqualTo(98.0);
+            assertThat(node.getBean(MenuSnapshotService.class).current().getDish(40L)).isNotNull();
+
+            // Ids novos das sequências pooled passam dos que o IDENTITY já tinha usado
+            Dish dish = new Dish();
+            dish.setName("Pizza Portuguesa");
+            dish.setCategory("Pizzas");
+            dish.setPrice(50.0);
+            assertThat(node.getBean(DishRepository.class).save(dish).getId()).isGreaterThan(40L);
+
+            // O rascunho antigo continua editável (version = 0) e um pedido novo usa o cliente existente
+            OrderItemInputDTO item = new OrderItemInputDTO();
+            item.setDishId(1L);
+            item.setQuantity(1);
+            orderService.addItemToOrder(8L, item);
+            assertThat(orderService.findById(8L).getItems()).hasSize(2);
+
+            OrderDTO draft = orderService.create(new OrderDTO());
+            assertThat(draft.getId()).isGreaterThan(8L);
+            assertThat(draft.getClientId()).isEqualTo(1L);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ibeus.Comanda.Digital.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdminTokenInterceptorTest {
+
+    @Test
+    void withoutConfiguredTokenAdminRoutesAreOff() {
+        AdminTokenInterceptor interceptor = new AdminTokenInterceptor("");
+
+        assertRejected(interceptor, request("qualquer"), HttpStatus.NOT_FOUND);
+        assertRejected(interceptor, request(null), HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void onlyTheConfiguredTokenPasses() {
+        AdminTokenInterceptor interceptor = new AdminTokenInterceptor("s3gredo");
+
+        assertRejected(interceptor, request(null), HttpStatus.FORBIDDEN);
+        assertRejected(interceptor, request("s3gred"), HttpStatus.FORBIDDEN);
+        assertThat(interceptor.preHandle(request("s3gredo"), new MockHttpServletResponse(), null)).isTrue();
+    }
+
+    private static void assertRejected(AdminTokenInterceptor interceptor, MockHttpServletRequest request, HttpStatus status) {
+        assertThatThrownBy(() -> interceptor.preHandle(request, new MockHttpServletResponse(), null))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(status));
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/admin/flight-recording");
+        if (token != null) request.addHeader(AdminTokenInterceptor.HEADER, token);
+        return request;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ibeus.Comanda.Digital.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkheadTest {
+
+    @Test
+    void limitsConcurrencyWithoutQueue() {
+        Bulkhead bulkhead = new Bulkhead(2, 0, Duration.ZERO);
+
+        assertThat(bulkhead.tryEnter()).isTrue();
+        assertThat(bulkhead.tryEnter()).isTrue();
+        assertThat(bulkhead.tryEnter()).isFalse();
+        assertThat(bulkhead.inFlight()).isEqualTo(2);
+
+        bulkhead.exit();
+        assertThat(bulkhead.inFlight()).isEqualTo(1);
+        assertThat(bulkhead.tryEnter()).isTrue();
+    }
+
+    @Test
+    void queuedRequestEntersWhenAPermitIsReleased() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 1, Duration.ofSeconds(5));
+        assertThat(bulkhead.tryEnter()).isTrue();
+
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(bulkhead::tryEnter);
+        waitUntilWaiting(bulkhead, 1);
+
+        bulkhead.exit();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(bulkhead.waiting()).isZero();
+        assertThat(bulkhead.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 1, Duration.ofSeconds(5));
+        assertThat(bulkhead.tryEnter()).isTrue();
+
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(bulkhead::tryEnter);
+        waitUntilWaiting(bulkhead, 1);
+
+        assertThat(bulkhead.tryEnter()).isFalse(); // fila de 1 já ocupada
+        assertThat(bulkhead.waiting()).isEqualTo(1);
+
+        bulkhead.exit();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void rejectsAfterQueueTimeout() {
+        Bulkhead bulkhead = new Bulkhead(1, 5, Duration.ofMillis(50));
+        assertThat(bulkhead.tryEnter()).isTrue();
+
+        long start = System.nanoTime();
+        assertThat(bulkhead.tryEnter()).isFalse();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(40));
+        assertThat(bulkhead.waiting()).isZero();
+    }
+
+    private static void waitUntilWaiting(Bulkhead bulkhead, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bulkhead.waiting() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(bulkhead.waiting()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,148 @@
+package com.ibeus.Comanda.Digital.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.ibeus.Comanda.Digital.dto.DishDTO;
+import com.ibeus.Comanda.Digital.dto.OrderDTO;
+import com.ibeus.Comanda.Digital.dto.OrderItemDTO;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Medição simples (sem JMH) de bytes e CPU para as duas respostas mais pesadas:
+ * cardápio com 200 pratos e quadro com 500 pedidos, em JSON, CBOR e Smile, com e sem Blackbird.
+ * Os números vão para a saída padrão; só o tamanho e a equivalência das saídas são verificados,
+ * porque tempo de CPU varia demais entre máquinas de CI.
+ */
+class SerializationFootprintTest {
+
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 500;
+
+    @Test
+    void menuWith200Dishes() throws IOException {
+        List<DishDTO> menu = menu(200);
+
+        Footprint json = measure("menu", "json", new JsonFactory(), false, menu);
+        Footprint cbor = measure("menu", "cbor", new CBORFactory(), false, menu);
+        Footprint smile = measure("menu", "smile", new SmileFactory(), false, menu);
+        Footprint jsonBlackbird = measure("menu", "json", new JsonFactory(), true, menu);
+
+        assertThat(cbor.bytes).isLessThan(json.bytes);
+        assertThat(smile.bytes).isLessThan(json.bytes);
+        assertThat(jsonBlackbird.bytes).isEqualTo(json.bytes);
+    }
+
+    @Test
+    void boardWith500Orders() throws IOException {
+        List<OrderDTO> board = board(500);
+
+        Footprint json = measure("board", "json", new JsonFactory(), false, board);
+        Footprint cbor = measure("board", "cbor", new CBORFactory(), false, board);
+        Footprint smile = measure("board", "smile", new SmileFactory(), false, board);
+        Footprint jsonBlackbird = measure("board", "json", new JsonFactory(), true, board);
+        measure("board", "cbor", new CBORFactory(), true, board);
+        measure("board", "smile", new SmileFactory(), true, board);
+
+        assertThat(cbor.bytes).isLessThan(json.bytes);
+        assertThat(smile.bytes).isLessThan(json.bytes);
+        assertThat(jsonBlackbird.bytes).isEqualTo(json.bytes);
+    }
+
+    // Mesma montagem do SerializationConfig: builder do Spring (JavaTimeModule, datas ISO) + fábrica do formato
+    private static ObjectMapper mapper(JsonFactory factory, boolean blackbird) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().factory(factory);
+        if (blackbird) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        return builder.build();
+    }
+
+    private static Footprint measure(String payload, String format, JsonFactory factory, boolean blackbird, Object value) throws IOException {
+        ObjectMapper mapper = mapper(factory, blackbird);
+        byte[] body = mapper.writeValueAsBytes(value);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        long wallStart = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        long cpuMicros = (threads.getCurrentThreadCpuTime() - cpuStart) / MEASURED_ROUNDS / 1000;
+        long wallMicros = (System.nanoTime() - wallStart) / MEASURED_ROUNDS / 1000;
+
+        Footprint footprint = new Footprint(body.length, gzip(body).length);
+        System.out.printf("%-5s %-5s blackbird=%-5s bytes=%8d gzip=%7d cpu=%6dus wall=%6dus%n",
+                payload, format, blackbird, footprint.bytes, footprint.gzipBytes, cpuMicros, wallMicros);
+        return footprint;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<DishDTO> menu(int size) {
+        List<DishDTO> dishes = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            dishes.add(new DishDTO((long) i, "/images/dish-" + i + ".jpg", "Prato " + i, "Categoria " + (i % 8),
+                    "Descrição do prato " + i + " com acompanhamentos da casa", 19.9 + i, i % 5 == 0,
+                    i % 3 == 0 ? 40 : null, false, 10 + i % 20));
+        }
+        return dishes;
+    }
+
+    private static List<OrderDTO> board(int size) {
+        Instant now = Instant.parse("2024-08-01T18:00:00Z");
+        OrderStatus[] statuses = {OrderStatus.RECEIVED, OrderStatus.IN_PREPARATION, OrderStatus.READY, OrderStatus.ON_THE_WAY};
+
+        List<OrderDTO> orders = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            List<OrderItemDTO> items = new ArrayList<>();
+            for (int j = 1; j <= 3; j++) {
+                items.add(new OrderItemDTO((long) i * 10 + j, (long) j, "Prato " + j, j, 20.0 + j, (20.0 + j) * j));
+            }
+
+            OrderDTO order = new OrderDTO();
+            order.setId((long) i);
+            order.setClientId((long) i % 50);
+            order.setStatus(statuses[i % statuses.length]);
+            order.setTotal(items.stream().mapToDouble(OrderItemDTO::getSubTotal).sum());
+            order.setItems(items);
+            order.setStatusEnteredAt(now.minusSeconds(i * 7L));
+            order.setLate(i % 11 == 0);
+            order.setClientSnapshotName("Cliente " + i);
+            order.setAddressSnapshot("Rua das Flores, " + i + " - Apto " + (i % 30));
+            order.setSnapshotCep("0101" + String.format("%04d", i));
+            order.setSnapshotBairro("Centro");
+            order.setSnapshotLocalidade("São Paulo");
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private record Footprint(int bytes, int gzipBytes) {
+    }
+}
@@ -0,0 +1,139 @@
+package com.ibeus.Comanda.Digital.config;
+
+import com.ibeus.Comanda.Digital.ComandaDigitalApplication;
+import com.ibeus.Comanda.Digital.IntegrationTestSupport;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Tempo de subida do perfil prod (quiosque): de iniciar a JVM até a primeira resposta 200 de GET /dishes.
+ *
+ * Cada rodada é uma JVM nova (a subida a frio é o que o quiosque sente ao reiniciar), com o
+ * ddl-auto=validate sobre o schema das migrações do Flyway: se a validação falhar,
+ * a aplicação não sobe e o teste falha com o log do processo. Vale a mediana das rodadas, e o
+ * teste falha acima do limite (-Dcomanda.startup.max-ms, padrão 30000), para pegar regressões.
+ * Com o arquivo do AppCDS (mvn -Pcds package), -Dcomanda.startup.cds-archive=target/application/application.jsa.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class StartupTimeIT {
+
+    private static final int RUNS = 3;
+    private static final long MAX_MS = Long.getLong("comanda.startup.max-ms", 30_000);
+    private static final Duration GIVE_UP = Duration.ofMillis(Math.max(MAX_MS * 3, 120_000));
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    void prodProfileAnswersDishesWithinTheThreshold() throws Exception {
+        MySQLContainer<?> mysql = IntegrationTestSupport.mysql();
+
+        long[] runs = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            runs[i] = timeToFirstDishes(mysql, i);
+        }
+        long[] sorted = runs.clone();
+        Arrays.sort(sorted);
+        long median = sorted[RUNS / 2];
+
+        System.out.printf("subida prod até GET /dishes: rodadas %s ms, mediana %d ms (limite %d ms)%n",
+                Arrays.toString(runs), median, MAX_MS);
+
+        // Schema inteiro das migrações: o validate conferiu contra ele, sem DDL feito em tempo de execução
+        try (Connection connection = DriverManager.getConnection(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword());
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM flyway_schema_history WHERE NOT success")) {
+            rs.next();
+            assertThat(rs.getInt(1)).isZero();
+        }
+        assertThat(median).isLessThanOrEqualTo(MAX_MS);
+    }
+
+    private long timeToFirstDishes(MySQLContainer<?> mysql, int run) throws Exception {
+        int port = freePort();
+        Path output = Path.of("target", "startup-it-" + run + ".log");
+        Files.createDirectories(output.getParent());
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        String archive = System.getProperty("comanda.startup.cds-archive");
+        if (archive != null && new File(archive).isFile()) {
+            command.add("-XX:SharedArchiveFile=" + archive);
+        }
+        command.addAll(List.of(
+                "-cp", System.getProperty("java.class.path"),
+                ComandaDigitalApplication.class.getName(),
+                "--spring.profiles.active=prod",
+                "--spring.datasource.url=" + mysql.getJdbcUrl(),
+                "--spring.datasource.username=" + mysql.getUsername(),
+                "--spring.datasource.password=" + mysql.getPassword(),
+                "--server.port=" + port,
+                "--comanda.flight-recorder.enabled=false",
+                "--comanda.tickets.directory=target/it-tickets"));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(output.toFile())
+                .start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/dishes"))
+                    .timeout(Duration.ofSeconds(5))
+                    .GET()
+                    .build();
+            while (System.nanoTime() - start < GIVE_UP.toNanos()) {
+                if (!process.isAlive()) {
+                    fail("A aplicação encerrou na subida (código " + process.exitValue() + "):\n" + tail(output));
+                }
+                try {
+                    if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    }
+                } catch (IOException e) {
+                    // Servidor ainda não está ouvindo
+                }
+                Thread.sleep(50);
+            }
+            fail("Sem resposta de GET /dishes em " + GIVE_UP.toSeconds() + " s:\n" + tail(output));
+            return -1;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String tail(Path output) throws IOException {
+        List<String> lines = Files.readAllLines(output);
+        return String.join("\n", lines.subList(Math.max(0, lines.size() - 40), lines.size()));
+    }
+}
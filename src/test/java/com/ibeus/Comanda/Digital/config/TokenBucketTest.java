@@ -0,0 +1,72 @@
+package com.ibeus.Comanda.Digital.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    // Relógio controlado pelo teste: nenhuma recarga acontece sem avançar "now"
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void allowsBurstThenRejects() {
+        TokenBucket bucket = new TokenBucket(1, 3, now::get);
+
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(100, 1, now::get); // uma ficha a cada 10 ms
+
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(9));
+        assertThat(bucket.tryConsume()).isFalse();
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+
+        // Parado por muito tempo: nunca acumula além da capacidade
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+    }
+
+    @Test
+    void refundReturnsTheTokenButNeverExceedsCapacity() {
+        TokenBucket bucket = new TokenBucket(1, 2, now::get);
+
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isTrue();
+        bucket.refund();
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+
+        bucket.refund();
+        bucket.refund();
+        bucket.refund();
+        assertThat(bucket.isIdle()).isTrue();
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+    }
+
+    @Test
+    void idleOnlyWhenFull() {
+        TokenBucket bucket = new TokenBucket(1, 2, now::get);
+        assertThat(bucket.isIdle()).isTrue();
+
+        bucket.tryConsume();
+        assertThat(bucket.isIdle()).isFalse();
+    }
+}
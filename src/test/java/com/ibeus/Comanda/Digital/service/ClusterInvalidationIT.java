@@ -0,0 +1,96 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.IntegrationTestSupport;
+import com.ibeus.Comanda.Digital.dto.DishDTO;
+import com.ibeus.Comanda.Digital.dto.OrderDTO;
+import com.ibeus.Comanda.Digital.dto.OrderItemInputDTO;
+import com.ibeus.Comanda.Digital.dto.PrepItemDTO;
+import com.ibeus.Comanda.Digital.model.Dish;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Dois nós da aplicação na mesma JVM, sobre o mesmo MySQL: o que um altera tem de aparecer
+ * nos caches em memória do outro (via change_version), sem nenhuma chamada direta entre eles.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ClusterInvalidationIT {
+
+    private static final Duration PROPAGATION_TIMEOUT = Duration.ofSeconds(15);
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        String[] fastPolling = {"comanda.cluster.poll-interval-ms=200", "comanda.prep-list.refresh-interval-ms=200"};
+        nodeA = IntegrationTestSupport.startNode(fastPolling);
+        nodeB = IntegrationTestSupport.startNode(fastPolling);
+        IntegrationTestSupport.ensureDefaultClient(nodeA);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) nodeB.close();
+        if (nodeA != null) nodeA.close();
+    }
+
+    @Test
+    void dishCreatedOnOneNodeAppearsInTheOtherNodesMenu() {
+        Dish dish = createDish(nodeA);
+
+        await().atMost(PROPAGATION_TIMEOUT).untilAsserted(() ->
+                assertThat(nodeB.getBean(MenuSnapshotService.class).current().getDish(dish.getId())).isNotNull());
+    }
+
+    @Test
+    void concurrentChangesOnBothNodesAreAllSeen() {
+        // Os dois nós incrementam a versão de Dish no mesmo ciclo: nenhum pode "pular" o incremento do outro
+        CompletableFuture<Dish> onA = CompletableFuture.supplyAsync(() -> createDish(nodeA));
+        CompletableFuture<Dish> onB = CompletableFuture.supplyAsync(() -> createDish(nodeB));
+        Dish fromA = onA.join();
+        Dish fromB = onB.join();
+
+        await().atMost(PROPAGATION_TIMEOUT).untilAsserted(() -> {
+            assertThat(nodeA.getBean(MenuSnapshotService.class).current().getDish(fromB.getId())).isNotNull();
+            assertThat(nodeB.getBean(MenuSnapshotService.class).current().getDish(fromA.getId())).isNotNull();
+        });
+    }
+
+    @Test
+    void orderFinalizedOnOneNodeReachesTheOtherNodesPrepList() {
+        Dish dish = createDish(nodeA);
+        OrderService orderServiceA = nodeA.getBean(OrderService.class);
+
+        OrderDTO draft = orderServiceA.create(new OrderDTO());
+        OrderItemInputDTO item = new OrderItemInputDTO();
+        item.setDishId(dish.getId());
+        item.setQuantity(3);
+        orderServiceA.addItemToOrder(draft.getId(), item);
+        orderServiceA.finalizeOrder(draft.getId(), null);
+
+        await().atMost(PROPAGATION_TIMEOUT).untilAsserted(() ->
+                assertThat(nodeB.getBean(PrepListService.class).getPrepList())
+                        .extracting(PrepItemDTO::getDishId, PrepItemDTO::getQuantity)
+                        .contains(tuple(dish.getId(), 3)));
+    }
+
+    private static Dish createDish(ConfigurableApplicationContext node) {
+        DishDTO dto = new DishDTO();
+        dto.setName("Prato " + UUID.randomUUID());
+        dto.setCategory("Testes");
+        dto.setPrice(10.0);
+        return node.getBean(DishService.class).create(dto, null);
+    }
+}
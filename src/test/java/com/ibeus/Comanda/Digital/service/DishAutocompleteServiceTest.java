@@ -0,0 +1,194 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.config.TenantContext;
+import com.ibeus.Comanda.Digital.dto.DishSuggestionDTO;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.event.EntityChangedEvent;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import com.ibeus.Comanda.Digital.model.Dish;
+import com.ibeus.Comanda.Digital.repository.DishRepository;
+import com.ibeus.Comanda.Digital.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DishAutocompleteServiceTest {
+
+    private final DishRepository dishRepository = mock(DishRepository.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final List<Dish> dishes = new ArrayList<>();
+    private final List<Object[]> popularity = new ArrayList<>();
+    private DishAutocompleteService service;
+
+    @BeforeEach
+    void setUp() {
+        when(dishRepository.findAll()).thenReturn(dishes);
+        when(orderRepository.sumQuantityByDishExcludingStatuses(anyList())).thenReturn(popularity);
+        service = new DishAutocompleteService(dishRepository, orderRepository);
+        TenantContext.set("pizzaria");
+    }
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void tokenizeLowercasesStripsAccentsAndSplitsWords() {
+        assertThat(DishAutocompleteService.tokenize("Filé à Parmegiana")).containsExactly("file", "a", "parmegiana");
+        assertThat(DishAutocompleteService.tokenize("  X-Tudo  x-tudo ")).containsExactly("x", "tudo");
+        assertThat(DishAutocompleteService.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void matchesPrefixOfAnyWordIgnoringAccents() {
+        dishes.add(dish(1L, "pizzaria", "Filé de Frango", false));
+        dishes.add(dish(2L, "pizzaria", "Frango à Passarinho", false));
+        dishes.add(dish(3L, "pizzaria", "Pudim", false));
+        service.rebuild();
+
+        assertThat(ids(service.suggest("fra", 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(service.suggest("FILÉ", 10))).containsExactly(1L);
+        assertThat(ids(service.suggest("xyz", 10))).isEmpty();
+        assertThat(service.suggest("   ", 10)).isEmpty();
+    }
+
+    @Test
+    void multipleWordsMustAllMatch() {
+        dishes.add(dish(1L, "pizzaria", "Filé de Frango", false));
+        dishes.add(dish(2L, "pizzaria", "Frango à Passarinho", false));
+        service.rebuild();
+
+        assertThat(ids(service.suggest("fra pass", 10))).containsExactly(2L);
+        assertThat(ids(service.suggest("fra fil", 10))).containsExactly(1L);
+        assertThat(ids(service.suggest("fra xyz", 10))).isEmpty();
+    }
+
+    @Test
+    void ranksFavoriteThenPopularityThenName() {
+        dishes.add(dish(1L, "pizzaria", "Pizza Calabresa", false));
+        dishes.add(dish(2L, "pizzaria", "Pizza Atum", false));
+        dishes.add(dish(3L, "pizzaria", "Pizza Margherita", true));
+        dishes.add(dish(4L, "pizzaria", "Pizza Portuguesa", false));
+        popularity.add(new Object[]{4L, 7L});
+        service.rebuild();
+
+        assertThat(ids(service.suggest("piz", 10))).containsExactly(3L, 4L, 2L, 1L);
+        assertThat(ids(service.suggest("piz", 2))).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void eachTenantSeesOnlyItsOwnDishes() {
+        dishes.add(dish(1L, "pizzaria", "Pizza Atum", false));
+        dishes.add(dish(2L, "hamburgueria", "Picanha Burger", false));
+        service.rebuild();
+
+        assertThat(ids(service.suggest("pi", 10))).containsExactly(1L);
+        TenantContext.set("hamburgueria");
+        assertThat(ids(service.suggest("pi", 10))).containsExactly(2L);
+        TenantContext.set("sem-cardapio");
+        assertThat(service.suggest("pi", 10)).isEmpty();
+    }
+
+    @Test
+    void dishAddedIncrementallyStaysInItsTenant() {
+        dishes.add(dish(1L, "pizzaria", "Pizza Atum", false));
+        service.rebuild();
+
+        when(dishRepository.findById(2L)).thenReturn(Optional.of(dish(2L, "hamburgueria", "Pizza Burger", true)));
+        service.onDishChanged(new EntityChangedEvent(EntityChangedEvent.DISH, 2L));
+
+        // Favorito, mas de outro restaurante: não entra nos top-k da pizzaria
+        assertThat(ids(service.suggest("pizza", 10))).containsExactly(1L);
+        TenantContext.set("hamburgueria");
+        assertThat(ids(service.suggest("pizza", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void renamedDishLeavesOldPrefixesAndKeepsPopularity() {
+        dishes.add(dish(1L, "pizzaria", "Frango Grelhado", false));
+        dishes.add(dish(2L, "pizzaria", "Salmão Grelhado", false));
+        popularity.add(new Object[]{1L, 5L});
+        service.rebuild();
+
+        when(dishRepository.findById(1L)).thenReturn(Optional.of(dish(1L, "pizzaria", "Tilápia Grelhada", false)));
+        service.onDishChanged(new EntityChangedEvent(EntityChangedEvent.DISH, 1L));
+
+        assertThat(service.suggest("fra", 10)).isEmpty();
+        assertThat(ids(service.suggest("til", 10))).containsExactly(1L);
+        // A popularidade acumulada continua valendo depois do rename
+        assertThat(ids(service.suggest("grelhad", 10))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void deletedDishDisappears() {
+        dishes.add(dish(1L, "pizzaria", "Pizza Atum", false));
+        dishes.add(dish(2L, "pizzaria", "Pizza Calabresa", false));
+        service.rebuild();
+
+        when(dishRepository.findById(1L)).thenReturn(Optional.empty());
+        service.onDishChanged(new EntityChangedEvent(EntityChangedEvent.DISH, 1L));
+
+        assertThat(ids(service.suggest("pizza", 10))).containsExactly(2L);
+        assertThat(service.suggest("atum", 10)).isEmpty();
+    }
+
+    @Test
+    void placedOrderPromotesDishIntoFullTopK() {
+        // 12 pratos sob o prefixo "ca": o 12º (pelo nome) fica fora dos top-10 até ser pedido
+        for (long id = 1; id <= 12; id++) {
+            dishes.add(dish(id, "pizzaria", String.format("Caldo %02d", id), false));
+        }
+        service.rebuild();
+        assertThat(ids(service.suggest("ca", 10))).doesNotContain(12L);
+
+        service.onStatusChanged(placed(OrderStatus.DRAFT, OrderStatus.RECEIVED, 12L, 3));
+
+        assertThat(ids(service.suggest("ca", 10))).hasSize(10).startsWith(12L);
+        assertThat(ids(service.suggest("caldo 12", 10))).containsExactly(12L);
+    }
+
+    @Test
+    void onlyPlacingTheOrderCountsAsPopularity() {
+        dishes.add(dish(1L, "pizzaria", "Pizza Atum", false));
+        dishes.add(dish(2L, "pizzaria", "Pizza Calabresa", false));
+        service.rebuild();
+
+        // Avanço na cozinha do mesmo pedido não conta de novo
+        service.onStatusChanged(placed(OrderStatus.RECEIVED, OrderStatus.IN_PREPARATION, 2L, 5));
+        assertThat(ids(service.suggest("pizza", 10))).containsExactly(1L, 2L);
+
+        service.onStatusChanged(placed(OrderStatus.DRAFT, OrderStatus.SCHEDULED, 2L, 1));
+        assertThat(ids(service.suggest("pizza", 10))).containsExactly(2L, 1L);
+    }
+
+    private static OrderStatusChangedEvent placed(OrderStatus from, OrderStatus to, Long dishId, int quantity) {
+        List<OrderStatusChangedEvent.Item> items = List.of(new OrderStatusChangedEvent.Item(dishId, "Prato", "Testes", quantity));
+        return new OrderStatusChangedEvent(100L, "pizzaria", from, to, Instant.now(), Instant.now(), items);
+    }
+
+    private static List<Long> ids(List<DishSuggestionDTO> suggestions) {
+        return suggestions.stream().map(DishSuggestionDTO::getId).toList();
+    }
+
+    private static Dish dish(Long id, String tenantId, String name, boolean favorite) {
+        Dish dish = new Dish();
+        dish.setId(id);
+        dish.setTenantId(tenantId);
+        dish.setName(name);
+        dish.setCategory("Testes");
+        dish.setPrice(30.0);
+        dish.setFavorite(favorite);
+        return dish;
+    }
+}
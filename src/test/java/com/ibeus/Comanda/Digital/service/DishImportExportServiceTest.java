@@ -0,0 +1,91 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.dto.DishDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DishImportExportServiceTest {
+
+    private static final String HEADER = "id,name,category,description,price,urlImage,favorite,stock,prepMinutes";
+
+    @Test
+    void parsesQuotedFieldsWithCommasAndEscapedQuotes() {
+        List<String> values = DishImportExportService.parseCsvLine("1,\"Bife, acebolado\",\"Pratos \"\"da casa\"\"\",,29.9");
+
+        assertThat(values).containsExactly("1", "Bife, acebolado", "Pratos \"da casa\"", "", "29.9");
+    }
+
+    @Test
+    void escapesOnlyWhenNeededAndFlattensLineBreaks() {
+        assertThat(DishImportExportService.csv(null)).isEmpty();
+        assertThat(DishImportExportService.csv("Simples")).isEqualTo("Simples");
+        assertThat(DishImportExportService.csv("a, b")).isEqualTo("\"a, b\"");
+        assertThat(DishImportExportService.csv("diz \"oi\"")).isEqualTo("\"diz \"\"oi\"\"\"");
+        assertThat(DishImportExportService.csv("linha 1\r\nlinha 2\nlinha 3")).isEqualTo("linha 1 linha 2 linha 3");
+    }
+
+    @Test
+    void exportedLineImportsBackToTheSameDish() throws IOException {
+        DishDTO original = new DishDTO(7L, "/img/7.jpg", "Moqueca, \"baiana\"", "Peixes", "Serve 2\npessoas",
+                89.5, true, 12, null, 35);
+
+        StringWriter out = new StringWriter();
+        DishImportExportService.writeCsvLine(out, original);
+        String line = out.toString();
+        assertThat(line).endsWith("\n").doesNotContain("\n\n");
+
+        Map<String, Integer> header = DishImportExportService.parseHeader(HEADER);
+        DishDTO imported = DishImportExportService.fromCsv(
+                DishImportExportService.parseCsvLine(line.substring(0, line.length() - 1)), header);
+
+        assertThat(imported.getName()).isEqualTo(original.getName());
+        assertThat(imported.getCategory()).isEqualTo("Peixes");
+        assertThat(imported.getDescription()).isEqualTo("Serve 2 pessoas");
+        assertThat(imported.getPrice()).isEqualTo(89.5);
+        assertThat(imported.getUrlImage()).isEqualTo("/img/7.jpg");
+        assertThat(imported.getFavorite()).isTrue();
+        assertThat(imported.getStock()).isEqualTo(12);
+        assertThat(imported.getPrepMinutes()).isEqualTo(35);
+    }
+
+    @Test
+    void emptyStockAndPrepMinutesMeanNotControlled() throws IOException {
+        DishDTO original = new DishDTO(8L, null, "Água", "Bebidas", null, 5.0, false, null, null, null);
+
+        StringWriter out = new StringWriter();
+        DishImportExportService.writeCsvLine(out, original);
+        String line = out.toString().trim();
+
+        DishDTO imported = DishImportExportService.fromCsv(
+                DishImportExportService.parseCsvLine(line), DishImportExportService.parseHeader(HEADER));
+
+        assertThat(imported.getStock()).isNull();
+        assertThat(imported.getPrepMinutes()).isNull();
+        assertThat(imported.getDescription()).isNull();
+    }
+
+    @Test
+    void headerColumnsCanComeInAnyOrder() {
+        Map<String, Integer> header = DishImportExportService.parseHeader("price, name ,stock");
+
+        DishDTO dish = DishImportExportService.fromCsv(DishImportExportService.parseCsvLine("10.5,Pastel,3"), header);
+
+        assertThat(dish.getName()).isEqualTo("Pastel");
+        assertThat(dish.getPrice()).isEqualTo(10.5);
+        assertThat(dish.getStock()).isEqualTo(3);
+    }
+
+    @Test
+    void headerWithoutNameOrPriceIsRejected() {
+        assertThatThrownBy(() -> DishImportExportService.parseHeader("id,category"))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.dto.DispatchGroupDTO;
+import com.ibeus.Comanda.Digital.dto.OrderDTO;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DispatchServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-08-01T19:00:00Z");
+
+    @Test
+    void groupsByCepPrefixOldestGroupFirst() {
+        List<Order> ready = new ArrayList<>(List.of(
+                order(1L, 300, "01001-000", "Sé"),
+                order(2L, 600, "04538-132", "Itaim Bibi"),
+                order(3L, 100, "01001-900", "Sé"),
+                order(4L, 500, "04538-000", "Itaim Bibi")));
+
+        List<DispatchGroupDTO> groups = DispatchService.group(ready, 5, false);
+
+        assertThat(groups).extracting(DispatchGroupDTO::getKey).containsExactly("04538", "01001");
+        assertThat(ids(groups.get(0))).containsExactly(2L, 4L);
+        assertThat(ids(groups.get(1))).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void shorterPrefixMergesNeighbouringSectors() {
+        List<Order> ready = new ArrayList<>(List.of(
+                order(1L, 200, "01001-000", "Sé"),
+                order(2L, 100, "01310-100", "Bela Vista")));
+
+        List<DispatchGroupDTO> groups = DispatchService.group(ready, 2, false);
+
+        assertThat(groups).hasSize(1);
+        assertThat(groups.get(0).getKey()).isEqualTo("01");
+        assertThat(ids(groups.get(0))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void missingOrShortCepGetsItsOwnKey() {
+        List<Order> ready = new ArrayList<>(List.of(
+                order(1L, 200, null, "Sé"),
+                order(2L, 100, "123", "Sé")));
+
+        List<DispatchGroupDTO> groups = DispatchService.group(ready, 5, false);
+
+        assertThat(groups).extracting(DispatchGroupDTO::getKey).containsExactly("SEM_CEP", "123");
+    }
+
+    @Test
+    void groupsByNormalizedBairro() {
+        List<Order> ready = new ArrayList<>(List.of(
+                order(1L, 300, "01001-000", " sé "),
+                order(2L, 200, "01002-000", "SÉ"),
+                order(3L, 100, "01003-000", "")));
+
+        List<DispatchGroupDTO> groups = DispatchService.group(ready, 5, true);
+
+        // O grupo com o pedido pronto há mais tempo (1) vem primeiro
+        assertThat(groups).extracting(DispatchGroupDTO::getKey).containsExactly("SÉ", "SEM_BAIRRO");
+        assertThat(ids(groups.get(0))).containsExactly(1L, 2L);
+    }
+
+    private static Order order(Long id, long readySecondsAgo, String cep, String bairro) {
+        Order order = new Order();
+        order.setId(id);
+        order.setStatus(OrderStatus.READY);
+        order.setStatusEnteredAt(NOW.minusSeconds(readySecondsAgo));
+        order.setSnapshotCep(cep);
+        order.setSnapshotBairro(bairro);
+        order.setSnapshotLocalidade("São Paulo");
+        return order;
+    }
+
+    private static List<Long> ids(DispatchGroupDTO group) {
+        return group.getOrders().stream().map(OrderDTO::getId).toList();
+    }
+}
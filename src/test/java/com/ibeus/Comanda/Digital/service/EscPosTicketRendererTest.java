@@ -0,0 +1,80 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EscPosTicketRendererTest {
+
+    private static final Charset PC850 = Charset.forName("IBM850");
+
+    private final EscPosTicketRenderer renderer = new EscPosTicketRenderer();
+
+    @Test
+    void startsWithInitAndCodePageAndEndsWithCut() {
+        byte[] ticket = render(List.of(item("Feijoada", 1)));
+
+        assertThat(Arrays.copyOfRange(ticket, 0, 5)).containsExactly(0x1B, '@', 0x1B, 't', 2);
+        assertThat(Arrays.copyOfRange(ticket, ticket.length - 4, ticket.length)).containsExactly(0x1D, 'V', 66, 0);
+    }
+
+    @Test
+    void headerIsDoubleSizeAndItemsHaveBoldQuantity() {
+        byte[] ticket = render(List.of(item("Feijoada", 2), item("Suco", 1)));
+
+        assertThat(indexOf(ticket, concat(new byte[]{0x1D, '!', 0x11}, "PEDIDO #42\n".getBytes(PC850)))).isPositive();
+        assertThat(indexOf(ticket, concat(new byte[]{0x1B, 'E', 1}, "2x ".getBytes(PC850), new byte[]{0x1B, 'E', 0},
+                "Feijoada\n".getBytes(PC850)))).isPositive();
+        assertThat(indexOf(ticket, "1x ".getBytes(PC850))).isGreaterThan(indexOf(ticket, "Feijoada".getBytes(PC850)));
+        assertThat(indexOf(ticket, "BAR".getBytes(PC850))).isPositive();
+    }
+
+    @Test
+    void accentsUseTheSelectedCodePage() {
+        byte[] ticket = render(List.of(item("Pão de queijo", 3)));
+
+        assertThat(indexOf(ticket, "Pão de queijo".getBytes(PC850))).isPositive();
+        assertThat(indexOf(ticket, "Pão".getBytes(StandardCharsets.UTF_8))).isEqualTo(-1);
+    }
+
+    private byte[] render(List<OrderStatusChangedEvent.Item> items) {
+        OrderStatusChangedEvent event = new OrderStatusChangedEvent(42L, "default", OrderStatus.DRAFT, OrderStatus.RECEIVED,
+                Instant.parse("2024-08-01T18:30:00Z"), Instant.parse("2024-08-01T18:00:00Z"), items);
+        return renderer.render(event, "bar", items);
+    }
+
+    private static OrderStatusChangedEvent.Item item(String name, int quantity) {
+        return new OrderStatusChangedEvent.Item(1L, name, "Pratos", quantity);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) length += part.length;
+        byte[] result = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+}
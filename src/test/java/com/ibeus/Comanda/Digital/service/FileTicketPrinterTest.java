@@ -0,0 +1,49 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.config.TicketProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileTicketPrinterTest {
+
+    // Relativo a user.dir, como na aplicação
+    private final String directory = "target/test-tickets/" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        Path root = Paths.get(System.getProperty("user.dir"), directory);
+        if (Files.exists(root)) {
+            try (Stream<Path> files = Files.walk(root)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    void writesTheBatchToOneFilePerCallUnderThePrinterDirectory() throws IOException {
+        TicketProperties properties = new TicketProperties();
+        properties.setDirectory(directory);
+        FileTicketPrinter printer = new FileTicketPrinter(properties);
+
+        printer.print("kitchen", List.of(new byte[]{1, 2}, new byte[]{3}));
+
+        Path printerDir = Paths.get(System.getProperty("user.dir"), directory, "kitchen");
+        try (Stream<Path> files = Files.list(printerDir)) {
+            List<Path> written = files.toList();
+            assertThat(written).hasSize(1);
+            assertThat(written.get(0).getFileName().toString()).endsWith(".escpos");
+            assertThat(Files.readAllBytes(written.get(0))).containsExactly(1, 2, 3);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.IntegrationTestSupport;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.model.Client;
+import com.ibeus.Comanda.Digital.model.Dish;
+import com.ibeus.Comanda.Digital.model.Order;
+import com.ibeus.Comanda.Digital.model.OrderItem;
+import com.ibeus.Comanda.Digital.repository.DishRepository;
+import com.ibeus.Comanda.Digital.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Antes/depois da troca de IDENTITY por sequência pooled: gravação de um carrinho de 30 itens
+ * numa transação seguida da finalização do pedido.
+ *
+ * "Antes" é emulado com hibernate.jdbc.batch_size=1 (com IDENTITY o Hibernate desliga o batch e faz
+ * um INSERT por linha para ler o id gerado); "depois" usa a configuração da aplicação (batch_size=50).
+ * Os INSERTs são contados no servidor (Com_insert): com rewriteBatchedStatements o lote vira um único comando.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class FinalizeOrderBatchingIT {
+
+    private static final int ITEMS = 30;
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+
+    // O log de status é gravado em lote fora da transação medida; fica parado durante o teste
+    private static final String[] COMMON = {"comanda.status-events.flush-interval-ms=600000"};
+
+    @Test
+    void batchedInsertsCutRoundTripsWhenFinalizingA30ItemOrder() {
+        Result before = measure("before (batch_size=1)", "spring.jpa.properties.hibernate.jdbc.batch_size=1");
+        Result after = measure("after (batch_size=50)");
+
+        System.out.printf("finalize 30 itens | %s: %.1f INSERTs, %.2f ms | %s: %.1f INSERTs, %.2f ms%n",
+                before.label(), before.insertsPerRun(), before.millisPerRun(),
+                after.label(), after.insertsPerRun(), after.millisPerRun());
+
+        assertThat(before.insertsPerRun()).isGreaterThanOrEqualTo(ITEMS + 1);
+        // Um INSERT do pedido, um (reescrito) para os 30 itens e o spool da comanda
+        assertThat(after.insertsPerRun()).isLessThanOrEqualTo(5);
+    }
+
+    private static Result measure(String label, String... properties) {
+        List<String> args = new ArrayList<>(List.of(COMMON));
+        args.addAll(List.of(properties));
+
+        try (ConfigurableApplicationContext node = IntegrationTestSupport.startNode(args.toArray(String[]::new))) {
+            Client client = IntegrationTestSupport.ensureDefaultClient(node);
+            List<Dish> dishes = createDishes(node);
+            JdbcTemplate jdbcTemplate = node.getBean(JdbcTemplate.class);
+
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                createAndFinalize(node, client, dishes);
+            }
+
+            long inserts = 0;
+            long nanos = 0;
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                long insertsBefore = comInsert(jdbcTemplate);
+                long start = System.nanoTime();
+                createAndFinalize(node, client, dishes);
+                nanos += System.nanoTime() - start;
+                inserts += comInsert(jdbcTemplate) - insertsBefore;
+            }
+            return new Result(label, (double) inserts / MEASURED_RUNS, nanos / 1_000_000.0 / MEASURED_RUNS);
+        }
+    }
+
+    // Carrinho completo gravado numa transação (pedido + 30 itens em cascata) e finalizado em seguida
+    private static void createAndFinalize(ConfigurableApplicationContext node, Client client, List<Dish> dishes) {
+        OrderRepository orderRepository = node.getBean(OrderRepository.class);
+        TransactionTemplate tx = new TransactionTemplate(node.getBean(PlatformTransactionManager.class));
+
+        Long orderId = tx.execute(status -> {
+            Instant now = Instant.now();
+            Order order = new Order();
+            order.setClient(client);
+            order.setMoment(now);
+            order.setStatus(OrderStatus.DRAFT);
+            order.setStatusEnteredAt(now);
+            order.setLastActivityAt(now);
+            for (Dish dish : dishes) {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setDish(dish);
+                item.setQuantity(1);
+                item.setPrice(dish.getPrice());
+                order.getItems().add(item);
+            }
+            return orderRepository.save(order).getId();
+        });
+
+        node.getBean(OrderService.class).finalizeOrder(orderId, null);
+    }
+
+    private static List<Dish> createDishes(ConfigurableApplicationContext node) {
+        List<Dish> dishes = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Dish dish = new Dish();
+            dish.setName("Prato " + UUID.randomUUID());
+            dish.setCategory("Testes");
+            dish.setPrice(10.0 + i);
+            dishes.add(dish);
+        }
+        return node.getBean(DishRepository.class).saveAll(dishes);
+    }
+
+    private static long comInsert(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SHOW GLOBAL STATUS LIKE 'Com_insert'", (rs, rowNum) -> rs.getLong(2));
+    }
+
+    private record Result(String label, double insertsPerRun, double millisPerRun) {
+    }
+}
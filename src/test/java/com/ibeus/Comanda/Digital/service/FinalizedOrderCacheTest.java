@@ -0,0 +1,102 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ibeus.Comanda.Digital.config.TenantContext;
+import com.ibeus.Comanda.Digital.dto.OrderDTO;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import com.ibeus.Comanda.Digital.model.Order;
+import com.ibeus.Comanda.Digital.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FinalizedOrderCacheTest {
+
+    private final ObjectMapper json = new ObjectMapper().findAndRegisterModules();
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory()).findAndRegisterModules();
+    private final OrderRepository repository = mock(OrderRepository.class);
+    private final FinalizedOrderCache cache = new FinalizedOrderCache(
+            repository,
+            json,
+            new MappingJackson2CborHttpMessageConverter(cbor),
+            new MappingJackson2SmileHttpMessageConverter(new ObjectMapper(new SmileFactory()).findAndRegisterModules()),
+            100,
+            new SimpleMeterRegistry());
+
+    @Test
+    void entriesAreSeparatedByTenant() {
+        cache.putIfFinal(order(1L, OrderStatus.DELIVERED), "pizzaria", FinalizedOrderCache.Format.JSON);
+
+        assertThat(cache.get("pizzaria", 1L, FinalizedOrderCache.Format.JSON)).isNotNull();
+        assertThat(cache.get("hamburgueria", 1L, FinalizedOrderCache.Format.JSON)).isNull();
+    }
+
+    @Test
+    void sameIdInAnotherTenantNeverHitsAnyFormat() {
+        for (FinalizedOrderCache.Format format : FinalizedOrderCache.Format.values()) {
+            cache.putIfFinal(order(4L, OrderStatus.DELIVERED), "pizzaria", format);
+        }
+
+        for (FinalizedOrderCache.Format format : FinalizedOrderCache.Format.values()) {
+            assertThat(cache.get("hamburgueria", 4L, format)).isNull();
+            assertThat(cache.get("pizzaria", 4L, format)).isNotNull();
+        }
+    }
+
+    @Test
+    void warmUpAfterCommitIsStoredUnderTheOrdersTenant() {
+        Order entity = new Order();
+        entity.setId(5L);
+        entity.setTenantId("pizzaria");
+        entity.setStatus(OrderStatus.DELIVERED);
+        when(repository.findById(5L)).thenReturn(Optional.of(entity));
+
+        cache.onStatusChanged(new OrderStatusChangedEvent(5L, "pizzaria", OrderStatus.ON_THE_WAY,
+                OrderStatus.DELIVERED, Instant.now(), Instant.now(), List.of()));
+
+        assertThat(cache.get("pizzaria", 5L, FinalizedOrderCache.Format.JSON)).isNotNull();
+        assertThat(cache.get(TenantContext.DEFAULT, 5L, FinalizedOrderCache.Format.JSON)).isNull();
+    }
+
+    @Test
+    void eachFormatHasItsOwnBytesContentTypeAndEtag() throws Exception {
+        OrderDTO dto = order(2L, OrderStatus.CANCELED);
+
+        FinalizedOrderCache.CachedOrder asJson = cache.putIfFinal(dto, "pizzaria", FinalizedOrderCache.Format.JSON);
+        FinalizedOrderCache.CachedOrder asCbor = cache.putIfFinal(dto, "pizzaria", FinalizedOrderCache.Format.CBOR);
+
+        assertThat(asJson.getContentType().toString()).isEqualTo("application/json");
+        assertThat(asCbor.getContentType().toString()).isEqualTo("application/cbor");
+        assertThat(asCbor.getEtag()).isNotEqualTo(asJson.getEtag()).contains("-cbor-");
+        assertThat(json.readValue(asJson.getBody(), OrderDTO.class).getId()).isEqualTo(2L);
+        assertThat(cbor.readValue(asCbor.getBody(), OrderDTO.class).getId()).isEqualTo(2L);
+        assertThat(cache.get("pizzaria", 2L, FinalizedOrderCache.Format.SMILE)).isNull();
+    }
+
+    @Test
+    void ordersStillInProgressAreNotCached() {
+        assertThat(cache.putIfFinal(order(3L, OrderStatus.READY), "pizzaria", FinalizedOrderCache.Format.JSON)).isNull();
+        assertThat(cache.get("pizzaria", 3L, FinalizedOrderCache.Format.JSON)).isNull();
+    }
+
+    private static OrderDTO order(Long id, OrderStatus status) {
+        OrderDTO dto = new OrderDTO();
+        dto.setId(id);
+        dto.setStatus(status);
+        dto.setTotal(50.0);
+        dto.setItems(List.of());
+        return dto;
+    }
+}
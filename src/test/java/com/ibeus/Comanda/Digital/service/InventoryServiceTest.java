@@ -0,0 +1,227 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.event.DishAvailabilityChangedEvent;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Contadores do estoque: CAS concorrente no carrinho, desfazer sem evento, reconciliação por delta
+ * e baixa condicionada na finalização. O banco é simulado: a recarga lê os valores de dbStock/dbDrafts.
+ */
+class InventoryServiceTest {
+
+    private static final long DISH = 7L;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+    private final InventoryService inventory = new InventoryService(jdbcTemplate, publisher, new SimpleMeterRegistry());
+
+    private int dbStock;
+    private int dbDrafts;
+    private Runnable duringRead = () -> { };
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void concurrentReservationsNeverExceedTheStock() throws Exception {
+        load(100, 0);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                int reserved = 0;
+                while (true) {
+                    try {
+                        inventory.reserve(DISH, 1);
+                        reserved++;
+                    } catch (ResponseStatusException e) {
+                        return reserved;
+                    }
+                }
+            }));
+        }
+        start.countDown();
+
+        int total = 0;
+        for (Future<Integer> result : results) total += result.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertThat(total).isEqualTo(100);
+        assertThat(inventory.isSoldOut(DISH)).isTrue();
+        assertThatThrownBy(() -> inventory.reserve(DISH, 1))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+    }
+
+    @Test
+    void reservationLargerThanWhatIsLeftIsRejectedWithoutTakingAnything() {
+        load(3, 0);
+
+        assertThatThrownBy(() -> inventory.reserve(DISH, 4)).isInstanceOf(ResponseStatusException.class);
+        inventory.reserve(DISH, 3);
+
+        assertThat(inventory.isSoldOut(DISH)).isTrue();
+    }
+
+    @Test
+    void rollbackGivesTheUnitsBackWithoutPublishingAnEvent() {
+        load(1, 0);
+        TransactionSynchronizationManager.initSynchronization();
+
+        inventory.reserve(DISH, 1);
+        verify(publisher, times(1)).publishEvent(any(DishAvailabilityChangedEvent.class)); // esgotou
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        assertThat(inventory.isSoldOut(DISH)).isFalse();
+        verify(publisher, times(1)).publishEvent(any(DishAvailabilityChangedEvent.class));
+    }
+
+    @Test
+    void reloadKeepsReservationsMadeWhileReadingTheDatabase() {
+        load(10, 0);
+        inventory.reserve(DISH, 3);           // já confirmado: o banco passa a ver 3 em carrinhos
+        dbDrafts = 3;
+        duringRead = () -> inventory.reserve(DISH, 2); // reserva concorrente, ainda invisível no banco
+
+        inventory.reload();
+        duringRead = () -> { };
+
+        // Sobrescrever com "estoque - carrinhos" daria 7 e perderia a reserva concorrente
+        assertThat(available()).isEqualTo(5);
+
+        dbDrafts = 5;
+        inventory.reload();
+        assertThat(available()).isEqualTo(5);
+    }
+
+    @Test
+    void reloadPicksUpChangesFromOtherNodesAsADelta() {
+        load(10, 0);
+        inventory.reserve(DISH, 2);
+        dbDrafts = 2;
+        inventory.reload();
+
+        // Outro nó reservou 4 e finalizou 2 deles: saem dos carrinhos e do estoque
+        dbStock = 8;
+        dbDrafts = 4;
+        inventory.reload();
+
+        assertThat(available()).isEqualTo(4);
+    }
+
+    @Test
+    void finalizingWithoutStockInTheDatabaseIsAConflict() {
+        load(5, 0);
+        when(jdbcTemplate.update(contains("stock >= ?"), eq(2), eq(DISH), eq(2))).thenReturn(0);
+
+        assertThatThrownBy(() -> inventory.onStatusChanging(event(OrderStatus.DRAFT, OrderStatus.RECEIVED, 2)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+    }
+
+    @Test
+    void cancelBeforePreparationRestocksInTheTransactionAndReleasesAfterCommit() {
+        load(2, 0);
+        inventory.reserve(DISH, 2);
+
+        OrderStatusChangedEvent cancel = event(OrderStatus.RECEIVED, OrderStatus.CANCELED, 2);
+        inventory.onStatusChanging(cancel);
+        inventory.onStatusChanged(cancel);
+
+        verify(jdbcTemplate).update(contains("stock + ?"), eq(2), eq(DISH));
+        assertThat(available()).isEqualTo(2);
+    }
+
+    @Test
+    void cancelDuringPreparationKeepsTheUnitsSold() {
+        load(2, 0);
+        inventory.reserve(DISH, 2);
+
+        OrderStatusChangedEvent cancel = event(OrderStatus.IN_PREPARATION, OrderStatus.CANCELED, 2);
+        inventory.onStatusChanging(cancel);
+        inventory.onStatusChanged(cancel);
+
+        verify(jdbcTemplate, never()).update(contains("stock + ?"), any(), any());
+        assertThat(inventory.isSoldOut(DISH)).isTrue();
+    }
+
+    // --- auxiliares ---
+
+    private void load(int stock, int drafts) {
+        dbStock = stock;
+        dbDrafts = drafts;
+        doAnswer(inv -> {
+            duringRead.run();
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong(1)).thenReturn(DISH);
+            when(rs.getInt(2)).thenReturn(dbDrafts);
+            inv.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(contains("'DRAFT'"), any(RowCallbackHandler.class));
+        doAnswer(inv -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong("id")).thenReturn(DISH);
+            when(rs.getString("tenant_id")).thenReturn("default");
+            when(rs.getInt("stock")).thenReturn(dbStock);
+            inv.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(contains("stock IS NOT NULL"), any(RowCallbackHandler.class));
+        inventory.reload();
+    }
+
+    // Unidades livres no contador: reserva uma a uma até recusar e devolve tudo
+    private int available() {
+        int count = 0;
+        try {
+            while (true) {
+                inventory.reserve(DISH, 1);
+                count++;
+            }
+        } catch (ResponseStatusException e) {
+            inventory.releaseAll(Map.of(DISH, count));
+            return count;
+        }
+    }
+
+    private static OrderStatusChangedEvent event(OrderStatus from, OrderStatus to, int quantity) {
+        return new OrderStatusChangedEvent(1L, "default", from, to, Instant.now(), Instant.now(),
+                List.of(new OrderStatusChangedEvent.Item(DISH, "Pizza", "Pizzas", quantity)));
+    }
+}
@@ -0,0 +1,80 @@
+package com.ibeus.Comanda.Digital.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntMapTest {
+
+    @Test
+    void missingKeyReadsAsZero() {
+        LongIntMap map = new LongIntMap();
+
+        assertThat(map.get(42L)).isZero();
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void addAccumulatesAndReturnsNewValue() {
+        LongIntMap map = new LongIntMap();
+
+        assertThat(map.add(7L, 1)).isEqualTo(1);
+        assertThat(map.add(7L, 4)).isEqualTo(5);
+        assertThat(map.add(7L, -2)).isEqualTo(3);
+
+        assertThat(map.get(7L)).isEqualTo(3);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void zeroAndLargeIdsAreRegularKeys() {
+        LongIntMap map = new LongIntMap();
+
+        map.add(0L, 2);
+        map.add(Long.MAX_VALUE, 3);
+
+        assertThat(map.get(0L)).isEqualTo(2);
+        assertThat(map.get(Long.MAX_VALUE)).isEqualTo(3);
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void growKeepsAllEntries() {
+        // Capacidade inicial pequena: força vários redimensionamentos, com ids sequenciais (pior caso sem o espalhamento)
+        LongIntMap map = new LongIntMap(2);
+        for (long id = 1; id <= 10_000; id++) {
+            map.add(id, (int) (id % 97));
+            map.add(id, 1);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (long id = 1; id <= 10_000; id++) {
+            assertThat(map.get(id)).isEqualTo((int) (id % 97) + 1);
+        }
+        assertThat(map.get(10_001L)).isZero();
+    }
+
+    @Test
+    void matchesHashMapUnderRandomAdds() {
+        Random random = new Random(2024);
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 50_000; i++) {
+            // Faixa pequena de chaves para haver muitas colisões e atualizações
+            long key = random.nextInt(3_000) * 1_000_003L;
+            int delta = random.nextInt(5) + 1;
+            int value = map.add(key, delta);
+            assertThat(value).isEqualTo(expected.merge(key, delta, Integer::sum));
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach((key, value) -> assertThat(visited.put(key, value)).isNull());
+        assertThat(visited).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,117 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ibeus.Comanda.Digital.config.TenantContext;
+import com.ibeus.Comanda.Digital.dto.DishDTO;
+import com.ibeus.Comanda.Digital.model.Dish;
+import com.ibeus.Comanda.Digital.repository.DishRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MenuSnapshotServiceTest {
+
+    private final DishRepository dishRepository = mock(DishRepository.class);
+    private final InventoryService inventoryService = mock(InventoryService.class);
+    private MenuSnapshotService service;
+
+    @BeforeEach
+    void setUp() {
+        when(dishRepository.findTenantIds()).thenReturn(List.of("pizzaria"));
+        when(dishRepository.findByTenantId("pizzaria")).thenReturn(List.of(dish(1L, "Margherita")));
+        service = new MenuSnapshotService(dishRepository, new ObjectMapper(), inventoryService);
+        service.init();
+    }
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void knownTenantGetsItsOwnSnapshot() {
+        TenantContext.set("pizzaria");
+
+        assertThat(service.current().getDish(1L).getName()).isEqualTo("Margherita");
+    }
+
+    @Test
+    void unknownTenantGetsSharedEmptySnapshotWithoutQuery() {
+        TenantContext.set("qualquer-coisa");
+
+        MenuSnapshot first = service.current();
+        MenuSnapshot second = service.current();
+
+        assertThat(first.getDishes()).isEmpty();
+        assertThat(second).isSameAs(first);
+        verify(dishRepository, never()).findByTenantId("qualquer-coisa");
+    }
+
+    @Test
+    void eachTenantGetsOnlyItsOwnDishes() {
+        Dish burger = dish(2L, "Picanha Burger");
+        burger.setTenantId("hamburgueria");
+        burger.setCategory("Pizzas"); // mesma categoria, outro restaurante
+        burger.setFavorite(true);
+        when(dishRepository.findTenantIds()).thenReturn(List.of("pizzaria", "hamburgueria"));
+        when(dishRepository.findByTenantId("hamburgueria")).thenReturn(List.of(burger));
+        service.init();
+
+        TenantContext.set("pizzaria");
+        MenuSnapshot pizzaria = service.current();
+        TenantContext.set("hamburgueria");
+        MenuSnapshot hamburgueria = service.current();
+
+        assertThat(pizzaria.getDishes()).extracting(DishDTO::getId).containsExactly(1L);
+        assertThat(pizzaria.getDish(2L)).isNull();
+        assertThat(pizzaria.getCategoryDishes("pizzas")).extracting(DishDTO::getId).containsExactly(1L);
+        assertThat(pizzaria.getFavoriteDishes()).isEmpty();
+        assertThat(hamburgueria.getDishes()).extracting(DishDTO::getId).containsExactly(2L);
+        assertThat(hamburgueria.getDish(1L)).isNull();
+        assertThat(hamburgueria.getCategoryDishes("pizzas")).extracting(DishDTO::getId).containsExactly(2L);
+    }
+
+    @Test
+    void gzipAndIdentityHaveDistinctEtags() {
+        TenantContext.set("pizzaria");
+
+        MenuSnapshot.EncodedBody all = service.current().getAll();
+
+        assertThat(all.getEtag()).startsWith("\"menu-").endsWith("\"");
+        assertThat(all.getGzipEtag()).isNotEqualTo(all.getEtag()).endsWith("-gzip\"");
+    }
+
+    @Test
+    void categoryAndFavoriteDtosCarrySoldOut() {
+        Dish favorite = dish(2L, "Calabresa");
+        favorite.setFavorite(true);
+        when(dishRepository.findByTenantId("pizzaria")).thenReturn(List.of(dish(1L, "Margherita"), favorite));
+        when(inventoryService.isSoldOut(2L)).thenReturn(true);
+
+        MenuSnapshot snapshot = service.publish("pizzaria");
+
+        // Servidos aos tablets em CBOR/Smile: precisam do mesmo "soldOut" do JSON
+        assertThat(snapshot.getCategoryDishes("PIZZAS")).extracting(DishDTO::getSoldOut).containsExactly(false, true);
+        assertThat(snapshot.getFavoriteDishes()).extracting(DishDTO::getId).containsExactly(2L);
+        assertThat(snapshot.getFavoriteDishes().get(0).getSoldOut()).isTrue();
+        assertThat(snapshot.getCategoryDishes("Bebidas")).isNull();
+    }
+
+    private static Dish dish(Long id, String name) {
+        Dish dish = new Dish();
+        dish.setId(id);
+        dish.setTenantId("pizzaria");
+        dish.setName(name);
+        dish.setCategory("Pizzas");
+        dish.setPrice(45.0);
+        return dish;
+    }
+}
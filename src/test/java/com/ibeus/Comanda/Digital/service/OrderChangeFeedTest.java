@@ -0,0 +1,58 @@
+package com.ibeus.Comanda.Digital.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class OrderChangeFeedTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final OrderChangeFeed feed = new OrderChangeFeed(jdbcTemplate, Duration.ofSeconds(3), Duration.ofDays(7));
+
+    @Test
+    void cursorRoundTripsWithMicrosecondPrecision() {
+        OrderChangeFeed.Cursor cursor = new OrderChangeFeed.Cursor(Instant.parse("2024-05-10T18:30:00.123456Z"), 42L);
+
+        String formatted = cursor.format();
+
+        assertThat(formatted).isEqualTo("1715365800123456_42");
+        assertThat(OrderChangeFeed.Cursor.parse(formatted)).isEqualTo(cursor);
+    }
+
+    @Test
+    void missingCursorStartsFromTheBeginning() {
+        assertThat(OrderChangeFeed.Cursor.parse(null)).isEqualTo(OrderChangeFeed.Cursor.START);
+        assertThat(OrderChangeFeed.Cursor.parse(" ")).isEqualTo(OrderChangeFeed.Cursor.START);
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() {
+        for (String value : new String[]{"123", "abc_1", "1_x", "-5_1", "5_-1", "5_"}) {
+            assertThatThrownBy(() -> feed.read("default", value, 10))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void cursorOlderThanTombstoneRetentionIsGone() {
+        Instant old = Instant.now().minus(8, ChronoUnit.DAYS);
+        String cursor = new OrderChangeFeed.Cursor(old, 1L).format();
+
+        assertThatThrownBy(() -> feed.read("default", cursor, 10))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.GONE));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
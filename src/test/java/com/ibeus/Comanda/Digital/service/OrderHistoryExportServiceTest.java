@@ -0,0 +1,148 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Escape do CSV do histórico: nomes e endereços digitados pelo cliente chegam com vírgulas,
+ * aspas e quebras de linha, e cada item precisa continuar sendo exatamente uma linha com 10 colunas.
+ * O JDBC é simulado: o result set devolve as linhas montadas em cada teste.
+ */
+class OrderHistoryExportServiceTest {
+
+    private static final Instant MOMENT = Instant.parse("2024-05-10T18:30:00Z");
+
+    private final List<Map<String, Object>> rows = new ArrayList<>();
+    private OrderHistoryExportService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ResultSet rs = fakeResultSet(rows);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(rs);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        @SuppressWarnings("unchecked")
+        ObjectProvider<DataSource> noReplica = mock(ObjectProvider.class);
+        service = new OrderHistoryExportService(dataSource, noReplica, new ObjectMapper(), 1000);
+    }
+
+    @Test
+    void quotesFieldsWithCommasAndDoublesQuotes() throws Exception {
+        rows.add(row(1L, "Silva, João \"Jota\"", "Rua A, 10 - Centro", 5L, "Pizza \"Especial\"", 2, 40.0));
+
+        List<String> lines = export();
+
+        assertThat(lines.get(1)).isEqualTo("1," + MOMENT + ",DELIVERED,\"Silva, João \"\"Jota\"\"\",\"Rua A, 10 - Centro\","
+                + "5,\"Pizza \"\"Especial\"\"\",2,40.0,80.0");
+        assertThat(DishImportExportService.parseCsvLine(lines.get(1)))
+                .hasSize(10)
+                .containsSequence("Silva, João \"Jota\"", "Rua A, 10 - Centro", "5", "Pizza \"Especial\"");
+    }
+
+    @Test
+    void lineBreaksInsideFieldsDoNotSplitTheRow() throws Exception {
+        rows.add(row(2L, "Maria", "Rua B, 20\r\nApto 3\nBloco C", 6L, "Suco\nde laranja", 1, 8.5));
+
+        List<String> lines = export();
+
+        assertThat(lines).hasSize(2);
+        assertThat(DishImportExportService.parseCsvLine(lines.get(1)))
+                .containsExactly("2", MOMENT.toString(), "DELIVERED", "Maria", "Rua B, 20 Apto 3 Bloco C",
+                        "6", "Suco de laranja", "1", "8.5", "8.5");
+    }
+
+    @Test
+    void plainValuesAndMissingFieldsAreNotQuoted() throws Exception {
+        rows.add(row(3L, null, "Rua C", 7L, "Pudim", 3, 6.0));
+        rows.add(row(4L, "Ana", "Rua D", null, null, 0, 0.0)); // pedido cancelado sem itens
+
+        List<String> lines = export();
+
+        assertThat(lines).containsExactly(
+                "orderId,moment,status,client,address,dishId,dishName,quantity,price,subTotal",
+                "3," + MOMENT + ",DELIVERED,,Rua C,7,Pudim,3,6.0,18.0",
+                "4," + MOMENT + ",DELIVERED,Ana,Rua D,,,,,");
+        assertThat(DishImportExportService.parseCsvLine(lines.get(2))).hasSize(10);
+    }
+
+    private List<String> export() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(out, MOMENT.minusSeconds(3600), MOMENT.plusSeconds(3600), OrderHistoryExportService.CSV, "default");
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private static Map<String, Object> row(Long id, String client, String address,
+                                           Long dishId, String dishName, int quantity, double price) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("moment", Timestamp.from(MOMENT));
+        row.put("status", "DELIVERED");
+        row.put("client_snapshot_name", client);
+        row.put("address_snapshot", address);
+        row.put("dish_id", dishId);
+        row.put("dish_name", dishName);
+        row.put("quantity", dishId != null ? quantity : null);
+        row.put("price", dishId != null ? price : null);
+        return row;
+    }
+
+    // Result set sobre uma lista de mapas coluna -> valor (inclui o wasNull da última leitura)
+    private static ResultSet fakeResultSet(List<Map<String, Object>> rows) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        int[] index = {-1};
+        boolean[] lastNull = {false};
+
+        when(rs.next()).thenAnswer(inv -> ++index[0] < rows.size());
+        when(rs.wasNull()).thenAnswer(inv -> lastNull[0]);
+        when(rs.getLong(anyString())).thenAnswer(inv -> {
+            Object value = rows.get(index[0]).get(inv.<String>getArgument(0));
+            lastNull[0] = value == null;
+            return value != null ? ((Number) value).longValue() : 0L;
+        });
+        when(rs.getInt(anyString())).thenAnswer(inv -> {
+            Object value = rows.get(index[0]).get(inv.<String>getArgument(0));
+            lastNull[0] = value == null;
+            return value != null ? ((Number) value).intValue() : 0;
+        });
+        when(rs.getDouble(anyString())).thenAnswer(inv -> {
+            Object value = rows.get(index[0]).get(inv.<String>getArgument(0));
+            lastNull[0] = value == null;
+            return value != null ? ((Number) value).doubleValue() : 0.0;
+        });
+        when(rs.getString(anyString())).thenAnswer(inv -> {
+            Object value = rows.get(index[0]).get(inv.<String>getArgument(0));
+            lastNull[0] = value == null;
+            return value;
+        });
+        when(rs.getTimestamp(anyString())).thenAnswer(inv -> {
+            Object value = rows.get(index[0]).get(inv.<String>getArgument(0));
+            lastNull[0] = value == null;
+            return value;
+        });
+        return rs;
+    }
+}
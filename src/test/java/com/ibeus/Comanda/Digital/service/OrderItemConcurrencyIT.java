@@ -0,0 +1,103 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.IntegrationTestSupport;
+import com.ibeus.Comanda.Digital.dto.DishDTO;
+import com.ibeus.Comanda.Digital.dto.OrderDTO;
+import com.ibeus.Comanda.Digital.dto.OrderItemDTO;
+import com.ibeus.Comanda.Digital.dto.OrderItemInputDTO;
+import com.ibeus.Comanda.Digital.model.Dish;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 64 escritores simultâneos no mesmo carrinho, metade em cada prato (itens diferentes):
+ * com o incremento forçado da versão do pedido, nenhuma quantidade confirmada pode se perder.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class OrderItemConcurrencyIT {
+
+    private static final int WRITERS = 64;
+    private static final int ADDS_PER_WRITER = 5;
+
+    private static ConfigurableApplicationContext node;
+
+    @BeforeAll
+    static void startNode() {
+        // Muitas tentativas: o objetivo é medir perda de escrita, não esgotar o retry
+        node = IntegrationTestSupport.startNode("comanda.retry.max-attempts=200", "comanda.retry.max-delay-ms=50");
+        IntegrationTestSupport.ensureDefaultClient(node);
+    }
+
+    @AfterAll
+    static void stopNode() {
+        if (node != null) node.close();
+    }
+
+    @Test
+    void noQuantityIsLostUnder64ParallelWriters() throws Exception {
+        OrderService orderService = node.getBean(OrderService.class);
+        Dish first = createDish();
+        Dish second = createDish();
+        Long orderId = orderService.create(new OrderDTO()).getId();
+
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        List<Future<?>> writers = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            Long dishId = (w % 2 == 0 ? first : second).getId();
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ADDS_PER_WRITER; i++) {
+                    OrderItemInputDTO input = new OrderItemInputDTO();
+                    input.setDishId(dishId);
+                    input.setQuantity(1);
+                    try {
+                        orderService.addItemToOrder(orderId, input);
+                        confirmed.incrementAndGet();
+                    } catch (ResponseStatusException e) {
+                        rejected.incrementAndGet(); // 409: tentativas esgotadas (nada gravado)
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        int total = orderService.findById(orderId).getItems().stream().mapToInt(OrderItemDTO::getQuantity).sum();
+        assertThat(total).isEqualTo(confirmed.get());
+        assertThat(confirmed.get() + rejected.get()).isEqualTo(WRITERS * ADDS_PER_WRITER);
+        assertThat(confirmed.get()).isPositive();
+    }
+
+    private static Dish createDish() {
+        DishDTO dto = new DishDTO();
+        dto.setName("Prato " + UUID.randomUUID());
+        dto.setCategory("Testes");
+        dto.setPrice(12.5);
+        return node.getBean(DishService.class).create(dto, null);
+    }
+}
@@ -0,0 +1,114 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.config.TenantContext;
+import com.ibeus.Comanda.Digital.dto.OrderItemInputDTO;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.model.Dish;
+import com.ibeus.Comanda.Digital.model.Order;
+import com.ibeus.Comanda.Digital.repository.ClientRepository;
+import com.ibeus.Comanda.Digital.repository.DishRepository;
+import com.ibeus.Comanda.Digital.repository.OrderRepository;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Isolamento entre restaurantes no OrderService: pedido ou prato de outro tenant responde 404,
+ * como se não existisse, e nada é alterado. O banco é simulado: as consultas filtram por tenant_id.
+ */
+class OrderServiceTenantTest {
+
+    private static final long ORDER = 1L;
+    private static final long DISH = 7L;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final DishRepository dishRepository = mock(DishRepository.class);
+    private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+    private final InventoryService inventoryService = mock(InventoryService.class);
+    private final OrderService service = new OrderService(orderRepository, mock(ClientRepository.class), dishRepository,
+            publisher, mock(OrderChangeFeed.class), inventoryService, mock(SlotAllocator.class));
+
+    @BeforeEach
+    void setUp() {
+        Order order = new Order();
+        order.setId(ORDER);
+        order.setTenantId("pizzaria");
+        order.setStatus(OrderStatus.DRAFT);
+        when(orderRepository.findByIdAndTenantId(anyLong(), anyString()))
+                .thenAnswer(inv -> ownedBy(order, inv.getArgument(0), inv.getArgument(1)));
+        when(orderRepository.findByIdForceIncrement(anyLong(), anyString()))
+                .thenAnswer(inv -> ownedBy(order, inv.getArgument(0), inv.getArgument(1)));
+
+        Dish dish = new Dish();
+        dish.setId(DISH);
+        dish.setTenantId("hamburgueria");
+        dish.setName("Picanha Burger");
+        dish.setPrice(40.0);
+        when(dishRepository.findByIdAndTenantId(anyLong(), anyString()))
+                .thenAnswer(inv -> Long.valueOf(DISH).equals(inv.getArgument(0)) && dish.getTenantId().equals(inv.getArgument(1))
+                        ? Optional.of(dish) : Optional.empty());
+    }
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void orderOfAnotherTenantIsNotFound() {
+        TenantContext.set("pizzaria");
+        assertThat(service.findById(ORDER).getId()).isEqualTo(ORDER);
+
+        TenantContext.set("hamburgueria");
+        assertNotFound(() -> service.findById(ORDER));
+        assertNotFound(() -> service.updateStatus(ORDER, OrderStatus.CANCELED));
+        assertNotFound(() -> service.addItemToOrder(ORDER, item(DISH)));
+
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(publisher, inventoryService);
+    }
+
+    @Test
+    void dishOfAnotherTenantCannotBeAddedToTheCart() {
+        TenantContext.set("pizzaria");
+
+        // O prato existe, mas no cardápio da hamburgueria
+        assertNotFound(() -> service.addItemToOrder(ORDER, item(DISH)));
+
+        verify(inventoryService, never()).reserve(anyLong(), anyInt());
+        verify(orderRepository, never()).save(any());
+    }
+
+    // --- auxiliares ---
+
+    private static Optional<Order> ownedBy(Order order, Long id, String tenantId) {
+        return order.getId().equals(id) && order.getTenantId().equals(tenantId) ? Optional.of(order) : Optional.empty();
+    }
+
+    private static OrderItemInputDTO item(Long dishId) {
+        OrderItemInputDTO item = new OrderItemInputDTO();
+        item.setDishId(dishId);
+        item.setQuantity(1);
+        return item;
+    }
+
+    private static void assertNotFound(ThrowingCallable call) {
+        assertThatThrownBy(call)
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+}
@@ -0,0 +1,73 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderStatusEventServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Cópia dos lotes gravados (a lista passada ao batchUpdate é reaproveitada pelo serviço)
+    private final List<List<Long>> written = new ArrayList<>();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedBatchIsRequeuedInOrder() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("banco fora do ar"))
+                .thenAnswer(invocation -> {
+                    Collection<OrderStatusChangedEvent> batch = invocation.getArgument(1);
+                    written.add(batch.stream().map(OrderStatusChangedEvent::getOrderId).toList());
+                    return new int[0][];
+                });
+
+        OrderStatusEventService service = new OrderStatusEventService(jdbcTemplate, meterRegistry, 2, 100);
+        for (long id = 1; id <= 3; id++) {
+            service.onStatusChanged(event(id));
+        }
+
+        service.flush(); // primeiro lote falha: nada se perde
+        assertThat(written).isEmpty();
+        assertThat(meterRegistry.get("comanda.status-events.buffered").gauge().value()).isEqualTo(3);
+
+        service.flush();
+        assertThat(written).containsExactly(List.of(1L, 2L), List.of(3L));
+        assertThat(meterRegistry.get("comanda.status-events.buffered").gauge().value()).isZero();
+        assertThat(meterRegistry.get("comanda.status-events.dropped").counter().count()).isZero();
+    }
+
+    @Test
+    void fullBufferDropsAndCounts() {
+        OrderStatusEventService service = new OrderStatusEventService(jdbcTemplate, meterRegistry, 10, 2);
+        for (long id = 1; id <= 5; id++) {
+            service.onStatusChanged(event(id));
+        }
+
+        assertThat(meterRegistry.get("comanda.status-events.buffered").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("comanda.status-events.dropped").counter().count()).isEqualTo(3);
+    }
+
+    private static OrderStatusChangedEvent event(long orderId) {
+        return new OrderStatusChangedEvent(orderId, "default", OrderStatus.RECEIVED, OrderStatus.IN_PREPARATION,
+                Instant.now(), Instant.now(), List.of());
+    }
+}
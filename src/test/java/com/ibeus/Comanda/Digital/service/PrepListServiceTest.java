@@ -0,0 +1,104 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.config.TenantContext;
+import com.ibeus.Comanda.Digital.dto.PrepItemDTO;
+import com.ibeus.Comanda.Digital.enums.OrderStatus;
+import com.ibeus.Comanda.Digital.event.OrderStatusChangedEvent;
+import com.ibeus.Comanda.Digital.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lista de preparo: deltas das mudanças de status e recarga do banco por delta, sem perder
+ * as mudanças que chegam enquanto a consulta roda. O banco é simulado por dbRows.
+ */
+class PrepListServiceTest {
+
+    private static final long DISH = 7L;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final PrepListService prepList = new PrepListService(orderRepository);
+
+    private final List<Object[]> dbRows = new ArrayList<>();
+    private Runnable duringRead = () -> { };
+
+    @BeforeEach
+    void setUp() {
+        when(orderRepository.sumQuantityByDishForStatuses(any())).thenAnswer(inv -> {
+            List<Object[]> rows = List.copyOf(dbRows); // o que a consulta enxergou
+            duringRead.run();
+            return rows;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void statusChangesAddAndRemoveFromTheList() {
+        prepList.onStatusChanged(event(OrderStatus.DRAFT, OrderStatus.RECEIVED, 3));
+        prepList.onStatusChanged(event(OrderStatus.RECEIVED, OrderStatus.IN_PREPARATION, 3)); // continua ativo
+        assertThat(quantity()).isEqualTo(3);
+
+        prepList.onStatusChanged(event(OrderStatus.IN_PREPARATION, OrderStatus.READY, 3));
+        assertThat(prepList.getPrepList()).isEmpty();
+    }
+
+    @Test
+    void rebuildKeepsStatusChangesMadeWhileReadingTheDatabase() {
+        prepList.onStatusChanged(event(OrderStatus.DRAFT, OrderStatus.RECEIVED, 2)); // já no banco
+        dbRows.add(row(2));
+        duringRead = () -> prepList.onStatusChanged(event(OrderStatus.DRAFT, OrderStatus.RECEIVED, 4));
+
+        prepList.rebuild();
+        duringRead = () -> { };
+
+        // Trocar o mapa pelo resultado da consulta daria 2 e perderia o pedido concorrente
+        assertThat(quantity()).isEqualTo(6);
+
+        dbRows.set(0, row(6));
+        prepList.rebuild();
+        assertThat(quantity()).isEqualTo(6);
+    }
+
+    @Test
+    void rebuildPicksUpOtherNodesAndDishesThatLeftTheList() {
+        prepList.onStatusChanged(event(OrderStatus.DRAFT, OrderStatus.RECEIVED, 2));
+        dbRows.add(row(2 + 5)); // outro nó recebeu mais 5
+        prepList.rebuild();
+        assertThat(quantity()).isEqualTo(7);
+
+        dbRows.clear(); // outro nó marcou tudo como pronto
+        prepList.rebuild();
+        assertThat(prepList.getPrepList()).isEmpty();
+    }
+
+    // --- auxiliares ---
+
+    private int quantity() {
+        List<PrepItemDTO> list = prepList.getPrepList();
+        assertThat(list).extracting(PrepItemDTO::getDishId).containsExactly(DISH);
+        return list.get(0).getQuantity();
+    }
+
+    private static Object[] row(int quantity) {
+        return new Object[]{TenantContext.DEFAULT, DISH, "Pizza", (long) quantity};
+    }
+
+    private static OrderStatusChangedEvent event(OrderStatus from, OrderStatus to, int quantity) {
+        return new OrderStatusChangedEvent(1L, TenantContext.DEFAULT, from, to, Instant.now(), Instant.now(),
+                List.of(new OrderStatusChangedEvent.Item(DISH, "Pizza", "Pizzas", quantity)));
+    }
+}
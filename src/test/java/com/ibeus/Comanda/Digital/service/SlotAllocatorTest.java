@@ -0,0 +1,193 @@
+package com.ibeus.Comanda.Digital.service;
+
+import com.ibeus.Comanda.Digital.model.Dish;
+import com.ibeus.Comanda.Digital.model.Order;
+import com.ibeus.Comanda.Digital.model.OrderItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Slots de 15 minutos com 120 minutos de capacidade: alinhamento do horário, janela de agendamento,
+ * soma dos minutos por (restaurante, slot) e reconciliação com slot_load. O banco é simulado.
+ */
+class SlotAllocatorTest {
+
+    private static final long SLOT_SECONDS = 15 * 60;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SlotAllocator allocator = new SlotAllocator(jdbcTemplate, Duration.ofMinutes(15), 120, 15,
+            Duration.ofMinutes(30), Duration.ofDays(7), Duration.ofMinutes(10), new SimpleMeterRegistry());
+
+    // Um slot livre daqui a algumas horas, já alinhado
+    private final Instant slot = Instant.ofEpochSecond(
+            Math.floorDiv(Instant.now().plus(3, ChronoUnit.HOURS).getEpochSecond(), SLOT_SECONDS) * SLOT_SECONDS);
+
+    private final List<Object[]> storedRows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Guarda do banco aceita por padrão; os testes que simulam outro nó trocam o retorno
+        when(jdbcTemplate.update(contains("used_minutes + ?"), any(), any(), any(), any(), any())).thenReturn(1);
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            for (Object[] row : storedRows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn((String) row[0]);
+                when(rs.getTimestamp(2)).thenReturn(Timestamp.from((Instant) row[1]));
+                when(rs.getInt(3)).thenReturn((Integer) row[2]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains("FROM slot_load"), any(RowCallbackHandler.class), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void normalizeFloorsToTheStartOfTheSlot() {
+        assertThat(allocator.normalize(slot)).isEqualTo(slot);
+        assertThat(allocator.normalize(slot.plusSeconds(1))).isEqualTo(slot);
+        assertThat(allocator.normalize(slot.plusSeconds(SLOT_SECONDS - 1))).isEqualTo(slot);
+        assertThat(allocator.normalize(slot.plusSeconds(SLOT_SECONDS))).isEqualTo(slot.plusSeconds(SLOT_SECONDS));
+    }
+
+    @Test
+    void normalizeRejectsSlotsOutsideTheSchedulingWindow() {
+        for (Instant requested : new Instant[]{
+                Instant.now().plus(10, ChronoUnit.MINUTES),  // antes da antecedência mínima
+                Instant.now().minus(1, ChronoUnit.HOURS),
+                Instant.now().plus(8, ChronoUnit.DAYS)}) {   // além do horizonte
+            assertThatThrownBy(() -> allocator.normalize(requested))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+    }
+
+    @Test
+    void releaseAtUsesTheLongestDishAndTheMargin() {
+        Order order = order("default", slot, item(2, 20), item(1, 45), item(3, null));
+
+        // 45 min do prato mais demorado + 10 de margem; null usa o padrão (15)
+        assertThat(allocator.releaseAt(order)).isEqualTo(slot.minus(55, ChronoUnit.MINUTES));
+    }
+
+    @Test
+    void capacityIsSummedPerTenantAndSlot() {
+        allocator.reserve(order("default", slot, item(2, 30)));          // 60
+        allocator.reserve(order("default", slot, item(4, null)));        // 60 (padrão 15)
+
+        assertFull(order("default", slot, item(1, 1)));
+        allocator.reserve(order("outro", slot, item(4, 30)));            // outro restaurante
+        allocator.reserve(order("default", slot.plusSeconds(SLOT_SECONDS), item(4, 30))); // slot seguinte
+    }
+
+    @Test
+    void releaseGivesBackTheReservedMinutesEvenIfPrepTimeChanged() {
+        Order order = order("default", slot, item(4, 30));
+        allocator.reserve(order);
+        assertThat(order.getSlotMinutes()).isEqualTo(120);
+
+        order.getItems().get(0).getDish().setPrepMinutes(5); // editado depois da reserva
+        allocator.release(order);
+
+        assertThat(order.getSlotMinutes()).isNull();
+        verify(jdbcTemplate).update(contains("used_minutes - ?"), eq(120), eq("default"), eq(Timestamp.from(slot)));
+        allocator.reserve(order("default", slot, item(4, 30)));
+    }
+
+    @Test
+    void rollbackFreesTheLocalCapacity() {
+        TransactionSynchronizationManager.initSynchronization();
+        allocator.reserve(order("default", slot, item(4, 30)));
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        allocator.reserve(order("default", slot, item(4, 30)));
+    }
+
+    @Test
+    void slotFilledByAnotherNodeIsRejectedBeforeCommit() {
+        when(jdbcTemplate.update(contains("used_minutes + ?"), any(), any(), any(), any(), any())).thenReturn(0);
+        TransactionSynchronizationManager.initSynchronization();
+
+        allocator.reserve(order("default", slot, item(1, 30))); // o contador deste nó ainda tem espaço
+
+        assertThatThrownBy(() -> TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.beforeCommit(false)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+    }
+
+    @Test
+    void reloadAddsOtherNodesAndKeepsLocalReservationsByDelta() {
+        allocator.reserve(order("default", slot, item(1, 30)));  // 30, já em slot_load
+        storedRows.add(new Object[]{"default", slot, 30 + 60});   // + 60 de outro nó
+        allocator.reload();
+
+        assertFull(order("default", slot, item(1, 31)));
+        allocator.reserve(order("default", slot, item(1, 30)));  // 120: cheio
+
+        // A recarga seguinte vê a reserva deste nó no banco e não conta duas vezes
+        storedRows.set(0, new Object[]{"default", slot, 120});
+        allocator.reload();
+        assertFull(order("default", slot, item(1, 1)));
+        storedRows.set(0, new Object[]{"default", slot, 110});   // outro nó liberou 10
+        allocator.reload();
+        allocator.reserve(order("default", slot, item(1, 10)));
+    }
+
+    // --- auxiliares ---
+
+    private void assertFull(Order order) {
+        assertThatThrownBy(() -> allocator.reserve(order))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+    }
+
+    private static Order order(String tenantId, Instant requestedSlot, OrderItem... items) {
+        Order order = new Order();
+        order.setTenantId(tenantId);
+        order.setRequestedSlot(requestedSlot);
+        order.getItems().addAll(List.of(items));
+        return order;
+    }
+
+    private static OrderItem item(int quantity, Integer prepMinutes) {
+        Dish dish = new Dish();
+        dish.setPrepMinutes(prepMinutes);
+        OrderItem item = new OrderItem();
+        item.setQuantity(quantity);
+        item.setDish(dish);
+        return item;
+    }
+}
@@ -0,0 +1,28 @@
+-- Banco de uma instalação anterior ao Flyway, no formato que o ddl-auto=update do Hibernate gerava
+-- (colunas em outra ordem, constraints com nomes gerados e criadas à parte), com alguns dados.
+-- Usado pelo SchemaUpgradeIT; não é uma migração.
+
+create table address (id bigint not null auto_increment, bairro varchar(255), cep varchar(255), localidade varchar(255), logradouro varchar(255), uf varchar(255), primary key (id)) engine=InnoDB;
+create table client (address_number integer not null, address_id bigint, id bigint not null auto_increment, complement varchar(255), cpf varchar(255), mid_name varchar(255), name varchar(255), primary key (id)) engine=InnoDB;
+create table dishes (favorite bit not null, price float(53), id bigint not null auto_increment, category varchar(255), description varchar(255), name varchar(255), url_image varchar(255), primary key (id)) engine=InnoDB;
+create table order_item (price float(53), quantity integer, dish_id bigint, id bigint not null auto_increment, order_id bigint, primary key (id)) engine=InnoDB;
+create table tb_order (client_id bigint, id bigint not null auto_increment, moment timestamp(6), address_snapshot varchar(255), client_snapshot_name varchar(255), status enum ('DRAFT','RECEIVED','IN_PREPARATION','READY','ON_THE_WAY','DELIVERED','CANCELED'), primary key (id)) engine=InnoDB;
+alter table client add constraint UKk6w8x1ktfp2aqmg1pd4kuq0ye unique (address_id);
+alter table client add constraint FKb137u2cl2ec0otae32lk5pcl2 foreign key (address_id) references address (id);
+alter table order_item add constraint FK9qwwdv6rqbq37m5lx54o5ew1u foreign key (dish_id) references dishes (id);
+alter table order_item add constraint FKsoiu9wybqdmmfcgx1w3kxkg7y foreign key (order_id) references tb_order (id);
+alter table tb_order add constraint FKpyd5ggtbxu4uq5cq3tqu6n9ch foreign key (client_id) references client (id);
+
+insert into address (id, cep, logradouro, bairro, localidade, uf) values (1, '01001-000', 'Praça da Sé', 'Sé', 'São Paulo', 'SP');
+insert into client (id, cpf, name, address_id, address_number) values (1, '00000000000', 'Cliente Antigo', 1, 100);
+
+insert into dishes (id, name, category, price, favorite) values (1, 'Pizza Margherita', 'Pizzas', 45.0, true);
+insert into dishes (id, name, category, price, favorite) values (2, 'Refrigerante', 'Bebidas', 8.0, false);
+insert into dishes (id, name, category, price, favorite) values (40, 'Pizza Calabresa', 'Pizzas', 48.0, false);
+
+insert into tb_order (id, client_id, moment, status, client_snapshot_name, address_snapshot)
+values (7, 1, '2026-01-10 19:30:00', 'DELIVERED', 'Cliente Antigo', 'Praça da Sé, 100 - Sé - 01001-000');
+insert into tb_order (id, client_id, moment, status) values (8, 1, '2026-01-10 20:00:00', 'DRAFT');
+insert into order_item (id, order_id, dish_id, quantity, price) values (1, 7, 1, 2, 45.0);
+insert into order_item (id, order_id, dish_id, quantity, price) values (2, 7, 2, 1, 8.0);
+insert into order_item (id, order_id, dish_id, quantity, price) values (3, 8, 40, 1, 48.0);